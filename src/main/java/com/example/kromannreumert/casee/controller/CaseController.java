@@ -5,8 +5,13 @@ import com.example.kromannreumert.casee.dto.CaseRequestDTO;
 import com.example.kromannreumert.casee.dto.CaseResponseDTO;
 import com.example.kromannreumert.casee.dto.CaseUpdateRequest;
 import com.example.kromannreumert.casee.service.CaseService;
+import com.example.kromannreumert.exception.customException.http4xxExceptions.VersionConflictException;
+import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -40,10 +45,37 @@ public class CaseController {
         }
     }
 
+    // Paged case list, e.g. /api/v1/cases?page=0&size=50&sort=name,asc. Without page the full list above is returned
+    @GetMapping(value = "", params = "page")
+    public ResponseEntity<?> getCasesPage(@PageableDefault(size = 50) Pageable pageable, Principal principal) {
+        try {
+            return new ResponseEntity<>(caseService.getCasesPage(principal, pageable), HttpStatus.OK);
+        } catch(RuntimeException e) {
+            return new ResponseEntity<>("Failed to retrieve cases", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // The case page: the case, its assignees and the counts of its open todos
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<?> getCaseSummary(@PathVariable Long id, Principal principal) {
+        try {
+            return new ResponseEntity<>(caseService.getCaseSummary(id, principal), HttpStatus.OK);
+        } catch (EntityNotFoundException e) {
+            return new ResponseEntity<>("Case not found: " + id, HttpStatus.NOT_FOUND);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>("Failed to retrieve case summary", HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @PutMapping("")
     public ResponseEntity<?> updateCase(@RequestBody CaseUpdateRequest request, Principal principal) {
         try {
             return new ResponseEntity<>(caseService.updateCase(request, principal), HttpStatus.OK);
+        } catch (VersionConflictException e) {
+            throw e;
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Someone else committed a change to the case while this update ran
+            throw caseService.updateConflict(request.id(), principal.getName());
         } catch(RuntimeException e) {
             return new ResponseEntity<>("Failed to update case" + request.name(), HttpStatus.BAD_REQUEST);
         }
@@ -0,0 +1,42 @@
+package com.example.kromannreumert.casee.controller;
+
+import com.example.kromannreumert.casee.dto.CaseImportResultDTO;
+import com.example.kromannreumert.casee.service.CaseImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+import java.security.Principal;
+
+// Bulk import of cases from the old system, under /api/v1/admin so only ADMIN can reach it
+@RestController
+@RequestMapping("/api/v1/admin/cases")
+public class CaseImportController {
+
+    private static final Logger log = LoggerFactory.getLogger(CaseImportController.class);
+    private final CaseImportService caseImportService;
+
+    public CaseImportController(CaseImportService caseImportService) {
+        this.caseImportService = caseImportService;
+    }
+
+    // The request body is read as a stream, one row per line. Example: POST /api/v1/admin/cases/import?format=CSV
+    @PostMapping("/import")
+    public ResponseEntity<?> importCases(@RequestParam(defaultValue = "NDJSON") CaseImportService.Format format,
+                                         InputStream body,
+                                         Principal principal) {
+        log.info("Controller: Case import ({}) started by {}", format, principal.getName());
+        try {
+            CaseImportResultDTO result = caseImportService.importCases(body, format, principal.getName());
+            return new ResponseEntity<>(result, HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>("Failed to import cases: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+}
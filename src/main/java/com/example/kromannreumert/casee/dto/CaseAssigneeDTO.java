@@ -0,0 +1,4 @@
+package com.example.kromannreumert.casee.dto;
+
+public record CaseAssigneeDTO(Long userId, String name) {
+}
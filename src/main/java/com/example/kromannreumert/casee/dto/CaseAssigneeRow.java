@@ -0,0 +1,4 @@
+package com.example.kromannreumert.casee.dto;
+
+public record CaseAssigneeRow(Long caseId, Long userId, String name) {
+}
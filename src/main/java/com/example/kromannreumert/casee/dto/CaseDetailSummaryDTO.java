@@ -0,0 +1,6 @@
+package com.example.kromannreumert.casee.dto;
+
+// Everything the case page needs, see CaseService.getCaseSummary
+public record CaseDetailSummaryDTO(CaseSummaryDTO caseSummary,
+                                   CaseToDoCountsDTO todos) {
+}
@@ -0,0 +1,10 @@
+package com.example.kromannreumert.casee.dto;
+
+/**
+ * A row that was not imported.
+ * @param line line number in the uploaded file, counting the CSV header
+ */
+public record CaseImportErrorDTO(
+        long line,
+        String message
+) {}
@@ -0,0 +1,15 @@
+package com.example.kromannreumert.casee.dto;
+
+import java.util.List;
+
+/**
+ * Result of a case import.
+ * @param rows data rows read, blank lines and the CSV header are not counted
+ * @param errors the first 1000 rows that failed, failed counts all of them
+ */
+public record CaseImportResultDTO(
+        int rows,
+        int imported,
+        int failed,
+        List<CaseImportErrorDTO> errors
+) {}
@@ -0,0 +1,11 @@
+package com.example.kromannreumert.casee.dto;
+
+// Scalar columns of a case for the paged listing, selected with a JPQL constructor expression
+public record CaseListRow(Long id,
+                          String name,
+                          Long idPrefix,
+                          Long clientId,
+                          String clientName,
+                          Long responsibleUserId,
+                          String responsibleUserName) {
+}
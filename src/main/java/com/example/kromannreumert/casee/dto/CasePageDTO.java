@@ -0,0 +1,6 @@
+package com.example.kromannreumert.casee.dto;
+
+import java.util.List;
+
+public record CasePageDTO(List<CaseSummaryDTO> cases, int page, int size, long totalElements, int totalPages) {
+}
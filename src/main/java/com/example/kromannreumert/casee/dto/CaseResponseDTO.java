@@ -5,5 +5,9 @@ import com.example.kromannreumert.user.entity.User;
 
 import java.util.Set;
 
-public record CaseResponseDTO(String name, Client client, Set<User> users, Long idPrefix, User responsibleUser) {
+public record CaseResponseDTO(Long id, String name, Client client, Set<User> users, Long idPrefix, User responsibleUser, Long version) {
+
+    public CaseResponseDTO(String name, Client client, Set<User> users, Long idPrefix, User responsibleUser) {
+        this(null, name, client, users, idPrefix, responsibleUser, null);
+    }
 }
@@ -0,0 +1,13 @@
+package com.example.kromannreumert.casee.dto;
+
+import java.util.List;
+
+public record CaseSummaryDTO(Long id,
+                             String name,
+                             Long idPrefix,
+                             Long clientId,
+                             String clientName,
+                             Long responsibleUserId,
+                             String responsibleUserName,
+                             List<CaseAssigneeDTO> assignees) {
+}
@@ -0,0 +1,8 @@
+package com.example.kromannreumert.casee.dto;
+
+import com.example.kromannreumert.todo.entity.Priority;
+import com.example.kromannreumert.todo.entity.Status;
+
+// Open todos of a case grouped by status and priority, overdue counts the ones past their end date that are not done
+public record CaseToDoCountRow(Status status, Priority priority, Long count, Long overdue) {
+}
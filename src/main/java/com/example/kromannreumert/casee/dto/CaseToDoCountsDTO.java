@@ -0,0 +1,18 @@
+package com.example.kromannreumert.casee.dto;
+
+import com.example.kromannreumert.todo.entity.Priority;
+import com.example.kromannreumert.todo.entity.Status;
+
+import java.util.Map;
+
+/**
+ * Counts of the case's todos that are not archived.
+ * @param byStatus every status is present, 0 when the case has none
+ * @param byPriority every priority is present, 0 when the case has none
+ * @param overdue todos whose endDate has passed and that are not DONE
+ */
+public record CaseToDoCountsDTO(long total,
+                                Map<Status, Long> byStatus,
+                                Map<Priority, Long> byPriority,
+                                long overdue) {
+}
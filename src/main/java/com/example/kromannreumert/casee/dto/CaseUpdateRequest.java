@@ -4,13 +4,21 @@ import com.example.kromannreumert.user.entity.User;
 
 import java.util.Set;
 
+/**
+ * @param idPrefix the new prefix. Left out, the stored prefix is kept, so an update cannot clear it
+ * @param version the version the edit is based on, from CaseResponseDTO. Without it the update is applied
+ *                to whatever is stored, as before
+ */
 public record CaseUpdateRequest(
         Long id,
         String name,
         Long idPrefix,
         Integer responsibleUserId,
-        Set<Integer> assigneeIds
+        Set<Integer> assigneeIds,
+        Long version
 ) {
 
+    public CaseUpdateRequest(Long id, String name, Long idPrefix, Integer responsibleUserId, Set<Integer> assigneeIds) {
+        this(id, name, idPrefix, responsibleUserId, assigneeIds, null);
+    }
 }
-
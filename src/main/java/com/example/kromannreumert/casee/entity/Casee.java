@@ -12,6 +12,20 @@ import lombok.Setter;
 import java.util.HashSet;
 import java.util.Set;
 
+/**
+ * Casee.list fetches the client, the responsible user and the assignees with their roles in the same query,
+ * so serializing a list of cases does not load them one case at a time.
+ * The users of the clients are not joined in as well, they are loaded afterwards for up to 50 clients per query.
+ */
+@NamedEntityGraph(
+        name = "Casee.list",
+        attributeNodes = {
+                @NamedAttributeNode("client"),
+                @NamedAttributeNode(value = "responsibleUser", subgraph = "user"),
+                @NamedAttributeNode(value = "users", subgraph = "user")
+        },
+        subgraphs = @NamedSubgraph(name = "user", attributeNodes = @NamedAttributeNode("roles"))
+)
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
@@ -35,7 +49,9 @@ public class Casee {
     @JoinTable(
             name = "case_assignee",
             joinColumns = @JoinColumn(name = "case_id"),
-            inverseJoinColumns = @JoinColumn(name = "user_id")
+            inverseJoinColumns = @JoinColumn(name = "user_id"),
+            // The primary key leads with case_id, jurist listings look the cases of one user up by this one
+            indexes = @Index(name = "idx_case_assignee_user", columnList = "user_id, case_id")
     )
     private Set<User> users = new HashSet<>();
 
@@ -43,6 +59,10 @@ public class Casee {
     @Column(unique = true)
     public Long idPrefix;
 
+    // Optimistic locking, an update based on an older version is rejected with 409
+    @Version
+    private Long version;
+
     public Casee(String name, Client client, Set<User> users, Long idPrefix, User responsibleUser) {
         this.name = name;
         this.client = client;
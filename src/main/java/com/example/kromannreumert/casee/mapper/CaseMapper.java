@@ -9,7 +9,8 @@ public class CaseMapper {
 
 
     public CaseResponseDTO caseToResponse(Casee casee) {
-        return new CaseResponseDTO(casee.getName(), casee.getClient(), casee.getUsers(), casee.getIdPrefix(), casee.getResponsibleUser());
+        return new CaseResponseDTO(casee.getId(), casee.getName(), casee.getClient(), casee.getUsers(), casee.getIdPrefix(),
+                casee.getResponsibleUser(), casee.getVersion());
     }
 
 }
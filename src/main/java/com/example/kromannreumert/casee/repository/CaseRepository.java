@@ -1,15 +1,50 @@
 package com.example.kromannreumert.casee.repository;
 
+import com.example.kromannreumert.casee.dto.CaseAssigneeRow;
+import com.example.kromannreumert.casee.dto.CaseListRow;
 import com.example.kromannreumert.casee.entity.Casee;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CaseRepository extends JpaRepository<Casee, Long> {
     Optional<Casee> findAllByName(String name);
-    List<Casee> findDistinctByUsers_UserId(Long userId);
+
+    @EntityGraph("Casee.list")
+    @Query("select c from Casee c")
+    List<Casee> findAllForList();
+
+    // case_assignee has one row per case and user, so joining it yields each case once without DISTINCT
+    @EntityGraph("Casee.list")
+    @Query("select c from Casee c join c.users a where a.userId = :userId order by c.id")
+    List<Casee> findAssignedTo(@Param("userId") Long userId);
+
+    boolean existsByIdAndUsers_UserId(Long caseId, Long userId);
+
+    @Query(value = "select new com.example.kromannreumert.casee.dto.CaseListRow(c.id, c.name, c.idPrefix, cl.id, cl.name, ru.userId, ru.name) " +
+            "from Casee c left join c.client cl left join c.responsibleUser ru",
+            countQuery = "select count(c) from Casee c")
+    Page<CaseListRow> findCaseRows(Pageable pageable);
+
+    @Query(value = "select new com.example.kromannreumert.casee.dto.CaseListRow(c.id, c.name, c.idPrefix, cl.id, cl.name, ru.userId, ru.name) " +
+            "from Casee c join c.users a left join c.client cl left join c.responsibleUser ru where a.userId = :userId",
+            countQuery = "select count(c) from Casee c join c.users a where a.userId = :userId")
+    Page<CaseListRow> findAssignedCaseRows(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("select new com.example.kromannreumert.casee.dto.CaseListRow(c.id, c.name, c.idPrefix, cl.id, cl.name, ru.userId, ru.name) " +
+            "from Casee c left join c.client cl left join c.responsibleUser ru where c.id = :caseId")
+    Optional<CaseListRow> findCaseRow(@Param("caseId") Long caseId);
+
+    @Query("select new com.example.kromannreumert.casee.dto.CaseAssigneeRow(c.id, u.userId, u.name) " +
+            "from Casee c join c.users u where c.id in :caseIds order by u.name")
+    List<CaseAssigneeRow> findAssigneeRows(@Param("caseIds") Collection<Long> caseIds);
 }
@@ -0,0 +1,413 @@
+package com.example.kromannreumert.casee.service;
+
+import com.example.kromannreumert.casee.dto.CaseImportErrorDTO;
+import com.example.kromannreumert.casee.dto.CaseImportResultDTO;
+import com.example.kromannreumert.casee.dto.CaseRequestDTO;
+import com.example.kromannreumert.counter.service.EntityCounters;
+import com.example.kromannreumert.etag.service.CollectionVersions;
+import com.example.kromannreumert.idprefix.service.IdPrefixAllocator;
+import com.example.kromannreumert.logging.dto.AuditEvent;
+import com.example.kromannreumert.logging.entity.LogAction;
+import com.example.kromannreumert.logging.service.LoggingService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Imports cases from NDJSON or CSV, for migrating matters from the old system.
+ *
+ * The input is read in chunks. For each chunk the referenced clients and users are looked up with one query each,
+ * existing idPrefixes with one more, and the valid rows are written in one transaction: the cases and their
+ * case_assignee rows as JDBC batches, and one audit entry summarizing the chunk. If the database rejects the chunk it
+ * is written again in halves until the failing rows are found, and each part that is written gets its own entry. A row
+ * that cannot be imported is reported with its line number and skipped, the rest of the import goes on.
+ *
+ * NDJSON lines have the fields of CaseRequestDTO. CSV needs a header with name, clientId, idPrefix,
+ * responsibleUserId and userIds, where userIds are separated by ';'. Rows without idPrefix get one allocated.
+ */
+@Service
+public class CaseImportService {
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(CaseImportService.class);
+
+    // Errors beyond this are counted but not listed in the result
+    private static final int MAX_ERRORS = 1000;
+
+    private static final String INSERT_CASE =
+            "INSERT INTO casee (name, client_id, id_prefix, responsible_user_user_id, version) VALUES (?, ?, ?, ?, 0)";
+    private static final String INSERT_ASSIGNEE = "INSERT INTO case_assignee (case_id, user_id) VALUES (?, ?)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final LoggingService loggingService;
+    private final IdPrefixAllocator idPrefixAllocator;
+    private final CollectionVersions collectionVersions;
+    private final EntityCounters entityCounters;
+    private final int chunkSize;
+
+    public CaseImportService(NamedParameterJdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             LoggingService loggingService,
+                             IdPrefixAllocator idPrefixAllocator,
+                             CollectionVersions collectionVersions,
+                             EntityCounters entityCounters,
+                             @Value("${case.import.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.loggingService = loggingService;
+        this.idPrefixAllocator = idPrefixAllocator;
+        this.collectionVersions = collectionVersions;
+        this.entityCounters = entityCounters;
+        this.chunkSize = chunkSize;
+    }
+
+    public CaseImportResultDTO importCases(InputStream in, Format format, String actor) {
+        Result result = new Result();
+        Set<Long> seenPrefixes = new HashSet<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            Map<String, Integer> header = null;
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && header == null) {
+                    header = parseHeader(line);
+                    continue;
+                }
+
+                result.rows++;
+                try {
+                    CaseRequestDTO request = format == Format.CSV ? parseCsv(line, header) : parseJson(line);
+                    chunk.add(new Row(lineNumber, request));
+                } catch (RuntimeException e) {
+                    result.error(lineNumber, "Could not read row: " + e.getMessage());
+                }
+
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, seenPrefixes, result, actor);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, seenPrefixes, result, actor);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not read case import", e);
+        }
+
+        log.info("Case import by {}: {} rows, {} imported, {} failed", actor, result.rows, result.imported, result.failed);
+        // Unreadable rows are reported when read, the others when their chunk is written
+        result.errors.sort(Comparator.comparingLong(CaseImportErrorDTO::line));
+        return new CaseImportResultDTO(result.rows, result.imported, result.failed, result.errors);
+    }
+
+    private void importChunk(List<Row> chunk, Set<Long> seenPrefixes, Result result, String actor) {
+        Set<Long> clientIds = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> explicitPrefixes = new HashSet<>();
+        for (Row row : chunk) {
+            CaseRequestDTO request = row.request;
+            if (request.clientId() != null) {
+                clientIds.add(request.clientId());
+            }
+            if (request.responsibleUserId() != null) {
+                userIds.add(request.responsibleUserId().longValue());
+            }
+            if (request.userIds() != null) {
+                userIds.addAll(request.userIds());
+            }
+            if (request.idPrefix() != null) {
+                explicitPrefixes.add(request.idPrefix());
+            }
+        }
+
+        Set<Long> knownClients = existing("SELECT id FROM client WHERE id IN (:ids)", clientIds);
+        Set<Long> knownUsers = existing("SELECT user_id FROM users WHERE user_id IN (:ids)", userIds);
+        Set<Long> usedPrefixes = existing("SELECT id_prefix FROM casee WHERE id_prefix IN (:ids)", explicitPrefixes);
+        long reservedEnd = explicitPrefixes.isEmpty() ? 0 : idPrefixAllocator.reservedEnd(IdPrefixAllocator.Sequence.CASE);
+
+        List<Row> valid = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            String error = validate(row.request, knownClients, knownUsers, usedPrefixes, seenPrefixes, reservedEnd);
+            if (error != null) {
+                result.error(row.line, error);
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        for (Row row : valid) {
+            row.idPrefix = row.request.idPrefix();
+            if (row.idPrefix == null) {
+                // A block reserved now only skips stored prefixes, not the explicit ones of this chunk
+                do {
+                    row.idPrefix = idPrefixAllocator.next(IdPrefixAllocator.Sequence.CASE);
+                } while (explicitPrefixes.contains(row.idPrefix));
+            }
+        }
+
+        writeRows(valid, result, actor);
+    }
+
+    /**
+     * Writes the rows in one transaction. If that fails the rows are split in halves and each is written on its own,
+     * down to single rows, so only the rows the database rejects are reported and the others are still imported.
+     */
+    private void writeRows(List<Row> rows, Result result, String actor) {
+        try {
+            List<Long> caseIds = transactionTemplate.execute(status -> write(rows, actor));
+            result.imported += caseIds.size();
+        } catch (RuntimeException e) {
+            if (rows.size() > 1) {
+                log.debug("Case import of lines {} to {} failed, writing them in halves",
+                        rows.getFirst().line, rows.getLast().line);
+                int middle = rows.size() / 2;
+                writeRows(rows.subList(0, middle), result, actor);
+                writeRows(rows.subList(middle, rows.size()), result, actor);
+                return;
+            }
+            Row row = rows.getFirst();
+            String error = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("Case import row on line {} failed", row.line, e);
+            loggingService.log(LogAction.CASE_IMPORT_FAILED, actor, AuditEvent.of("case.import")
+                    .field("line", row.line)
+                    .field("error", error));
+            result.error(row.line, "Could not write row: " + error);
+        }
+    }
+
+    private String validate(CaseRequestDTO request, Set<Long> knownClients, Set<Long> knownUsers,
+                            Set<Long> usedPrefixes, Set<Long> seenPrefixes, long reservedEnd) {
+        if (request.name() == null || request.name().isBlank()) {
+            return "name is missing";
+        }
+        if (request.clientId() == null || !knownClients.contains(request.clientId())) {
+            return "Client not found: " + request.clientId();
+        }
+        if (request.responsibleUserId() == null || !knownUsers.contains(request.responsibleUserId().longValue())) {
+            return "Responsible user not found: " + request.responsibleUserId();
+        }
+        if (request.userIds() != null) {
+            Set<Long> missing = new TreeSet<>(request.userIds());
+            missing.removeAll(knownUsers);
+            if (!missing.isEmpty()) {
+                return "Users not found: " + missing;
+            }
+        }
+        if (request.idPrefix() != null) {
+            try {
+                idPrefixAllocator.checkExplicit(IdPrefixAllocator.Sequence.CASE, request.idPrefix(), reservedEnd);
+            } catch (IllegalArgumentException e) {
+                return e.getMessage();
+            }
+            if (usedPrefixes.contains(request.idPrefix()) || !seenPrefixes.add(request.idPrefix())) {
+                return "idPrefix already used: " + request.idPrefix();
+            }
+        }
+        return null;
+    }
+
+    private List<Long> write(List<Row> rows, String actor) {
+        jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_CASE, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.request.name());
+            ps.setLong(2, row.request.clientId());
+            ps.setLong(3, row.idPrefix);
+            ps.setLong(4, row.request.responsibleUserId());
+        });
+
+        // IDENTITY keys are not returned from a batch, the unique idPrefix leads back to them
+        Map<Long, Long> caseIdByPrefix = new HashMap<>();
+        jdbcTemplate.query("SELECT id, id_prefix FROM casee WHERE id_prefix IN (:ids)",
+                new MapSqlParameterSource("ids", rows.stream().map(row -> row.idPrefix).toList()),
+                rs -> {
+                    caseIdByPrefix.put(rs.getLong("id_prefix"), rs.getLong("id"));
+                });
+
+        List<long[]> assignees = new ArrayList<>();
+        List<Long> caseIds = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            long caseId = caseIdByPrefix.get(row.idPrefix);
+            caseIds.add(caseId);
+            Set<Long> users = row.request.userIds() != null ? new LinkedHashSet<>(row.request.userIds()) : Set.of();
+            for (Long userId : users) {
+                assignees.add(new long[]{caseId, userId});
+            }
+        }
+        if (!assignees.isEmpty()) {
+            jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_ASSIGNEE, assignees, assignees.size(), (ps, pair) -> {
+                ps.setLong(1, pair[0]);
+                ps.setLong(2, pair[1]);
+            });
+        }
+
+        // New cases have no todos yet, only the case list changes
+        collectionVersions.changed(CollectionVersions.Listing.CASES);
+        entityCounters.created(EntityCounters.Entity.CASES, caseIds.size());
+
+        loggingService.log(LogAction.CASE_IMPORT, actor, AuditEvent.of("case.import")
+                .field("firstLine", rows.getFirst().line)
+                .field("lastLine", rows.getLast().line)
+                .field("imported", rows.size())
+                .ids("caseIds", caseIds));
+        return caseIds;
+    }
+
+    private Set<Long> existing(String sql, Collection<Long> ids) {
+        Set<Long> found = new HashSet<>();
+        if (!ids.isEmpty()) {
+            jdbcTemplate.query(sql, new MapSqlParameterSource("ids", ids), rs -> {
+                found.add(rs.getLong(1));
+            });
+        }
+        return found;
+    }
+
+    private CaseRequestDTO parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, CaseRequestDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e.getOriginalMessage(), e);
+        }
+    }
+
+    private static Map<String, Integer> parseHeader(String line) {
+        List<String> columns = splitCsv(line);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).trim(), i);
+        }
+        for (String required : List.of("name", "clientId", "responsibleUserId")) {
+            if (!header.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing column: " + required);
+            }
+        }
+        return header;
+    }
+
+    private static CaseRequestDTO parseCsv(String line, Map<String, Integer> header) {
+        List<String> values = splitCsv(line);
+        String userIds = column(values, header, "userIds");
+        Set<Long> users = new LinkedHashSet<>();
+        if (userIds != null) {
+            Arrays.stream(userIds.split(";"))
+                    .map(String::trim)
+                    .filter(id -> !id.isEmpty())
+                    .forEach(id -> users.add(Long.parseLong(id)));
+        }
+        String clientId = column(values, header, "clientId");
+        String idPrefix = column(values, header, "idPrefix");
+        String responsibleUserId = column(values, header, "responsibleUserId");
+        return new CaseRequestDTO(
+                column(values, header, "name"),
+                clientId != null ? Long.parseLong(clientId) : null,
+                users,
+                idPrefix != null ? Long.parseLong(idPrefix) : null,
+                responsibleUserId != null ? Integer.parseInt(responsibleUserId) : null
+        );
+    }
+
+    private static String column(List<String> values, Map<String, Integer> header, String name) {
+        Integer index = header.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Quoted fields may contain commas and doubled quotes, as written by LogExportService. Fields spanning lines are not supported
+    private static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static final class Row {
+        private final long line;
+        private final CaseRequestDTO request;
+        private Long idPrefix;
+
+        private Row(long line, CaseRequestDTO request) {
+            this.line = line;
+            this.request = request;
+        }
+    }
+
+    private static final class Result {
+        private int rows;
+        private int imported;
+        private int failed;
+        private final List<CaseImportErrorDTO> errors = new ArrayList<>();
+
+        private void error(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(new CaseImportErrorDTO(line, message));
+            }
+        }
+    }
+}
@@ -1,42 +1,85 @@
 package com.example.kromannreumert.casee.service;
 
+import com.example.kromannreumert.casee.dto.CaseAssigneeDTO;
+import com.example.kromannreumert.casee.dto.CaseAssigneeRow;
 import com.example.kromannreumert.casee.dto.CaseDeleteRequestDTO;
+import com.example.kromannreumert.casee.dto.CaseDetailSummaryDTO;
+import com.example.kromannreumert.casee.dto.CaseListRow;
+import com.example.kromannreumert.casee.dto.CasePageDTO;
 import com.example.kromannreumert.casee.dto.CaseRequestDTO;
 import com.example.kromannreumert.casee.dto.CaseResponseDTO;
+import com.example.kromannreumert.casee.dto.CaseSummaryDTO;
+import com.example.kromannreumert.casee.dto.CaseToDoCountRow;
+import com.example.kromannreumert.casee.dto.CaseToDoCountsDTO;
 import com.example.kromannreumert.casee.dto.CaseUpdateRequest;
 import com.example.kromannreumert.casee.entity.Casee;
 import com.example.kromannreumert.casee.mapper.CaseMapper;
 import com.example.kromannreumert.casee.repository.CaseRepository;
 import com.example.kromannreumert.client.entity.Client;
 import com.example.kromannreumert.client.repository.ClientRepository;
+import com.example.kromannreumert.counter.service.EntityCounters;
+import com.example.kromannreumert.etag.service.CollectionVersions;
+import com.example.kromannreumert.exception.customException.http4xxExceptions.VersionConflictException;
+import com.example.kromannreumert.idprefix.service.IdPrefixAllocator;
+import com.example.kromannreumert.logging.dto.AuditEvent;
 import com.example.kromannreumert.logging.entity.LogAction;
 import com.example.kromannreumert.logging.service.LoggingService;
+import com.example.kromannreumert.todo.entity.Priority;
+import com.example.kromannreumert.todo.entity.Status;
+import com.example.kromannreumert.todo.repository.ToDoRepository;
 import com.example.kromannreumert.user.entity.User;
 import com.example.kromannreumert.user.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.security.Principal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 @Service
 public class CaseService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "name", "idPrefix");
+    // Todos show their case, so the todo lists change with it
+    private static final CollectionVersions.Listing[] CASE_LISTINGS =
+            {CollectionVersions.Listing.CASES, CollectionVersions.Listing.TODOS};
+
     private final CaseRepository caseRepository;
     private final UserRepository userRepository;
     private final CaseMapper caseMapper;
     private final LoggingService loggingService;
     private final ClientRepository clientRepository;
+    private final IdPrefixAllocator idPrefixAllocator;
+    private final ToDoRepository toDoRepository;
+    private final CollectionVersions collectionVersions;
+    private final EntityCounters entityCounters;
 
-    public CaseService(CaseRepository caseRepository, UserRepository userRepository, CaseMapper caseMapper, LoggingService loggingService, ClientRepository clientRepository) {
+    public CaseService(CaseRepository caseRepository, UserRepository userRepository, CaseMapper caseMapper, LoggingService loggingService, ClientRepository clientRepository, IdPrefixAllocator idPrefixAllocator, ToDoRepository toDoRepository, CollectionVersions collectionVersions, EntityCounters entityCounters) {
         this.caseRepository = caseRepository;
         this.userRepository = userRepository;
         this.caseMapper = caseMapper;
         this.loggingService = loggingService;
         this.clientRepository = clientRepository;
+        this.idPrefixAllocator = idPrefixAllocator;
+        this.toDoRepository = toDoRepository;
+        this.collectionVersions = collectionVersions;
+        this.entityCounters = entityCounters;
     }
 
     public List<Casee> getAllCases(Principal principal) {
@@ -44,15 +87,105 @@ public class CaseService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         // If user is a JURIST, only return cases assigned to them
-        boolean isJurist = currentUser.getRoles().stream()
-                .anyMatch(r -> r.getRoleName().equals("JURIST"));
-
-        if (isJurist) {
-            return caseRepository.findDistinctByUsers_UserId(currentUser.getUserId());
+        if (isJurist(currentUser)) {
+            return caseRepository.findAssignedTo(currentUser.getUserId());
         }
 
         // All other roles see all cases
-        return caseRepository.findAll();
+        return caseRepository.findAllForList();
+    }
+
+    /**
+     * One page of cases for the case list. Only the scalar columns, client and responsible user names and the
+     * assignee ids and names are selected, in two queries: the page of cases and the assignees of those cases.
+     * @param pageable page, size (capped at 200) and sort on id, name or idPrefix, sorted by id when not given
+     */
+    public CasePageDTO getCasesPage(Principal principal, Pageable pageable) {
+        User currentUser = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Cannot sort cases by: " + order.getProperty());
+            }
+        }
+        Pageable request = PageRequest.of(
+                pageable.getPageNumber(),
+                Math.min(pageable.getPageSize(), MAX_PAGE_SIZE),
+                pageable.getSort().isSorted() ? pageable.getSort() : Sort.by("id"));
+
+        Page<CaseListRow> rows;
+        if (isJurist(currentUser)) {
+            rows = caseRepository.findAssignedCaseRows(currentUser.getUserId(), request);
+        } else {
+            rows = caseRepository.findCaseRows(request);
+        }
+
+        Map<Long, List<CaseAssigneeDTO>> assignees = new HashMap<>();
+        if (rows.hasContent()) {
+            List<Long> caseIds = rows.getContent().stream().map(CaseListRow::id).toList();
+            for (CaseAssigneeRow row : caseRepository.findAssigneeRows(caseIds)) {
+                assignees.computeIfAbsent(row.caseId(), id -> new ArrayList<>())
+                        .add(new CaseAssigneeDTO(row.userId(), row.name()));
+            }
+        }
+
+        List<CaseSummaryDTO> cases = rows.getContent().stream()
+                .map(row -> new CaseSummaryDTO(row.id(), row.name(), row.idPrefix(), row.clientId(), row.clientName(),
+                        row.responsibleUserId(), row.responsibleUserName(), assignees.getOrDefault(row.id(), List.of())))
+                .toList();
+
+        return new CasePageDTO(cases, rows.getNumber(), rows.getSize(), rows.getTotalElements(), rows.getTotalPages());
+    }
+
+    /**
+     * The case page in four statements: the current user with their roles, the case row, its assignees and the todo
+     * counts. A jurist adds a fifth, the check that they are assigned to the case, and only gets those cases. The
+     * counts are grouped in the database, no todos are loaded.
+     * @throws EntityNotFoundException if the case does not exist or the jurist is not assigned to it
+     */
+    public CaseDetailSummaryDTO getCaseSummary(Long caseId, Principal principal) {
+        User currentUser = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (isJurist(currentUser) && !caseRepository.existsByIdAndUsers_UserId(caseId, currentUser.getUserId())) {
+            throw new EntityNotFoundException("Case not found: " + caseId);
+        }
+
+        CaseListRow row = caseRepository.findCaseRow(caseId)
+                .orElseThrow(() -> new EntityNotFoundException("Case not found: " + caseId));
+        List<CaseAssigneeDTO> assignees = caseRepository.findAssigneeRows(List.of(caseId)).stream()
+                .map(assignee -> new CaseAssigneeDTO(assignee.userId(), assignee.name()))
+                .toList();
+
+        long total = 0;
+        long overdue = 0;
+        Map<Status, Long> byStatus = new EnumMap<>(Status.class);
+        Map<Priority, Long> byPriority = new EnumMap<>(Priority.class);
+        for (Status status : Status.values()) {
+            byStatus.put(status, 0L);
+        }
+        for (Priority priority : Priority.values()) {
+            byPriority.put(priority, 0L);
+        }
+        for (CaseToDoCountRow count : toDoRepository.countOpenByCase(caseId, LocalDate.now())) {
+            total += count.count();
+            overdue += count.overdue();
+            if (count.status() != null) {
+                byStatus.merge(count.status(), count.count(), Long::sum);
+            }
+            if (count.priority() != null) {
+                byPriority.merge(count.priority(), count.count(), Long::sum);
+            }
+        }
+
+        CaseSummaryDTO summary = new CaseSummaryDTO(row.id(), row.name(), row.idPrefix(), row.clientId(),
+                row.clientName(), row.responsibleUserId(), row.responsibleUserName(), assignees);
+        return new CaseDetailSummaryDTO(summary, new CaseToDoCountsDTO(total, byStatus, byPriority, overdue));
+    }
+
+    private boolean isJurist(User user) {
+        return user.getRoles().stream()
+                .anyMatch(r -> r.getRoleName().equals("JURIST"));
     }
 
 
@@ -62,82 +195,160 @@ public class CaseService {
     }
 
 
+    @Transactional
     public CaseResponseDTO createCase(CaseRequestDTO request, Principal principal) {
 
         Client client = clientRepository.findById(request.clientId())
                 .orElseThrow(() -> new RuntimeException("Client not found: " + request.clientId()));
 
+        Map<Long, User> resolved = resolveUsers(request.userIds(), request.responsibleUserId());
         Set<User> users = request.userIds().stream()
-                .map(id -> userRepository.findById(Math.toIntExact(id))
-                        .orElseThrow(() -> new RuntimeException("User not found: " + id)))
+                .map(resolved::get)
                 .collect(Collectors.toSet());
-
-        User responsibleUser = userRepository.findById(request.responsibleUserId())
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        User responsibleUser = resolved.get(request.responsibleUserId().longValue());
+        // Allocated when the request leaves it out
+        Long idPrefix = idPrefixAllocator.resolve(IdPrefixAllocator.Sequence.CASE, request.idPrefix());
 
         Casee newCase = new Casee(
                 request.name(),
                 client,
                 users,
-                request.idPrefix(),
+                idPrefix,
                 responsibleUser
         );
 
         caseRepository.save(newCase);
+        collectionVersions.changed(CASE_LISTINGS);
+        entityCounters.created(EntityCounters.Entity.CASES, 1);
 
         loggingService.log(
                 LogAction.CASE_CREATE,
                 principal.getName(),
-                principal.getName() + " created case: " + request.name() + "\nID: " + request.idPrefix() + "\nResposible User: " + responsibleUser + "\nAssignees: " + users
+                AuditEvent.of("case.create")
+                        .field("caseId", newCase.getId())
+                        .field("name", request.name())
+                        .field("idPrefix", idPrefix)
+                        .field("clientId", request.clientId())
+                        .field("responsibleUserId", responsibleUser.getUserId())
+                        .ids("assigneeIds", userIds(users))
         );
 
         return new CaseResponseDTO(
+                newCase.getId(),
                 newCase.getName(),
                 newCase.getClient(),
                 newCase.getUsers(),
                 newCase.getIdPrefix(),
-                newCase.getResponsibleUser()
+                newCase.getResponsibleUser(),
+                newCase.getVersion()
         );
     }
 
 
 
+    // A stale version is rejected before anything is changed, committing keeps the entity readable for the 409 body
+    @Transactional(noRollbackFor = VersionConflictException.class)
     public CaseResponseDTO updateCase(CaseUpdateRequest request, Principal principal) {
 
         Casee target = caseRepository.findById(request.id())
                 .orElseThrow(() -> new EntityNotFoundException("Case not found"));
+        if (request.version() != null && !request.version().equals(target.getVersion())) {
+            throw new VersionConflictException(LogAction.CASE_UPDATE_FAILED, principal.getName(),
+                    "Case " + target.getId(), caseMapper.caseToResponse(target));
+        }
 
-        User responsible = userRepository.findById(request.responsibleUserId())
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
-
+        Map<Long, User> resolved = resolveUsers(request.assigneeIds(), request.responsibleUserId());
+        User responsible = resolved.get(request.responsibleUserId().longValue());
+        // Left out keeps the stored prefix, see CaseUpdateRequest
+        Long idPrefix = request.idPrefix() != null ? request.idPrefix() : target.getIdPrefix();
+        if (!Objects.equals(idPrefix, target.getIdPrefix())) {
+            idPrefixAllocator.checkExplicit(IdPrefixAllocator.Sequence.CASE, idPrefix);
+        }
         Set<User> assignees = request.assigneeIds().stream()
-                .map(id -> userRepository.findById(id)
-                        .orElseThrow(() -> new EntityNotFoundException("User not found")))
+                .map(id -> resolved.get(id.longValue()))
                 .collect(Collectors.toSet());
 
-        loggingService.log(LogAction.CASE_UPDATE, principal.getName(), " Updated case: " + target.getName() + "\nID: " + target.getIdPrefix() + "\nAssignees: " + target.getUsers() + "\nTo\n" + request.name() + "\nID: " + request.idPrefix() + "\nAssignees: " + assignees);
+        loggingService.log(LogAction.CASE_UPDATE, principal.getName(), AuditEvent.of("case.update")
+                .field("caseId", target.getId())
+                .changed("name", target.getName(), request.name())
+                .changed("idPrefix", target.getIdPrefix(), idPrefix)
+                .changed("responsibleUserId", target.getResponsibleUser() != null ? target.getResponsibleUser().getUserId() : null, responsible.getUserId())
+                .changedIds("assigneeIds", userIds(target.getUsers()), userIds(assignees)));
 
         target.setName(request.name());
-        target.setIdPrefix(request.idPrefix());
+        target.setIdPrefix(idPrefix);
         target.setResponsibleUser(responsible);
-        target.setUsers(assignees);
+        // Keep the loaded collection so only the case_assignee rows that changed are deleted or inserted
+        if (target.getUsers() == null) {
+            target.setUsers(assignees);
+        } else {
+            target.getUsers().retainAll(assignees);
+            target.getUsers().addAll(assignees);
+        }
 
 
 
         Casee saved = caseRepository.save(target);
+        collectionVersions.changed(CASE_LISTINGS);
         return caseMapper.caseToResponse(saved);
     }
 
 
+    /**
+     * The 409 for an update that lost the race at commit, with the case as it is stored now, or null if it was deleted.
+     * Called after the failed transaction has rolled back.
+     */
+    public VersionConflictException updateConflict(Long caseId, String actor) {
+        CaseResponseDTO current = caseRepository.findById(caseId).map(caseMapper::caseToResponse).orElse(null);
+        return new VersionConflictException(LogAction.CASE_UPDATE_FAILED, actor, "Case " + caseId, current);
+    }
+
+    @Transactional
     public String deleteCase(CaseDeleteRequestDTO request, Principal principal) {
         Casee target = caseRepository.findById(request.id())
                 .orElseThrow(() -> new EntityNotFoundException("Case not found"));
 
-        loggingService.log(LogAction.CASE_DELETE, principal.getName(), " Deleted case: " + target.getName() + "\nID: " + target.getIdPrefix() + "\nAssignees: " + target.getUsers());
+        loggingService.log(LogAction.CASE_DELETE, principal.getName(), AuditEvent.of("case.delete")
+                .field("caseId", target.getId())
+                .field("name", target.getName())
+                .field("idPrefix", target.getIdPrefix())
+                .ids("assigneeIds", userIds(target.getUsers())));
         caseRepository.delete(target);
+        collectionVersions.changed(CASE_LISTINGS);
+        entityCounters.deleted(EntityCounters.Entity.CASES);
 
         return "Case deleted successfully";
 
 
     }
+
+    /**
+     * Resolves the assignees and the responsible user with one query.
+     * @throws EntityNotFoundException listing every id that does not exist
+     */
+    private Map<Long, User> resolveUsers(Collection<? extends Number> assigneeIds, Integer responsibleUserId) {
+        if (responsibleUserId == null) {
+            throw new EntityNotFoundException("User not found: null");
+        }
+        Set<Long> ids = new TreeSet<>();
+        ids.add(responsibleUserId.longValue());
+        if (assigneeIds != null) {
+            for (Number id : assigneeIds) {
+                ids.add(id.longValue());
+            }
+        }
+
+        Map<Long, User> users = userRepository.findAllByUserIdIn(ids).stream()
+                .collect(Collectors.toMap(User::getUserId, user -> user));
+
+        if (users.size() < ids.size()) {
+            ids.removeAll(users.keySet());
+            throw new EntityNotFoundException("Users not found: " + ids);
+        }
+        return users;
+    }
+
+    private static List<Long> userIds(Set<User> users) {
+        return users == null ? List.of() : users.stream().map(User::getUserId).toList();
+    }
 }
@@ -0,0 +1,7 @@
+package com.example.kromannreumert.client.DTO;
+
+// Counted since startup. rejected are new entries that lost against a more popular one when the cache was full,
+// expired are entries found older than the expire-after-write time
+public record ClientCacheStatsDTO(int size, int maxSize, long hits, long misses, double hitRate,
+                                  long evicted, long rejected, long invalidated, long expired) {
+}
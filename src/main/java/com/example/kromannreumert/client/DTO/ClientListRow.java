@@ -0,0 +1,5 @@
+package com.example.kromannreumert.client.DTO;
+
+// Scalar client columns for the paged client list, the assignee names are fetched with ClientUserNameRow
+public record ClientListRow(Long id, String name, Long idPrefix, Long version) {
+}
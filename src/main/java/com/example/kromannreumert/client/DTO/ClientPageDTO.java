@@ -0,0 +1,6 @@
+package com.example.kromannreumert.client.DTO;
+
+import java.util.List;
+
+public record ClientPageDTO(List<ClientResponeDTO> clients, int page, int size, long totalElements, int totalPages) {
+}
@@ -4,5 +4,9 @@ import com.example.kromannreumert.user.entity.User;
 
 import java.util.List;
 
-public record ClientResponeDTO(Long id, String name, List<String> users, Long idPrefix) {
+public record ClientResponeDTO(Long id, String name, List<String> users, Long idPrefix, Long version) {
+
+    public ClientResponeDTO(Long id, String name, List<String> users, Long idPrefix) {
+        this(id, name, users, idPrefix, null);
+    }
 }
@@ -0,0 +1,5 @@
+package com.example.kromannreumert.client.DTO;
+
+// One typeahead match, enough to show the client and open it by idPrefix
+public record ClientSuggestionDTO(Long id, String name, Long idPrefix) {
+}
@@ -0,0 +1,4 @@
+package com.example.kromannreumert.client.DTO;
+
+public record ClientUserNameRow(Long clientId, String name) {
+}
@@ -1,4 +1,9 @@
 package com.example.kromannreumert.client.DTO;
 
-public record UpdateClientNameDTO(String oldName, String newName) {
+// version is the client version the rename is based on, leave it out to rename whatever is stored
+public record UpdateClientNameDTO(String oldName, String newName, Long version) {
+
+    public UpdateClientNameDTO(String oldName, String newName) {
+        this(oldName, newName, null);
+    }
 }
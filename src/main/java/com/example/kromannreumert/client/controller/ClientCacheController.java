@@ -0,0 +1,25 @@
+package com.example.kromannreumert.client.controller;
+
+import com.example.kromannreumert.client.DTO.ClientCacheStatsDTO;
+import com.example.kromannreumert.client.service.ClientCache;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// Monitoring of the client lookup cache, under /api/v1/admin so only ADMIN can reach it
+@RestController
+@RequestMapping("/api/v1/admin/client-cache")
+public class ClientCacheController {
+
+    private final ClientCache clientCache;
+
+    public ClientCacheController(ClientCache clientCache) {
+        this.clientCache = clientCache;
+    }
+
+    // Read from memory only and not audited, like /api/v1/admin/logs/metrics
+    @GetMapping("/metrics")
+    public ClientCacheStatsDTO getMetrics() {
+        return clientCache.getStats();
+    }
+}
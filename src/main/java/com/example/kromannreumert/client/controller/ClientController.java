@@ -5,8 +5,12 @@ import com.example.kromannreumert.client.DTO.UpdateClientIdPrefixDTO;
 import com.example.kromannreumert.client.DTO.UpdateClientNameDTO;
 import com.example.kromannreumert.client.DTO.UpdateClientUserList;
 import com.example.kromannreumert.client.service.ClientService;
+import com.example.kromannreumert.exception.customException.http4xxExceptions.VersionConflictException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.HttpClientErrorException;
 
@@ -29,11 +33,29 @@ public class ClientController {
         return new ResponseEntity<>(clientService.getAllClients(principal.getName()), HttpStatus.OK);
     }
 
+    // Paged client list, e.g. /api/v1/client/?page=0&size=50&sort=name,asc. Without page the full list above is returned
+    @GetMapping(value = "", params = "page")
+    public ResponseEntity<?> getClientsPage(@PageableDefault(size = 50) Pageable pageable, Principal principal) {
+        try {
+            return new ResponseEntity<>(clientService.getClientsPage(pageable, principal.getName()), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @GetMapping("/{idprefix}")
     public ResponseEntity<?> getClientById(@PathVariable("idprefix") Long idprefix, Principal principal) {
         return new ResponseEntity<>(clientService.getClientByIdPrefix(idprefix, principal.getName()), HttpStatus.OK);
     }
 
+    // Typeahead by partial name or idPrefix, e.g. /api/v1/client/suggest?q=krom%20reu&limit=10
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggestClients(@RequestParam("q") String query,
+                                            @RequestParam(defaultValue = "10") int limit,
+                                            Principal principal) {
+        return new ResponseEntity<>(clientService.suggestClients(query, limit, principal.getName()), HttpStatus.OK);
+    }
+
     // This endpoints needs to be removed or changed as there can contain spaces in a client name.
     @GetMapping("/getclientbyname/{clientName}")
     public ResponseEntity<?> getClientByClientName(@PathVariable String clientName, Principal principal) {
@@ -62,6 +84,11 @@ public class ClientController {
     public ResponseEntity<?> updateClientName(@RequestBody UpdateClientNameDTO clientNameDTO, Principal principal) {
         try {
             return new ResponseEntity<>(clientService.updateClientName(clientNameDTO, principal.getName()), HttpStatus.OK);
+        } catch (VersionConflictException e) {
+            throw e;
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Someone else committed a change to the client while this update ran
+            throw clientService.updateConflict((Long) e.getIdentifier(), principal.getName());
         } catch (RuntimeException e) {
             return new ResponseEntity<>("Failed to update the client: " + clientNameDTO.oldName(), HttpStatus.BAD_REQUEST);
         }
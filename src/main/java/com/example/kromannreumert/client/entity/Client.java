@@ -39,5 +39,15 @@ public class Client {
     @Column(unique = true)
     private Long IDPrefix;
 
+    // Optimistic locking, an update based on an older version is rejected with 409
+    @Version
+    private Long version;
+
+    public Client(Long id, String name, Set<User> users, Long IDPrefix) {
+        this.id = id;
+        this.name = name;
+        this.users = users;
+        this.IDPrefix = IDPrefix;
+    }
 
 }
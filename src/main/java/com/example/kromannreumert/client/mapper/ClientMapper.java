@@ -21,7 +21,8 @@ public class ClientMapper {
                 client.getId(),
                 client.getName(),
                 usernames,
-                client.getIDPrefix()
+                client.getIDPrefix(),
+                client.getVersion()
         );
     }
 }
@@ -1,9 +1,17 @@
 package com.example.kromannreumert.client.repository;
 
+import com.example.kromannreumert.client.DTO.ClientListRow;
+import com.example.kromannreumert.client.DTO.ClientUserNameRow;
 import com.example.kromannreumert.client.entity.Client;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,4 +22,17 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
     Optional<Client> findClientByName(String name);
 
     void deleteByIDPrefix(Long id);
+
+    @Query(value = "select new com.example.kromannreumert.client.DTO.ClientListRow(c.id, c.name, c.IDPrefix, c.version) from Client c",
+            countQuery = "select count(c) from Client c")
+    Page<ClientListRow> findClientRows(Pageable pageable);
+
+    @Query("select new com.example.kromannreumert.client.DTO.ClientUserNameRow(c.id, u.name) " +
+            "from Client c join c.users u where c.id in :clientIds order by u.name")
+    List<ClientUserNameRow> findUserNameRows(@Param("clientIds") Collection<Long> clientIds);
+
+    // The unpaged client list needs the names of every client, which would make the id list above as long as the table
+    @Query("select new com.example.kromannreumert.client.DTO.ClientUserNameRow(c.id, u.name) " +
+            "from Client c join c.users u order by u.name")
+    List<ClientUserNameRow> findAllUserNameRows();
 }
@@ -0,0 +1,280 @@
+package com.example.kromannreumert.client.service;
+
+import com.example.kromannreumert.client.DTO.ClientCacheStatsDTO;
+import com.example.kromannreumert.client.DTO.ClientResponeDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of clients in front of the idPrefix and name lookups in ClientService.
+ *
+ * Entries are the mapped ClientResponeDTO, stored once per client id and reachable by both idPrefix and name.
+ * The size is bounded with W-TinyLFU style eviction: new entries go into a small LRU window, and when the window
+ * overflows its oldest entry only replaces the least recently used entry of the main area if it has been asked for
+ * more often. How often is estimated by a count-min sketch over client ids that is halved now and then, so clients
+ * that were popular a while ago age out. A burst of one-off lookups therefore can't push out the clients every case
+ * screen reads.
+ *
+ * ClientService invalidates a client when it changes and UserService drops everything when a user changes, since
+ * entries hold usernames. Invalidations are applied after the transaction commits. A lookup that loaded from the
+ * database while an invalidation happened does not store its result, it may have read the old row.
+ * Misses are not cached, a new client is found as soon as it is committed. Lookups inside a transaction bypass
+ * the cache.
+ *
+ * Invalidations only come from changes made through this instance. An entry is therefore loaded again once it is
+ * older than client.cache.expire-after-write-ms, which bounds how long a change made on another instance stays unseen.
+ * Setting client.cache.enabled to false sends every lookup to the database.
+ */
+@Component
+public class ClientCache {
+
+    private static final int WINDOW_PERCENT = 1;
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final int windowSize;
+    private final int mainSize;
+    private final long expireAfterWriteMs;
+    private final LongSupplier clockMs;
+
+    // Both areas are in access order, their first entry is the least recently used. Guarded by this
+    private final LinkedHashMap<Long, Entry> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Long, Entry> main = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, Long> idByPrefix = new HashMap<>();
+    private final Map<String, Long> idByName = new HashMap<>();
+    private final FrequencySketch sketch;
+
+    // Bumped by every invalidation, a load only stores its result if nothing was invalidated while it ran
+    private long invalidationEpoch;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long rejections;
+    private long invalidations;
+    private long expirations;
+
+    @Autowired
+    public ClientCache(@Value("${client.cache.enabled:true}") boolean enabled,
+                       @Value("${client.cache.max-size:1000}") int maxSize,
+                       @Value("${client.cache.expire-after-write-ms:60000}") long expireAfterWriteMs) {
+        this(enabled, maxSize, expireAfterWriteMs, System::currentTimeMillis);
+    }
+
+    public ClientCache(boolean enabled, int maxSize, long expireAfterWriteMs, LongSupplier clockMs) {
+        this.enabled = enabled;
+        this.expireAfterWriteMs = expireAfterWriteMs;
+        this.clockMs = clockMs;
+        this.maxSize = Math.max(2, maxSize);
+        this.windowSize = Math.max(1, this.maxSize * WINDOW_PERCENT / 100);
+        this.mainSize = this.maxSize - windowSize;
+        this.sketch = new FrequencySketch(this.maxSize);
+    }
+
+    public Optional<ClientResponeDTO> getByIdPrefix(Long idPrefix, Supplier<Optional<ClientResponeDTO>> loader) {
+        return get(idByPrefix, idPrefix, loader);
+    }
+
+    public Optional<ClientResponeDTO> getByName(String name, Supplier<Optional<ClientResponeDTO>> loader) {
+        return get(idByName, name, loader);
+    }
+
+    /**
+     * Drops the client with this id, under both of its keys, once the current transaction commits.
+     */
+    public void invalidate(Long clientId) {
+        afterCommit(() -> {
+            synchronized (this) {
+                invalidationEpoch++;
+                if (remove(clientId) != null) {
+                    invalidations++;
+                }
+            }
+        });
+    }
+
+    /**
+     * Drops every client once the current transaction commits.
+     */
+    public void invalidateAll() {
+        afterCommit(() -> {
+            synchronized (this) {
+                invalidationEpoch++;
+                invalidations += window.size() + main.size();
+                window.clear();
+                main.clear();
+                idByPrefix.clear();
+                idByName.clear();
+            }
+        });
+    }
+
+    public synchronized ClientCacheStatsDTO getStats() {
+        long lookups = hits + misses;
+        return new ClientCacheStatsDTO(window.size() + main.size(), maxSize, hits, misses,
+                lookups == 0 ? 0.0 : (double) hits / lookups, evictions, rejections, invalidations, expirations);
+    }
+
+    private <K> Optional<ClientResponeDTO> get(Map<K, Long> index, K key, Supplier<Optional<ClientResponeDTO>> loader) {
+        // A transaction may see its own uncommitted changes, those must neither be cached nor hidden by the cache
+        if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.get();
+        }
+
+        long epoch;
+        synchronized (this) {
+            Long id = index.get(key);
+            if (id != null) {
+                Entry cached = window.containsKey(id) ? window.get(id) : main.get(id);
+                sketch.increment(id);
+                if (clockMs.getAsLong() - cached.writtenAt() < expireAfterWriteMs) {
+                    hits++;
+                    return Optional.of(cached.client());
+                }
+                remove(id);
+                expirations++;
+            }
+            misses++;
+            epoch = invalidationEpoch;
+        }
+
+        // Loaded outside the lock, a slow query must not hold up lookups of other clients
+        Optional<ClientResponeDTO> loaded = loader.get();
+        loaded.ifPresent(client -> {
+            synchronized (this) {
+                sketch.increment(client.id());
+                if (epoch == invalidationEpoch) {
+                    put(client);
+                }
+            }
+        });
+        return loaded;
+    }
+
+    private void put(ClientResponeDTO client) {
+        remove(client.id());
+        window.put(client.id(), new Entry(client, clockMs.getAsLong()));
+        idByPrefix.put(client.idPrefix(), client.id());
+        idByName.put(client.name(), client.id());
+
+        if (window.size() <= windowSize) {
+            return;
+        }
+        Long candidate = eldest(window);
+        main.put(candidate, window.remove(candidate));
+        if (main.size() <= mainSize) {
+            return;
+        }
+
+        // The main area is full, the window's oldest entry has to beat its least recently used one to stay
+        Long victim = eldest(main);
+        if (sketch.frequency(candidate) > sketch.frequency(victim)) {
+            remove(victim);
+            evictions++;
+        } else {
+            remove(candidate);
+            rejections++;
+        }
+    }
+
+    private Entry remove(Long clientId) {
+        Entry removed = window.remove(clientId);
+        if (removed == null) {
+            removed = main.remove(clientId);
+        }
+        if (removed != null) {
+            idByPrefix.remove(removed.client().idPrefix(), clientId);
+            idByName.remove(removed.client().name(), clientId);
+        }
+        return removed;
+    }
+
+    private static Long eldest(LinkedHashMap<Long, Entry> area) {
+        Iterator<Long> ids = area.keySet().iterator();
+        return ids.next();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Entry(ClientResponeDTO client, long writtenAt) {
+    }
+
+    /**
+     * Count-min sketch with four rows of counters that stop at 15. After ten increments per cached entry all counters
+     * are halved, which keeps the estimates about recent popularity. Not thread-safe, ClientCache holds its lock.
+     */
+    static final class FrequencySketch {
+
+        private static final int ROWS = 4;
+        private static final int MAX_COUNT = 15;
+        private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+
+        private final byte[][] counters;
+        private final int mask;
+        private final int resetAfter;
+        private int increments;
+
+        FrequencySketch(int expectedEntries) {
+            int width = Integer.highestOneBit(Math.max(16, expectedEntries * 2 - 1)) << 1;
+            this.counters = new byte[ROWS][width];
+            this.mask = width - 1;
+            this.resetAfter = expectedEntries * 10;
+        }
+
+        int frequency(Long id) {
+            int min = MAX_COUNT;
+            for (int row = 0; row < ROWS; row++) {
+                min = Math.min(min, counters[row][index(id, row)]);
+            }
+            return min;
+        }
+
+        void increment(Long id) {
+            for (int row = 0; row < ROWS; row++) {
+                int i = index(id, row);
+                if (counters[row][i] < MAX_COUNT) {
+                    counters[row][i]++;
+                }
+            }
+            if (++increments >= resetAfter) {
+                halve();
+            }
+        }
+
+        private void halve() {
+            for (byte[] row : counters) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = (byte) (row[i] >>> 1);
+                }
+            }
+            increments /= 2;
+        }
+
+        private int index(Long id, int row) {
+            long hash = (id + SEEDS[row]) * SEEDS[(row + 1) % ROWS];
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
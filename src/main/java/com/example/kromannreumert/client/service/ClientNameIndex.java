@@ -0,0 +1,369 @@
+package com.example.kromannreumert.client.service;
+
+import com.example.kromannreumert.client.DTO.ClientSuggestionDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index over client names and idPrefixes for the client typeahead.
+ *
+ * Names are folded before they are indexed and before a query is matched: compatibility decomposed, accents dropped
+ * and lower-cased, so "cafe" finds "Café". Letters that don't decompose, like ø and æ, are kept as they are. A folded
+ * name is split into words on anything that is not a letter or digit. Every query word has to be the start of a
+ * different word of the name, in any order, so "reu krom" finds "Kromann Reumert". A query of digits also matches the
+ * start of the idPrefix.
+ *
+ * Matches come in three groups: the idPrefix starts with the query, the name starts with the query, and a word of the
+ * name starts with each query word. The last two are sorted by name. Every group is read off sorted maps in order and
+ * reading stops once there are enough matches, so a short, common query doesn't look at every client.
+ *
+ * Built from the client table when the application is ready. ClientService reports every create, rename, idPrefix
+ * change and delete, applied after the transaction commits. The scheduled check compares the index with the table
+ * and rebuilds it when they differ, which also picks up clients written by another instance.
+ */
+@Component
+public class ClientNameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ClientNameIndex.class);
+
+    private static final String SELECT_CLIENTS = "SELECT id, name, idprefix FROM client";
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // Sorts after every character a folded key contains, closes the range of keys starting with a prefix
+    private static final char KEY_END = '\uffff';
+    private static final char ID_SEPARATOR = '\u0000';
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Index index = new Index();
+    private volatile boolean built;
+
+    public ClientNameIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return at most limit clients matching the query, best matches first, empty for a blank query
+     */
+    public List<ClientSuggestionDTO> suggest(String query, int limit) {
+        if (!built) {
+            rebuild();
+        }
+        String[] words = words(query);
+        if (words.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        Index current = index;
+        Set<Long> matches = new LinkedHashSet<>();
+
+        String digits = query.strip();
+        if (digits.chars().allMatch(Character::isDigit)) {
+            for (Long id : range(current.byIdPrefix, digits).values()) {
+                if (matches.size() == limit) break;
+                matches.add(id);
+            }
+        }
+
+        for (Long id : range(current.byName, String.join(" ", words)).values()) {
+            if (matches.size() == limit) break;
+            matches.add(id);
+        }
+
+        if (matches.size() < limit) {
+            matches.addAll(wordMatches(current, words, matches, limit - matches.size()));
+        }
+
+        List<ClientSuggestionDTO> result = new ArrayList<>(matches.size());
+        for (Long id : matches) {
+            Entry entry = current.entries.get(id);
+            if (entry != null) {
+                result.add(new ClientSuggestionDTO(id, entry.name(), entry.idPrefix()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Indexes the client under its current name and idPrefix once the current transaction commits.
+     */
+    public void put(Long clientId, String name, Long idPrefix) {
+        afterCommit(() -> apply(clientId, new Entry(name, idPrefix, fold(name), words(name))));
+    }
+
+    public void remove(Long clientId) {
+        afterCommit(() -> apply(clientId, null));
+    }
+
+    // After the CommandLineRunners, so clients they create are included
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${client.name-index.check-interval-ms:3600000}",
+            fixedDelayString = "${client.name-index.check-interval-ms:3600000}")
+    public void checkAndRepair() {
+        Map<Long, Entry> stored = load();
+        Map<Long, Entry> indexed = index.entries;
+        if (!stored.equals(indexed)) {
+            log.warn("Client name index differs from the client table ({} indexed, {} stored), rebuilding",
+                    indexed.size(), stored.size());
+            rebuild();
+        }
+    }
+
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Index next = new Index();
+        load().forEach(next::add);
+        index = next;
+        built = true;
+        log.info("Client name index built: {} clients in {} ms", next.entries.size(), System.currentTimeMillis() - start);
+    }
+
+    private Map<Long, Entry> load() {
+        Map<Long, Entry> clients = new HashMap<>();
+        jdbcTemplate.query(SELECT_CLIENTS, rs -> {
+            String name = rs.getString("name");
+            long idPrefix = rs.getLong("idprefix");
+            clients.put(rs.getLong("id"),
+                    new Entry(name, rs.wasNull() ? null : idPrefix, fold(name), words(name)));
+        });
+        return clients;
+    }
+
+    /**
+     * Clients with a word starting with every query word, in name order. The query word with the fewest clients picks
+     * the postings to read, and those are merged in name order, so reading stops after limit matches.
+     */
+    private static List<Long> wordMatches(Index current, String[] words, Set<Long> exclude, int limit) {
+        Collection<Posting> postings = fewestClients(current, words);
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>(Comparator.comparing(Cursor::key));
+        for (Posting posting : postings) {
+            Cursor cursor = new Cursor(posting.clients.entrySet().iterator());
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+
+        List<Long> matches = new ArrayList<>();
+        String previous = null;
+        while (!cursors.isEmpty() && matches.size() < limit) {
+            Cursor cursor = cursors.poll();
+            String key = cursor.key();
+            Long id = cursor.id();
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+            // A client with two words in the range comes out of two postings, one after the other
+            if (key.equals(previous)) {
+                continue;
+            }
+            previous = key;
+            Entry entry = current.entries.get(id);
+            if (entry != null && !exclude.contains(id) && entry.matchesAll(words)) {
+                matches.add(id);
+            }
+        }
+        return matches;
+    }
+
+    private static Collection<Posting> fewestClients(Index current, String[] words) {
+        // Longer words usually have fewer clients, counting the others stops once they have more
+        String[] byLength = words.clone();
+        Arrays.sort(byLength, Comparator.comparingInt(String::length).reversed());
+        Collection<Posting> fewest = null;
+        long fewestClients = Long.MAX_VALUE;
+        for (String word : byLength) {
+            Collection<Posting> postings = range(current.byWord, word).values();
+            long clients = 0;
+            for (Posting posting : postings) {
+                clients += posting.size.get();
+                if (clients >= fewestClients) break;
+            }
+            if (clients < fewestClients) {
+                fewest = postings;
+                fewestClients = clients;
+            }
+        }
+        return fewest;
+    }
+
+    private static <V> NavigableMap<String, V> range(NavigableMap<String, V> map, String prefix) {
+        return map.subMap(prefix, true, prefix + KEY_END, false);
+    }
+
+    private synchronized void apply(Long clientId, Entry entry) {
+        Index current = index;
+        current.remove(clientId);
+        if (entry != null) {
+            current.add(clientId, entry);
+        }
+    }
+
+    static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        String folded = MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+        return String.join(" ", WORD_SEPARATORS.split(folded.strip())).strip();
+    }
+
+    static String[] words(String text) {
+        String folded = fold(text);
+        return folded.isEmpty() ? new String[0] : folded.split(" ");
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private record Entry(String name, Long idPrefix, String folded, String[] words) {
+
+        boolean matchesAll(String[] query) {
+            boolean[] used = new boolean[words.length];
+            for (String part : query) {
+                boolean found = false;
+                for (int i = 0; i < words.length && !found; i++) {
+                    if (!used[i] && words[i].startsWith(part)) {
+                        used[i] = true;
+                        found = true;
+                    }
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Compared by what is indexed, the word array follows from the name
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Entry entry && Objects.equals(name, entry.name) && Objects.equals(idPrefix, entry.idPrefix);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, idPrefix);
+        }
+    }
+
+    /**
+     * The clients with one word, keyed like byName so they are in name order.
+     */
+    private static final class Posting {
+
+        final ConcurrentSkipListMap<String, Long> clients = new ConcurrentSkipListMap<>();
+        final AtomicInteger size = new AtomicInteger();
+    }
+
+    private static final class Cursor {
+
+        private final Iterator<Map.Entry<String, Long>> clients;
+        private Map.Entry<String, Long> current;
+
+        Cursor(Iterator<Map.Entry<String, Long>> clients) {
+            this.clients = clients;
+        }
+
+        boolean advance() {
+            current = clients.hasNext() ? clients.next() : null;
+            return current != null;
+        }
+
+        String key() {
+            return current.getKey();
+        }
+
+        Long id() {
+            return current.getValue();
+        }
+    }
+
+    /**
+     * The sorted maps are keyed by the folded text followed by the client id, so equal names don't collide and
+     * clients with the same name sort by id. Readers use them without locking, writers hold the lock on the index.
+     */
+    private static final class Index {
+
+        final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+        final ConcurrentSkipListMap<String, Long> byName = new ConcurrentSkipListMap<>();
+        final ConcurrentSkipListMap<String, Posting> byWord = new ConcurrentSkipListMap<>();
+        final ConcurrentSkipListMap<String, Long> byIdPrefix = new ConcurrentSkipListMap<>();
+
+        void add(Long id, Entry entry) {
+            entries.put(id, entry);
+            String nameKey = key(entry.folded(), id);
+            byName.put(nameKey, id);
+            for (String word : entry.words()) {
+                Posting posting = byWord.computeIfAbsent(word, w -> new Posting());
+                if (posting.clients.put(nameKey, id) == null) {
+                    posting.size.incrementAndGet();
+                }
+            }
+            if (entry.idPrefix() != null) {
+                byIdPrefix.put(key(entry.idPrefix().toString(), id), id);
+            }
+        }
+
+        void remove(Long id) {
+            Entry entry = entries.remove(id);
+            if (entry == null) {
+                return;
+            }
+            String nameKey = key(entry.folded(), id);
+            byName.remove(nameKey);
+            for (String word : entry.words()) {
+                Posting posting = byWord.get(word);
+                if (posting != null && posting.clients.remove(nameKey) != null && posting.size.decrementAndGet() == 0) {
+                    byWord.remove(word, posting);
+                }
+            }
+            if (entry.idPrefix() != null) {
+                byIdPrefix.remove(key(entry.idPrefix().toString(), id));
+            }
+        }
+
+        private static String key(String text, Long id) {
+            return text + ID_SEPARATOR + id;
+        }
+    }
+}
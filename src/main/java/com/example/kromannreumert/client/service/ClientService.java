@@ -4,47 +4,90 @@ import com.example.kromannreumert.client.DTO.*;
 import com.example.kromannreumert.client.entity.Client;
 import com.example.kromannreumert.client.mapper.ClientMapper;
 import com.example.kromannreumert.client.repository.ClientRepository;
+import com.example.kromannreumert.counter.service.EntityCounters;
+import com.example.kromannreumert.etag.service.CollectionVersions;
 import com.example.kromannreumert.exception.customException.http4xxExceptions.ApiBusinessException;
 import com.example.kromannreumert.exception.customException.http4xxExceptions.ClientNotFoundException;
 import com.example.kromannreumert.exception.customException.http4xxExceptions.UserNotFoundException;
+import com.example.kromannreumert.exception.customException.http4xxExceptions.VersionConflictException;
 import com.example.kromannreumert.exception.customException.http5xxException.ActionFailedException;
+import com.example.kromannreumert.idprefix.service.IdPrefixAllocator;
 import com.example.kromannreumert.logging.entity.LogAction;
 import com.example.kromannreumert.logging.service.LoggingService;
 import com.example.kromannreumert.user.entity.User;
 import com.example.kromannreumert.user.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.TreeSet;
+import java.util.function.Function;
 
 @Service
 public class ClientService {
 
+    // Cases and todos show their client, so those lists change with it
+    private static final CollectionVersions.Listing[] CLIENT_LISTINGS = CollectionVersions.Listing.values();
+
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_SUGGESTIONS = 50;
+    // Sort parameter -> Client property, the entity spells it IDPrefix
+    private static final Map<String, String> SORTABLE_PROPERTIES = Map.of("id", "id", "name", "name", "idPrefix", "IDPrefix");
+
     private final ClientRepository clientRepository;
     private final ClientMapper clientMapper;
     private final UserRepository userRepository;
     private final LoggingService loggingService;
+    private final IdPrefixAllocator idPrefixAllocator;
+    private final CollectionVersions collectionVersions;
+    private final ClientCache clientCache;
+    private final EntityCounters entityCounters;
+    private final ClientNameIndex clientNameIndex;
 
     public ClientService(ClientRepository clientRepository,
                          ClientMapper clientMapper,
                          UserRepository userRepository,
-                         LoggingService loggingService) {
+                         LoggingService loggingService,
+                         IdPrefixAllocator idPrefixAllocator,
+                         CollectionVersions collectionVersions,
+                         ClientCache clientCache,
+                         EntityCounters entityCounters,
+                         ClientNameIndex clientNameIndex) {
 
         this.clientRepository = clientRepository;
         this.clientMapper = clientMapper;
         this.userRepository = userRepository;
         this.loggingService = loggingService;
+        this.idPrefixAllocator = idPrefixAllocator;
+        this.collectionVersions = collectionVersions;
+        this.clientCache = clientCache;
+        this.entityCounters = entityCounters;
+        this.clientNameIndex = clientNameIndex;
     }
 
+    /**
+     * Every client in two queries, built the same way as getClientsPage without a page limit.
+     */
     public List<ClientResponeDTO> getAllClients(String actor) {
         try {
-            List<Client> clients = clientRepository.findAll();
+            List<ClientListRow> rows = clientRepository.findClientRows(Pageable.unpaged(Sort.by("id"))).getContent();
+            List<ClientResponeDTO> clients = toClientDTOs(rows, rows.isEmpty() ? List.of() : clientRepository.findAllUserNameRows());
             loggingService.log(LogAction.VIEW_ALL_CLIENTS, actor, "Fetched all clients");
-            return clients.stream().map(clientMapper::toClientDTO).toList();
+            return clients;
 
         } catch (Exception e) {
             if (e instanceof ApiBusinessException) throw e;
@@ -52,9 +95,56 @@ public class ClientService {
         }
     }
 
+    /**
+     * One page of clients in two queries, the client columns and the names of their users, however many clients
+     * there are. No Client or User entities are loaded.
+     * @throws IllegalArgumentException when sorting by anything but id, name or idPrefix
+     */
+    public ClientPageDTO getClientsPage(Pageable pageable, String actor) {
+        List<Sort.Order> orders = new ArrayList<>();
+        for (Sort.Order order : pageable.getSort()) {
+            String property = SORTABLE_PROPERTIES.get(order.getProperty());
+            if (property == null) {
+                throw new IllegalArgumentException("Cannot sort clients by: " + order.getProperty());
+            }
+            orders.add(order.withProperty(property));
+        }
+        Pageable request = PageRequest.of(
+                pageable.getPageNumber(),
+                Math.min(pageable.getPageSize(), MAX_PAGE_SIZE),
+                orders.isEmpty() ? Sort.by("id") : Sort.by(orders));
+
+        try {
+            Page<ClientListRow> rows = clientRepository.findClientRows(request);
+
+            List<ClientUserNameRow> userNames = rows.hasContent()
+                    ? clientRepository.findUserNameRows(rows.getContent().stream().map(ClientListRow::id).toList())
+                    : List.of();
+            List<ClientResponeDTO> clients = toClientDTOs(rows.getContent(), userNames);
+
+            loggingService.log(LogAction.VIEW_ALL_CLIENTS, actor, "Fetched client page " + rows.getNumber());
+            return new ClientPageDTO(clients, rows.getNumber(), rows.getSize(), rows.getTotalElements(), rows.getTotalPages());
+
+        } catch (Exception e) {
+            if (e instanceof ApiBusinessException) throw e;
+            throw new ActionFailedException(LogAction.VIEW_ALL_CLIENTS_FAILED, actor, e);
+        }
+    }
+
+    private static List<ClientResponeDTO> toClientDTOs(List<ClientListRow> rows, List<ClientUserNameRow> userNames) {
+        Map<Long, List<String>> users = new HashMap<>();
+        for (ClientUserNameRow row : userNames) {
+            users.computeIfAbsent(row.clientId(), id -> new ArrayList<>()).add(row.name());
+        }
+        return rows.stream()
+                .map(row -> new ClientResponeDTO(row.id(), row.name(), users.getOrDefault(row.id(), List.of()),
+                        row.idPrefix(), row.version()))
+                .toList();
+    }
+
     public ClientResponeDTO getClientByIdPrefix(Long idPrefix, String actor) {
         try {
-            Client client = clientRepository.getClientByIDPrefix(idPrefix)
+            ClientResponeDTO client = cachedByIdPrefix(idPrefix)
                     .orElseThrow(() ->
                             new ClientNotFoundException(
                                     LogAction.VIEW_ONE_CLIENT_FAILED,
@@ -65,7 +155,7 @@ public class ClientService {
             loggingService.log(LogAction.VIEW_ONE_CLIENT, actor,
                     "Viewed client with prefix: " + idPrefix);
 
-            return clientMapper.toClientDTO(client);
+            return client;
 
         } catch (Exception e) {
             if (e instanceof ApiBusinessException) throw e;
@@ -76,7 +166,8 @@ public class ClientService {
 
     public ClientResponeDTO getClientByName(String clientName, String actor) {
         try {
-            Client client = clientRepository.findClientByName(clientName)
+            ClientResponeDTO client = clientCache.getByName(clientName,
+                            () -> clientRepository.findClientByName(clientName).map(clientMapper::toClientDTO))
                     .orElseThrow(() ->
                             new ClientNotFoundException(
                                     LogAction.VIEW_ONE_CLIENT_FAILED,
@@ -87,7 +178,7 @@ public class ClientService {
             loggingService.log(LogAction.VIEW_ONE_CLIENT, actor,
                     "Viewed client with name: " + clientName);
 
-            return clientMapper.toClientDTO(client);
+            return client;
 
         } catch (Exception e) {
             if (e instanceof ApiBusinessException) throw e;
@@ -98,7 +189,7 @@ public class ClientService {
 
     public List<String> getUserFromClient(Long idPrefix, String actor) {
         try {
-            Client client = clientRepository.getClientByIDPrefix(idPrefix)
+            ClientResponeDTO client = cachedByIdPrefix(idPrefix)
                     .orElseThrow(() ->
                             new ClientNotFoundException(
                                     LogAction.VIEW_ONE_CLIENT_FAILED,
@@ -109,7 +200,7 @@ public class ClientService {
             loggingService.log(LogAction.VIEW_ONE_CLIENT, actor,
                     "Viewed users for client prefix: " + idPrefix);
 
-            return client.getUsers().stream().map(User::getName).toList();
+            return client.users();
 
         } catch (Exception e) {
             if (e instanceof ApiBusinessException) throw e;
@@ -118,34 +209,48 @@ public class ClientService {
     }
 
 
-    public long getClientSize(String actor) {
+    /**
+     * Typeahead over client names and idPrefixes, answered from ClientNameIndex. Not audited, it is called per keystroke.
+     */
+    public List<ClientSuggestionDTO> suggestClients(String query, int limit, String actor) {
         try {
-            long count = clientRepository.count();
+            return clientNameIndex.suggest(query, Math.min(Math.max(limit, 1), MAX_SUGGESTIONS));
 
-            loggingService.log(LogAction.VIEW_ALL_CLIENTS, actor, "Checked client count");
+        } catch (Exception e) {
+            throw new ActionFailedException(LogAction.VIEW_ALL_CLIENTS_FAILED, actor, e);
+        }
+    }
+
+    private Optional<ClientResponeDTO> cachedByIdPrefix(Long idPrefix) {
+        return clientCache.getByIdPrefix(idPrefix,
+                () -> clientRepository.getClientByIDPrefix(idPrefix).map(clientMapper::toClientDTO));
+    }
 
-            return count;
+    /**
+     * Read from EntityCounters. Not audited, the dashboard polls it and a row per poll only filled the logging table.
+     */
+    public long getClientSize(String actor) {
+        try {
+            return entityCounters.count(EntityCounters.Entity.CLIENTS);
 
         } catch (Exception e) {
-            if (e instanceof ApiBusinessException) throw e;
             throw new ActionFailedException(LogAction.VIEW_ALL_CLIENTS_FAILED, actor, e);
         }
     }
 
+    @Transactional
     public String addClient(ClientRequestDTO clientDTO, String actor) {
         try {
-            Set<User> users = clientDTO.users().stream()
-                    .map(username -> userRepository.findByUsername(username)
-                            .orElseThrow(() ->
-                                    new UserNotFoundException(
-                                            LogAction.VIEW_ONE_USER_FAILED,
-                                            actor,
-                                            "username='" + username + "'"
-                                    )))
-                    .collect(Collectors.toSet());
-
-            Client client = new Client(null, clientDTO.clientName(), users, clientDTO.idPrefix());
+            Set<User> users = resolveUsers(clientDTO.users(), userRepository::findAllByUsernameIn,
+                    User::getUsername, "username", actor);
+
+            // Allocated when the request leaves it out
+            Long idPrefix = idPrefixAllocator.resolve(IdPrefixAllocator.Sequence.CLIENT, clientDTO.idPrefix());
+            Client client = new Client(null, clientDTO.clientName(), users, idPrefix);
             clientRepository.save(client);
+            collectionVersions.changed(CLIENT_LISTINGS);
+            entityCounters.created(EntityCounters.Entity.CLIENTS, 1);
+            clientNameIndex.put(client.getId(), client.getName(), client.getIDPrefix());
 
             loggingService.log(LogAction.CREATE_CLIENT, actor,
                     "Created client: " + client.getName());
@@ -158,6 +263,7 @@ public class ClientService {
         }
     }
 
+    @Transactional(noRollbackFor = VersionConflictException.class)
     public String updateClientName(UpdateClientNameDTO dto, String actor) {
         try {
             Client client = clientRepository.findClientByName(dto.oldName())
@@ -168,6 +274,11 @@ public class ClientService {
                                     "name='" + dto.oldName() + "'"
                             ));
 
+            if (dto.version() != null && !dto.version().equals(client.getVersion())) {
+                throw new VersionConflictException(LogAction.UPDATE_CLIENT_FAILED, actor,
+                        "Client " + client.getId(), clientMapper.toClientDTO(client));
+            }
+
             if (client.getName().equals(dto.newName())) {
                 loggingService.log(LogAction.UPDATE_CLIENT_FAILED, actor,
                         "Attempted to update name with same value");
@@ -176,6 +287,9 @@ public class ClientService {
 
             client.setName(dto.newName());
             clientRepository.save(client);
+            collectionVersions.changed(CLIENT_LISTINGS);
+            clientCache.invalidate(client.getId());
+            clientNameIndex.put(client.getId(), client.getName(), client.getIDPrefix());
 
             loggingService.log(LogAction.UPDATE_CLIENT, actor,
                     "Updated client name to: " + dto.newName());
@@ -188,6 +302,16 @@ public class ClientService {
         }
     }
 
+    /**
+     * The 409 for an update that lost the race at commit, with the client as it is stored now, or null if it was deleted.
+     * Called after the failed transaction has rolled back.
+     */
+    public VersionConflictException updateConflict(Long clientId, String actor) {
+        ClientResponeDTO current = clientRepository.findById(clientId).map(clientMapper::toClientDTO).orElse(null);
+        return new VersionConflictException(LogAction.UPDATE_CLIENT_FAILED, actor, "Client " + clientId, current);
+    }
+
+    @Transactional
     public String updateClientIdPrefix(UpdateClientIdPrefixDTO dto, String actor) {
         try {
             Client client = clientRepository.findClientByName(dto.clientName())
@@ -204,8 +328,12 @@ public class ClientService {
                 return "Client prefix unchanged";
             }
 
+            idPrefixAllocator.checkExplicit(IdPrefixAllocator.Sequence.CLIENT, dto.idPrefix());
             client.setIDPrefix(dto.idPrefix());
             clientRepository.save(client);
+            collectionVersions.changed(CLIENT_LISTINGS);
+            clientCache.invalidate(client.getId());
+            clientNameIndex.put(client.getId(), client.getName(), client.getIDPrefix());
 
             loggingService.log(LogAction.UPDATE_CLIENT, actor,
                     "Updated client prefix");
@@ -219,6 +347,7 @@ public class ClientService {
     }
 
 
+    @Transactional
     public String updateClientUserList(UpdateClientUserList dto, String actor) {
         try {
             Client client = clientRepository.getClientByIDPrefix(dto.clientIdPrefix())
@@ -229,18 +358,12 @@ public class ClientService {
                                     "idPrefix: " + dto.clientIdPrefix()
                             ));
 
-            Set<User> users = dto.user().stream()
-                    .map(name -> userRepository.findByName(name)
-                            .orElseThrow(() ->
-                                    new UserNotFoundException(
-                                            LogAction.VIEW_ONE_USER_FAILED,
-                                            actor,
-                                            "name: " + name
-                                    )))
-                    .collect(Collectors.toSet());
+            Set<User> users = resolveUsers(dto.user(), userRepository::findAllByNameIn, User::getName, "name", actor);
 
             client.setUsers(users);
             clientRepository.save(client);
+            collectionVersions.changed(CLIENT_LISTINGS);
+            clientCache.invalidate(client.getId());
 
             loggingService.log(LogAction.UPDATE_CLIENT, actor,
                     "Updated client users");
@@ -253,9 +376,38 @@ public class ClientService {
         }
     }
 
+    /**
+     * Looks up all users of a client in one query instead of one per user.
+     * @param key the user field the values are matched against, also used to find the values nobody has
+     * @throws UserNotFoundException listing every value without a user
+     */
+    private Set<User> resolveUsers(Collection<String> values, Function<Collection<String>, List<User>> query,
+                                   Function<User, String> key, String field, String actor) {
+        Set<String> wanted = new TreeSet<>(values);
+        if (wanted.isEmpty()) {
+            return new HashSet<>();
+        }
+
+        List<User> found = query.apply(wanted);
+        Set<String> missing = new TreeSet<>(wanted);
+        found.forEach(user -> missing.remove(key.apply(user)));
+        if (!missing.isEmpty()) {
+            throw new UserNotFoundException(LogAction.VIEW_ONE_USER_FAILED, actor, field + "s=" + missing);
+        }
+        return new HashSet<>(found);
+    }
+
+    @Transactional
     public String deleteClient(Long id, String actor) {
         try {
-            clientRepository.deleteById(id);
+            // Like deleteById, a missing client is not an error, but only an existing one is counted
+            clientRepository.findById(id).ifPresent(client -> {
+                clientRepository.delete(client);
+                entityCounters.deleted(EntityCounters.Entity.CLIENTS);
+            });
+            collectionVersions.changed(CLIENT_LISTINGS);
+            clientCache.invalidate(id);
+            clientNameIndex.remove(id);
 
             loggingService.log(LogAction.DELETE_CLIENT, actor,
                     "Deleted client id=" + id);
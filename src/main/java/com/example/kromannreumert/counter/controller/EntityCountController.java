@@ -0,0 +1,37 @@
+package com.example.kromannreumert.counter.controller;
+
+import com.example.kromannreumert.counter.dto.EntityCountsDTO;
+import com.example.kromannreumert.counter.dto.EntityCountsReconcileDTO;
+import com.example.kromannreumert.counter.service.EntityCounters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.Principal;
+
+// Dashboard counts read from memory, under /api/v1/admin so only ADMIN can reach it
+@RestController
+@RequestMapping("/api/v1/admin/counts")
+public class EntityCountController {
+
+    private static final Logger log = LoggerFactory.getLogger(EntityCountController.class);
+    private final EntityCounters entityCounters;
+
+    public EntityCountController(EntityCounters entityCounters) {
+        this.entityCounters = entityCounters;
+    }
+
+    @GetMapping("")
+    public EntityCountsDTO getCounts() {
+        return entityCounters.getCounts();
+    }
+
+    @PostMapping("/reconcile")
+    public EntityCountsReconcileDTO reconcile(Principal principal) {
+        log.info("Controller: Entity count reconciliation requested by {}", principal.getName());
+        return entityCounters.reconcile();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.kromannreumert.counter.dto;
+
+import com.example.kromannreumert.todo.entity.Status;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * @param openTodosByStatus todos that are not archived, per status
+ * @param reconciledAt      when the counts were last compared with the tables
+ */
+public record EntityCountsDTO(long users, long clients, long cases, long todos,
+                              Map<Status, Long> openTodosByStatus, long archivedTodos,
+                              LocalDateTime reconciledAt) {
+}
@@ -0,0 +1,7 @@
+package com.example.kromannreumert.counter.dto;
+
+import java.util.List;
+
+// corrected names the counters that differed from COUNT(*), e.g. "TODOS" or "todos.IN_PROGRESS"
+public record EntityCountsReconcileDTO(List<String> corrected, long millis) {
+}
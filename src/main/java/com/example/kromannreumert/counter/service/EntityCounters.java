@@ -0,0 +1,208 @@
+package com.example.kromannreumert.counter.service;
+
+import com.example.kromannreumert.counter.dto.EntityCountsDTO;
+import com.example.kromannreumert.counter.dto.EntityCountsReconcileDTO;
+import com.example.kromannreumert.todo.entity.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Row counts of the main tables kept in memory, so the dashboard size endpoints don't have to count.
+ *
+ * The counts are read from the tables when the application is ready. After that the services report every create and
+ * delete, and every todo status or archive change, and the counts are adjusted when the transaction commits, a
+ * rollback leaves them alone. Rows written by another application instance or directly in the database are not seen,
+ * so the scheduled reconciliation compares every count with COUNT(*) and corrects the ones that differ. A change that
+ * commits while the reconciliation runs can be counted twice or not at all until the next run.
+ */
+@Component
+public class EntityCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(EntityCounters.class);
+
+    private static final String COUNT_TODOS_BY_STATUS =
+            "SELECT status, archived, COUNT(*) AS todos FROM to_do GROUP BY status, archived";
+
+    public enum Entity {
+        USERS("users"),
+        CLIENTS("client"),
+        CASES("casee"),
+        TODOS("to_do");
+
+        private final String table;
+
+        Entity(String table) {
+            this.table = table;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Both maps are filled once here, only the counters in them change
+    private final Map<Entity, AtomicLong> totals = new EnumMap<>(Entity.class);
+    private final Map<Status, AtomicLong> openTodos = new EnumMap<>(Status.class);
+    private final AtomicLong archivedTodos = new AtomicLong();
+    private volatile boolean built;
+    private volatile LocalDateTime reconciledAt;
+
+    public EntityCounters(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        for (Entity entity : Entity.values()) {
+            totals.put(entity, new AtomicLong());
+        }
+        for (Status status : Status.values()) {
+            openTodos.put(status, new AtomicLong());
+        }
+    }
+
+    public long count(Entity entity) {
+        if (!built) {
+            reconcile();
+        }
+        return totals.get(entity).get();
+    }
+
+    public EntityCountsDTO getCounts() {
+        if (!built) {
+            reconcile();
+        }
+        Map<Status, Long> byStatus = new EnumMap<>(Status.class);
+        openTodos.forEach((status, count) -> byStatus.put(status, count.get()));
+        return new EntityCountsDTO(totals.get(Entity.USERS).get(), totals.get(Entity.CLIENTS).get(),
+                totals.get(Entity.CASES).get(), totals.get(Entity.TODOS).get(), byStatus, archivedTodos.get(), reconciledAt);
+    }
+
+    /**
+     * Counts rows of any entity but todos as created once the current transaction commits, use todoCreated for todos.
+     */
+    public void created(Entity entity, long rows) {
+        afterCommit(() -> totals.get(entity).addAndGet(rows));
+    }
+
+    public void deleted(Entity entity) {
+        afterCommit(() -> totals.get(entity).decrementAndGet());
+    }
+
+    public void todoCreated(Status status, Boolean archived) {
+        afterCommit(() -> {
+            totals.get(Entity.TODOS).incrementAndGet();
+            adjustTodo(status, archived, 1);
+        });
+    }
+
+    public void todoDeleted(Status status, Boolean archived) {
+        afterCommit(() -> {
+            totals.get(Entity.TODOS).decrementAndGet();
+            adjustTodo(status, archived, -1);
+        });
+    }
+
+    public void todoChanged(Status oldStatus, Boolean oldArchived, Status newStatus, Boolean newArchived) {
+        if (oldStatus == newStatus && isArchived(oldArchived) == isArchived(newArchived)) {
+            return;
+        }
+        afterCommit(() -> {
+            adjustTodo(oldStatus, oldArchived, -1);
+            adjustTodo(newStatus, newArchived, 1);
+        });
+    }
+
+    // After the CommandLineRunners, so the rows they create are included
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    @Scheduled(initialDelayString = "${counters.reconcile-interval-ms:600000}",
+            fixedDelayString = "${counters.reconcile-interval-ms:600000}")
+    public void scheduledReconcile() {
+        EntityCountsReconcileDTO result = reconcile();
+        if (!result.corrected().isEmpty()) {
+            log.warn("Entity counters differed from the tables and were corrected: {}", result.corrected());
+        }
+    }
+
+    /**
+     * Sets every counter to its COUNT(*), five queries in all.
+     */
+    public synchronized EntityCountsReconcileDTO reconcile() {
+        long start = System.currentTimeMillis();
+        List<String> corrected = new ArrayList<>();
+        for (Entity entity : Entity.values()) {
+            Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + entity.table, Long.class);
+            correct(entity.name(), totals.get(entity), rows == null ? 0 : rows, corrected);
+        }
+
+        Map<Status, Long> open = new EnumMap<>(Status.class);
+        long[] archived = {0};
+        jdbcTemplate.query(COUNT_TODOS_BY_STATUS, rs -> {
+            long todos = rs.getLong("todos");
+            if (rs.getBoolean("archived")) {
+                archived[0] += todos;
+            } else {
+                String status = rs.getString("status");
+                if (status != null) {
+                    open.merge(Status.valueOf(status), todos, Long::sum);
+                }
+            }
+        });
+        for (Status status : Status.values()) {
+            correct("todos." + status, openTodos.get(status), open.getOrDefault(status, 0L), corrected);
+        }
+        correct("todos.archived", archivedTodos, archived[0], corrected);
+
+        // Nothing counts as corrected the first time, the counters start at zero
+        if (!built) {
+            corrected.clear();
+            built = true;
+        }
+        reconciledAt = LocalDateTime.now();
+        return new EntityCountsReconcileDTO(corrected, System.currentTimeMillis() - start);
+    }
+
+    private static void correct(String name, AtomicLong counter, long rows, List<String> corrected) {
+        if (counter.getAndSet(rows) != rows) {
+            corrected.add(name);
+        }
+    }
+
+    private void adjustTodo(Status status, Boolean archived, long delta) {
+        if (isArchived(archived)) {
+            archivedTodos.addAndGet(delta);
+        } else if (status != null) {
+            openTodos.get(status).addAndGet(delta);
+        }
+    }
+
+    private static boolean isArchived(Boolean archived) {
+        return Objects.equals(archived, Boolean.TRUE);
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.kromannreumert.etag.config;
+
+import com.example.kromannreumert.etag.service.CollectionVersions;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Answers a GET of a polled list with 304 when the If-None-Match ETag is still current, before the controller
+ * runs, so nothing is queried or serialized. Otherwise the current ETag is set and the request goes on.
+ *
+ * The ETag is the list's version stamp plus a hash of the user and the request parameters, since a jurist sees fewer
+ * cases than a partner and each page of a paged list is its own representation.
+ */
+public class CollectionETagInterceptor implements HandlerInterceptor {
+
+    private final CollectionVersions collectionVersions;
+    private final CollectionVersions.Listing listing;
+
+    public CollectionETagInterceptor(CollectionVersions collectionVersions, CollectionVersions.Listing listing) {
+        this.collectionVersions = collectionVersions;
+        this.listing = listing;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Principal principal = request.getUserPrincipal();
+        if (!"GET".equals(request.getMethod()) || principal == null) {
+            return true;
+        }
+
+        // Read before the controller queries, so the body is at least as new as the stamp it is sent with
+        String etag = "\"" + collectionVersions.version(listing) + "-" + scope(principal.getName(), request.getParameterMap()) + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // Weak comparison is what If-None-Match asks for, a proxy may have weakened our tag
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String scope(String username, Map<String, String[]> parameters) {
+        StringBuilder key = new StringBuilder(username).append('?');
+        new TreeMap<>(parameters).forEach((name, values) -> key.append(name).append('=').append(String.join(",", values)).append('&'));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.kromannreumert.etag.config;
+
+import com.example.kromannreumert.etag.service.CollectionVersions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Conditional GET for the lists the frontend polls, see CollectionVersions
+@Configuration
+public class ETagConfig implements WebMvcConfigurer {
+
+    @Value("${etag.enabled:true}")
+    private boolean enabled;
+
+    @Bean
+    public CollectionVersions collectionVersions() {
+        return new CollectionVersions();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+        CollectionVersions versions = collectionVersions();
+        registry.addInterceptor(new CollectionETagInterceptor(versions, CollectionVersions.Listing.CASES))
+                .addPathPatterns("/api/v1/cases");
+        registry.addInterceptor(new CollectionETagInterceptor(versions, CollectionVersions.Listing.CLIENTS))
+                .addPathPatterns("/api/v1/client", "/api/v1/client/");
+        registry.addInterceptor(new CollectionETagInterceptor(versions, CollectionVersions.Listing.TODOS))
+                .addPathPatterns("/api/v1/todos", "/api/v1/todos/assigned");
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.kromannreumert.etag.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version stamps for the case, client and todo lists that the frontend polls, used as ETags.
+ *
+ * The services call changed() for every write, and the stamp of each affected list is moved forward once the
+ * transaction commits, so a poll that starts before the commit can never be answered with the new stamp.
+ * The lists embed each other: a case shows its client, a todo shows its case and client, and all of them show users,
+ * so a client write also changes the case and todo lists, and so on.
+ *
+ * The stamps live in memory and start from a random instance id, so a restart never reuses an old ETag.
+ * Writes made by another application instance are not seen here, which is why etag.enabled should be turned off
+ * when several instances serve the same clients without sticky sessions.
+ */
+public class CollectionVersions {
+
+    public enum Listing {
+        CASES("cases"),
+        CLIENTS("clients"),
+        TODOS("todos");
+
+        private final String key;
+
+        Listing(String key) {
+            this.key = key;
+        }
+    }
+
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+    private final Map<Listing, AtomicLong> versions = new EnumMap<>(Listing.class);
+
+    public CollectionVersions() {
+        for (Listing listing : Listing.values()) {
+            versions.put(listing, new AtomicLong());
+        }
+    }
+
+    /**
+     * Moves the stamps of the given lists forward once the current transaction commits, or right away outside a transaction.
+     */
+    public void changed(Listing... listings) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(listings);
+                }
+            });
+        } else {
+            bump(listings);
+        }
+    }
+
+    /**
+     * @return the current stamp of the list, for example "cases-1a2b3c4d-17"
+     */
+    public String version(Listing listing) {
+        return listing.key + "-" + instanceId + "-" + versions.get(listing).get();
+    }
+
+    private void bump(Listing... listings) {
+        for (Listing listing : listings) {
+            versions.get(listing).incrementAndGet();
+        }
+    }
+}
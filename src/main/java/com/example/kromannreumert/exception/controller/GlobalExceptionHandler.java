@@ -2,8 +2,9 @@ package com.example.kromannreumert.exception.controller;
 
 
 import com.example.kromannreumert.exception.customException.http4xxExceptions.NotFoundException;
+import com.example.kromannreumert.exception.customException.http4xxExceptions.VersionConflictException;
 import com.example.kromannreumert.exception.customException.http5xxException.ActionFailedException;
-import com.example.kromannreumert.exception.customException.http5xxException.ConflictException;
+import com.example.kromannreumert.exception.entity.ConflictResponse;
 import com.example.kromannreumert.exception.entity.ErrorMessage;
 import com.example.kromannreumert.exception.entity.ErrorResponse;
 import com.example.kromannreumert.logging.service.LoggingService;
@@ -61,6 +62,32 @@ public class GlobalExceptionHandler {
         );
     }
 
+    /**
+     * Method used to handle HTTP code 409 when an update was based on an older version of a "Client/Case/To-do" than the stored one
+     * @param ex holds the log action, the actor and the current state of the entity
+     * @param request is the endpoint url that the user has been trying to access
+     * @return the customized exception object plus the current state, so the client can retry on top of it
+     */
+
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<?> handleConflict409(VersionConflictException ex, WebRequest request) {
+
+        loggingService.log(
+                ex.getAction(),
+                ex.getActor(),
+                ex.getMessage()
+        );
+
+        return ResponseEntity.status(409).body(
+                new ConflictResponse(409,
+                        "Conflict",
+                        ex.getMessage(),
+                        request.getDescription(true),
+                        ex.getAction().name(),
+                        ex.getCurrent())
+        );
+    }
+
 //    @ExceptionHandler(BadRequestException.class)
 //    public ResponseEntity<ErrorMessage> handleBadRequest400(BadRequestException ex, WebRequest req) {
 //        return buildResponse(400, ex, req);
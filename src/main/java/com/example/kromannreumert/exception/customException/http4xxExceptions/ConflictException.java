@@ -0,0 +1,10 @@
+package com.example.kromannreumert.exception.customException.http4xxExceptions;
+
+import com.example.kromannreumert.logging.entity.LogAction;
+
+public abstract class ConflictException extends ApiBusinessException {
+
+    protected ConflictException(LogAction action, String actor, String message) {
+        super(action, actor, message);
+    }
+}
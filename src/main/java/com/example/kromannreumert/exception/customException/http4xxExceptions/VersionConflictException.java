@@ -0,0 +1,19 @@
+package com.example.kromannreumert.exception.customException.http4xxExceptions;
+
+import com.example.kromannreumert.logging.entity.LogAction;
+import lombok.Getter;
+
+/**
+ * An update was based on an older version than the one stored, someone else changed the entity in between.
+ * Carries the stored state, so the client can show it and retry on top of it.
+ */
+@Getter
+public class VersionConflictException extends ConflictException {
+
+    private final Object current;
+
+    public VersionConflictException(LogAction action, String actor, String detail, Object current) {
+        super(action, actor, detail + " was changed by someone else, reload and try again");
+        this.current = current;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.kromannreumert.exception.entity;
+
+/**
+ * ErrorResponse for 409, with the current state of the entity the request conflicted with.
+ */
+public record ConflictResponse(
+        int status,
+        String error,
+        String message,
+        String path,
+        String action,
+        Object current
+) {}
@@ -0,0 +1,28 @@
+package com.example.kromannreumert.idprefix.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Next free prefix of one idPrefix sequence, shared by all application instances.
+ * Rows are read and moved forward by IdPrefixAllocator a block at a time.
+ */
+@Entity
+@Table(name = "id_prefix_sequence")
+@NoArgsConstructor
+@Getter
+@Setter
+public class IdPrefixSequence {
+
+    @Id
+    @Column(length = 32)
+    private String name;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+}
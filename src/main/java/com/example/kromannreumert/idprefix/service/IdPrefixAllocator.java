@@ -0,0 +1,171 @@
+package com.example.kromannreumert.idprefix.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hands out the firm's 99xxxx idPrefixes for new clients and cases when the caller does not supply one.
+ *
+ * Each instance reserves a block of prefixes at a time by moving next_value in id_prefix_sequence forward
+ * in its own transaction, and hands them out from memory. Blocks never overlap between instances, so allocated
+ * prefixes are unique without a database round trip per create. Prefixes left in a block when the instance stops
+ * are skipped, so allocated prefixes can have gaps.
+ *
+ * Explicit prefixes, for example from a migration or a legacy 99xxxx prefix, are still accepted unless they lie in a
+ * block that is already reserved, where they could collide with a prefix an instance is about to hand out. When a
+ * block is reserved, prefixes in it that are already stored are skipped, so explicit prefixes above the reserved
+ * blocks are never handed out again.
+ */
+@Component
+public class IdPrefixAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(IdPrefixAllocator.class);
+
+    public enum Sequence {
+        CLIENT("client", "client", "idprefix"),
+        CASE("case", "casee", "id_prefix");
+
+        private final String key;
+        private final String table;
+        private final String column;
+
+        Sequence(String key, String table, String column) {
+            this.key = key;
+            this.table = table;
+            this.column = column;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    private final int blockSize;
+    private final Map<Sequence, Long> starts = new EnumMap<>(Sequence.class);
+    private final Map<Sequence, Block> blocks = new EnumMap<>(Sequence.class);
+
+    public IdPrefixAllocator(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${id-prefix.block-size:100}") int blockSize,
+                             @Value("${id-prefix.client.start:990000}") long clientStart,
+                             @Value("${id-prefix.case.start:990000}") long caseStart) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+        this.starts.put(Sequence.CLIENT, clientStart);
+        this.starts.put(Sequence.CASE, caseStart);
+    }
+
+    /**
+     * @return the requested prefix if one was given, otherwise the next allocated prefix
+     * @throws IllegalArgumentException if the requested prefix is in a reserved block
+     */
+    public Long resolve(Sequence sequence, Long requested) {
+        if (requested == null) {
+            return next(sequence);
+        }
+        checkExplicit(sequence, requested);
+        return requested;
+    }
+
+    public synchronized Long next(Sequence sequence) {
+        Block block = blocks.get(sequence);
+        while (true) {
+            if (block == null || block.next >= block.end) {
+                block = reserve(sequence);
+                blocks.put(sequence, block);
+            }
+            long prefix = block.next++;
+            if (!block.taken.contains(prefix)) {
+                return prefix;
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the prefix is in a reserved block
+     */
+    public void checkExplicit(Sequence sequence, Long prefix) {
+        checkExplicit(sequence, prefix, reservedEnd(sequence));
+    }
+
+    /**
+     * For checking many prefixes against one reading of {@link #reservedEnd}.
+     *
+     * @throws IllegalArgumentException if the prefix is in a reserved block
+     */
+    public void checkExplicit(Sequence sequence, Long prefix, long reservedEnd) {
+        long start = starts.get(sequence);
+        if (prefix != null && prefix >= start && prefix < reservedEnd) {
+            throw new IllegalArgumentException("idPrefix " + prefix + " is in the reserved range " + start + " to "
+                    + (reservedEnd - 1) + ", leave it out to have one allocated");
+        }
+    }
+
+    /**
+     * @return the first prefix after the blocks reserved so far by any instance, the start of the range if none are
+     */
+    public long reservedEnd(Sequence sequence) {
+        List<Long> end = jdbcTemplate.queryForList("SELECT next_value FROM id_prefix_sequence WHERE name = ?",
+                Long.class, sequence.key);
+        return end.isEmpty() ? starts.get(sequence) : end.getFirst();
+    }
+
+    private Block reserve(Sequence sequence) {
+        Block block = newTransaction.execute(status -> {
+            if (moveForward(sequence) == 0) {
+                long first = starts.get(sequence);
+                try {
+                    jdbcTemplate.update("INSERT INTO id_prefix_sequence (name, next_value) VALUES (?, ?)",
+                            sequence.key, first + blockSize);
+                    return new Block(first, first + blockSize, taken(sequence, first, first + blockSize));
+                } catch (DuplicateKeyException e) {
+                    // Another instance created the row first, reserve from it instead
+                    moveForward(sequence);
+                }
+            }
+            Long end = jdbcTemplate.queryForObject("SELECT next_value FROM id_prefix_sequence WHERE name = ?",
+                    Long.class, sequence.key);
+            return new Block(end - blockSize, end, taken(sequence, end - blockSize, end));
+        });
+        log.debug("Reserved {} idPrefixes {} to {}", sequence, block.next, block.end - 1);
+        return block;
+    }
+
+    private int moveForward(Sequence sequence) {
+        return jdbcTemplate.update("UPDATE id_prefix_sequence SET next_value = next_value + ? WHERE name = ?",
+                blockSize, sequence.key);
+    }
+
+    // Explicit prefixes given before the block was reserved, once it is reserved checkExplicit keeps new ones out
+    private Set<Long> taken(Sequence sequence, long from, long to) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT " + sequence.column + " FROM " + sequence.table
+                        + " WHERE " + sequence.column + " >= ? AND " + sequence.column + " < ?",
+                Long.class, from, to));
+    }
+
+    private static final class Block {
+        private long next;
+        private final long end;
+        private final Set<Long> taken;
+
+        private Block(long next, long end, Set<Long> taken) {
+            this.next = next;
+            this.end = end;
+            this.taken = taken;
+        }
+    }
+}
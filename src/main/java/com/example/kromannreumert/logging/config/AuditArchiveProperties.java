@@ -0,0 +1,31 @@
+package com.example.kromannreumert.logging.config;
+
+import com.example.kromannreumert.logging.entity.LogAction;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Settings for moving closed months out of the logging table (see AuditArchiveService).
+ * @param enabled whether the rollover job runs and archives are read
+ * @param directory where the monthly archive folders are written
+ * @param hotMonths how many months, including the current one, stay in the logging table
+ * @param cron when the rollover job runs
+ * @param retentionDays per action, how many days after a month has ended its entries are kept. Actions without a value are kept forever
+ */
+@ConfigurationProperties(prefix = "audit.archive")
+public record AuditArchiveProperties(
+        boolean enabled,
+        Path directory,
+        Integer hotMonths,
+        String cron,
+        Map<LogAction, Integer> retentionDays
+) {
+    public AuditArchiveProperties {
+        directory = directory != null ? directory : Path.of("audit-archive");
+        hotMonths = hotMonths != null ? Math.max(1, hotMonths) : 3;
+        cron = cron != null ? cron : "0 30 2 * * *";
+        retentionDays = retentionDays != null ? Map.copyOf(retentionDays) : Map.of();
+    }
+}
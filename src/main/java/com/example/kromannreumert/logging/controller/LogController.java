@@ -1,15 +1,31 @@
 package com.example.kromannreumert.logging.controller;
 
+import com.example.kromannreumert.logging.dto.AuditVerificationDTO;
+import com.example.kromannreumert.logging.dto.AuditVerificationStatusDTO;
+import com.example.kromannreumert.logging.dto.LogFilter;
+import com.example.kromannreumert.logging.dto.LogMetricsDTO;
+import com.example.kromannreumert.logging.dto.LogPageDTO;
+import com.example.kromannreumert.logging.entity.LogAction;
 import com.example.kromannreumert.logging.entity.Logging;
+import com.example.kromannreumert.logging.service.AuditSearchIndex;
+import com.example.kromannreumert.logging.service.AuditVerificationService;
+import com.example.kromannreumert.logging.service.LogExportService;
 import com.example.kromannreumert.logging.service.LoggingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.security.Principal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -18,9 +34,15 @@ public class LogController {
 
     private static final Logger log = LoggerFactory.getLogger(LogController.class);
     private final LoggingService loggingService;
+    private final LogExportService logExportService;
+    private final AuditVerificationService auditVerificationService;
+    private final AuditSearchIndex auditSearchIndex;
 
-    public LogController(LoggingService loggingService) {
+    public LogController(LoggingService loggingService, LogExportService logExportService, AuditVerificationService auditVerificationService, AuditSearchIndex auditSearchIndex) {
         this.loggingService = loggingService;
+        this.logExportService = logExportService;
+        this.auditVerificationService = auditVerificationService;
+        this.auditSearchIndex = auditSearchIndex;
     }
 
     //TODO add Logs for specific actions - NO CRUDS only read.
@@ -32,6 +54,78 @@ public class LogController {
         return loggingService.getAllLogs(principal.getName());
     }
 
+    // Example: /api/v1/admin/logs?actor=admin&action=LOGIN_FAILED&from=2025-01-01T00:00:00&limit=100&cursor=4711
+    @GetMapping("/logs")
+    public LogPageDTO getLogs(@RequestParam(required = false) String actor,
+                              @RequestParam(required = false) LogAction action,
+                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                              @RequestParam(required = false) Long cursor,
+                              @RequestParam(defaultValue = "100") int limit,
+                              Principal principal) {
+        log.info("Controller: Get logs page has been accessed by {}", principal.getName());
+        return loggingService.getLogs(new LogFilter(actor, action, from, to), cursor, limit, principal.getName());
+    }
+
+    // Full-text search over actor, action and details. Example: /api/v1/admin/logs/search?q=client 99*&from=2025-01-01T00:00:00
+    @GetMapping("/logs/search")
+    public LogPageDTO searchLogs(@RequestParam(required = false) String q,
+                                 @RequestParam(required = false) String actor,
+                                 @RequestParam(required = false) LogAction action,
+                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                 @RequestParam(required = false) Long cursor,
+                                 @RequestParam(defaultValue = "100") int limit,
+                                 Principal principal) {
+        log.info("Controller: Log search has been accessed by {}", principal.getName());
+        return auditSearchIndex.search(q, new LogFilter(actor, action, from, to), cursor, limit, principal.getName());
+    }
+
+    @GetMapping("/logs/metrics")
+    public LogMetricsDTO getLogMetrics() {
+        return loggingService.getMetrics();
+    }
+
+    // Streams every matching log row, oldest first. Example: /api/v1/admin/logs/export?format=CSV&gzip=true&from=2025-01-01T00:00:00
+    @GetMapping("/logs/export")
+    public ResponseEntity<StreamingResponseBody> exportLogs(@RequestParam(defaultValue = "NDJSON") LogExportService.Format format,
+                                                            @RequestParam(defaultValue = "false") boolean gzip,
+                                                            @RequestParam(required = false) String actor,
+                                                            @RequestParam(required = false) LogAction action,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                            Principal principal) {
+        log.info("Controller: Log export has been accessed by {}", principal.getName());
+
+        LogFilter filter = new LogFilter(actor, action, from, to);
+        String name = principal.getName();
+        String fileName = "audit-log." + (format == LogExportService.Format.CSV ? "csv" : "ndjson") + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : format == LogExportService.Format.CSV ? MediaType.parseMediaType("text/csv")
+                : MediaType.parseMediaType("application/x-ndjson");
+
+        StreamingResponseBody body = out -> logExportService.export(filter, format, gzip, out, name);
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    // Checks the hash chain for logs in [from, to). Example: /api/v1/admin/logs/verify?from=2025-01-01T00:00:00&to=2025-02-01T00:00:00
+    @GetMapping("/logs/verify")
+    public AuditVerificationDTO verifyLogs(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                           Principal principal) {
+        log.info("Controller: Log verification has been accessed by {}", principal.getName());
+        return auditVerificationService.verify(from, to, principal.getName());
+    }
+
+    @GetMapping("/logs/verify/status")
+    public AuditVerificationStatusDTO getVerificationStatus() {
+        return auditVerificationService.getStatus();
+    }
+
     @GetMapping("/getlog/{logId}")
     public Logging getOneLog(@PathVariable int logId, Principal principal){
         return loggingService.getLogById(logId, principal.getName());
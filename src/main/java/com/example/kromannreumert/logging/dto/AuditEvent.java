@@ -0,0 +1,186 @@
+package com.example.kromannreumert.logging.dto;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Structured details for an audit entry, stored as compact JSON in the details column.
+ *
+ * Only ids and scalar values go in, never entities, so building an event does not trigger lazy loads
+ * or print password hashes through toString. The output is bounded: strings are cut at 200 characters,
+ * id lists at 50 ids, and fields stop being added when the event reaches the size of the details column.
+ *
+ * Example: {"event":"case.update","caseId":4,"name":{"from":"Old","to":"New"},"assigneeIds":{"added":[7],"removed":[]}}
+ */
+public final class AuditEvent {
+
+    public static final int MAX_LENGTH = 2000;
+    private static final int MAX_VALUE_LENGTH = 200;
+    private static final int MAX_IDS = 50;
+    // Room left for the closing brace and the truncated marker
+    private static final int RESERVED = 32;
+
+    private final StringBuilder json = new StringBuilder(128);
+    private boolean truncated;
+
+    private AuditEvent(String event) {
+        json.append("{\"event\":");
+        appendString(event);
+    }
+
+    public static AuditEvent of(String event) {
+        return new AuditEvent(event);
+    }
+
+    /**
+     * Adds a scalar field. Numbers and booleans are written as is, anything else as a string.
+     */
+    public AuditEvent field(String name, Object value) {
+        int mark = json.length();
+        appendName(name);
+        appendValue(value);
+        return checkSize(mark);
+    }
+
+    /**
+     * Adds a list of ids, sorted so the same set always gives the same text.
+     */
+    public AuditEvent ids(String name, Collection<? extends Number> ids) {
+        int mark = json.length();
+        appendName(name);
+        appendIds(ids);
+        return checkSize(mark);
+    }
+
+    /**
+     * Adds the field as {"from":..,"to":..}, or nothing when the value did not change.
+     */
+    public AuditEvent changed(String name, Object before, Object after) {
+        if (Objects.equals(before, after)) {
+            return this;
+        }
+        int mark = json.length();
+        appendName(name);
+        json.append("{\"from\":");
+        appendValue(before);
+        json.append(",\"to\":");
+        appendValue(after);
+        json.append('}');
+        return checkSize(mark);
+    }
+
+    /**
+     * Adds the ids that were added and removed, or nothing when both sets are the same.
+     */
+    public AuditEvent changedIds(String name, Collection<? extends Number> before, Collection<? extends Number> after) {
+        TreeSet<Long> added = toSortedSet(after);
+        TreeSet<Long> removed = toSortedSet(before);
+        TreeSet<Long> kept = new TreeSet<>(added);
+        kept.retainAll(removed);
+        added.removeAll(kept);
+        removed.removeAll(kept);
+        if (added.isEmpty() && removed.isEmpty()) {
+            return this;
+        }
+
+        int mark = json.length();
+        appendName(name);
+        json.append("{\"added\":");
+        appendIds(added);
+        json.append(",\"removed\":");
+        appendIds(removed);
+        json.append('}');
+        return checkSize(mark);
+    }
+
+    public String toJson() {
+        StringBuilder out = new StringBuilder(json);
+        if (truncated) {
+            out.append(",\"truncated\":true");
+        }
+        return out.append('}').toString();
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+
+    private AuditEvent checkSize(int mark) {
+        if (truncated || json.length() > MAX_LENGTH - RESERVED) {
+            json.setLength(mark);
+            truncated = true;
+        }
+        return this;
+    }
+
+    private void appendName(String name) {
+        json.append(',');
+        appendString(name);
+        json.append(':');
+    }
+
+    private void appendValue(Object value) {
+        if (value == null) {
+            json.append("null");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            json.append(value);
+        } else {
+            appendString(value.toString());
+        }
+    }
+
+    private void appendIds(Collection<? extends Number> ids) {
+        TreeSet<Long> sorted = toSortedSet(ids);
+        json.append('[');
+        int written = 0;
+        for (Long id : sorted) {
+            if (written == MAX_IDS) {
+                json.append(",\"+").append(sorted.size() - MAX_IDS).append('"');
+                break;
+            }
+            if (written > 0) {
+                json.append(',');
+            }
+            json.append(id);
+            written++;
+        }
+        json.append(']');
+    }
+
+    private void appendString(String value) {
+        String bounded = value.length() > MAX_VALUE_LENGTH ? value.substring(0, MAX_VALUE_LENGTH) : value;
+        json.append('"');
+        for (int i = 0; i < bounded.length(); i++) {
+            char c = bounded.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    private static TreeSet<Long> toSortedSet(Collection<? extends Number> ids) {
+        TreeSet<Long> sorted = new TreeSet<>();
+        if (ids != null) {
+            for (Number id : ids) {
+                if (id != null) {
+                    sorted.add(id.longValue());
+                }
+            }
+        }
+        return sorted;
+    }
+}
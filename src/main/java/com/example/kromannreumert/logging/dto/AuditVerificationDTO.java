@@ -0,0 +1,21 @@
+package com.example.kromannreumert.logging.dto;
+
+import java.util.List;
+
+/**
+ * Result of verifying the hash chain for a range of logging rows.
+ * invalidRows are rows whose content does not match their hash, brokenLinks are rows whose prevHash does not match
+ * the row before them, which happens when rows were inserted or deleted. Both lists are capped at 100 ids.
+ */
+public record AuditVerificationDTO(Long firstId,
+                                   Long lastId,
+                                   long rowsChecked,
+                                   long unchainedRows,
+                                   List<Long> invalidRows,
+                                   List<Long> brokenLinks,
+                                   int checkpointsChecked,
+                                   List<Long> checkpointMismatches,
+                                   boolean valid,
+                                   long millis,
+                                   double rowsPerSecond) {
+}
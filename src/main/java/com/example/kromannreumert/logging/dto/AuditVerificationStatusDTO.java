@@ -0,0 +1,15 @@
+package com.example.kromannreumert.logging.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the background verification, which checks new rows as they are written.
+ */
+public record AuditVerificationStatusDTO(long lastVerifiedId,
+                                         long rowsVerified,
+                                         long invalidRows,
+                                         long brokenLinks,
+                                         long checkpoints,
+                                         double rowsPerSecond,
+                                         LocalDateTime lastRun) {
+}
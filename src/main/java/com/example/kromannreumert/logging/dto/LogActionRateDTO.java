@@ -0,0 +1,7 @@
+package com.example.kromannreumert.logging.dto;
+
+import com.example.kromannreumert.logging.entity.LogAction;
+
+// perMinute is the average over the last five minutes
+public record LogActionRateDTO(LogAction action, long total, long lastMinute, long lastFiveMinutes, double perMinute) {
+}
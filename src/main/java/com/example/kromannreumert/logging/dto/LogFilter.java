@@ -0,0 +1,8 @@
+package com.example.kromannreumert.logging.dto;
+
+import com.example.kromannreumert.logging.entity.LogAction;
+
+import java.time.LocalDateTime;
+
+public record LogFilter(String actor, LogAction action, LocalDateTime from, LocalDateTime to) {
+}
@@ -0,0 +1,6 @@
+package com.example.kromannreumert.logging.dto;
+
+import java.util.List;
+
+public record LogMetricsDTO(List<LogActionRateDTO> actions, int writerQueueSize, long written, long dropped, long failed) {
+}
@@ -0,0 +1,9 @@
+package com.example.kromannreumert.logging.dto;
+
+import com.example.kromannreumert.logging.entity.Logging;
+
+import java.util.List;
+
+// nextCursor is the id to send as "cursor" for the next page, null when there are no more rows
+public record LogPageDTO(List<Logging> logs, Long nextCursor) {
+}
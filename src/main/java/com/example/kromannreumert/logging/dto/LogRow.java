@@ -0,0 +1,8 @@
+package com.example.kromannreumert.logging.dto;
+
+import java.time.LocalDateTime;
+
+// One audit entry as it is written to archive files and exports
+public record LogRow(long id, String actor, String action, String details, LocalDateTime timestamp,
+                     Integer eventCount, LocalDateTime lastTimestamp) {
+}
@@ -0,0 +1,46 @@
+package com.example.kromannreumert.logging.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Merkle root over a block of consecutive chained logging rows, see AuditVerificationService.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_audit_checkpoint_last_log_id", columnList = "lastLogId"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class AuditCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long firstLogId;
+
+    private Long lastLogId;
+
+    private int rowCount;
+
+    @Column(length = 64)
+    private String merkleRoot;
+
+    // Hash of the last row in the block, the next block continues the chain from here
+    @Column(length = 64)
+    private String lastHash;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public AuditCheckpoint(Long firstLogId, Long lastLogId, int rowCount, String merkleRoot, String lastHash) {
+        this.firstLogId = firstLogId;
+        this.lastLogId = lastLogId;
+        this.rowCount = rowCount;
+        this.merkleRoot = merkleRoot;
+        this.lastHash = lastHash;
+    }
+}
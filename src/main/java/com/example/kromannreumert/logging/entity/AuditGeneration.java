@@ -0,0 +1,26 @@
+package com.example.kromannreumert.logging.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * The single row naming the current lifetime of the audit tables, see AuditTableGeneration.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class AuditGeneration {
+
+    @Id
+    private Long id;
+
+    @Column(length = 36)
+    private String generation;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
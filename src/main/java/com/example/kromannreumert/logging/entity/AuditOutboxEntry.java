@@ -0,0 +1,33 @@
+package com.example.kromannreumert.logging.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Audit entry written in the same transaction as the change it describes, moved to the logging table by AuditOutbox.
+ */
+@Entity
+@Table(name = "audit_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+public class AuditOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String actor;
+
+    @Enumerated(EnumType.STRING)
+    private LogAction action;
+
+    @Column(length = 2000)
+    private String details;
+
+    private LocalDateTime timestamp;
+}
@@ -35,6 +35,12 @@ public enum LogAction {
     VIEW_ALL_LOGS_FAILED,
     VIEW_ONE_LOG,
     VIEW_ONE_LOG_FAILED,
+    EXPORT_LOGS,
+    EXPORT_LOGS_FAILED,
+    VERIFY_LOGS,
+    VERIFY_LOGS_FAILED,
+    SEARCH_LOGS,
+    SEARCH_LOGS_FAILED,
     VIEW_ALL_TODOS,
     VIEW_ALL_TODOS_FAILED,
     VIEW_ONE_TODO,
@@ -48,7 +54,10 @@ public enum LogAction {
     CASE_CREATE,
     CASE_READ,
     CASE_UPDATE,
+    CASE_UPDATE_FAILED,
     CASE_DELETE,
+    CASE_IMPORT,
+    CASE_IMPORT_FAILED,
     VIEW_ALL_CLIENTS,
     VIEW_ALL_CLIENTS_FAILED,
     VIEW_ONE_CLIENT,
@@ -58,5 +67,17 @@ public enum LogAction {
     DELETE_CLIENT,
     DELETE_CLIENT_FAILED,
     UPDATE_CLIENT,
-    UPDATE_CLIENT_FAILED
+    UPDATE_CLIENT_FAILED;
+
+    /**
+     * Read-only actions are the successful VIEW_* and CASE_READ events. Failed reads are not included,
+     * as they can point to someone probing for data they are not allowed to see.
+     */
+    public boolean isReadOnly() {
+        return this == CASE_READ || (name().startsWith("VIEW_") && !isFailure());
+    }
+
+    public boolean isFailure() {
+        return name().endsWith("_FAILED");
+    }
 }
@@ -8,6 +8,11 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_logging_actor_id", columnList = "actor, id"),
+        @Index(name = "idx_logging_action_id", columnList = "action, id"),
+        @Index(name = "idx_logging_timestamp_id", columnList = "timestamp, id")
+})
 @Data
 @Getter
 @Setter
@@ -22,10 +27,23 @@ public class Logging {
     @Enumerated(EnumType.STRING)
     private LogAction action;
 
+    @Column(length = 2000)
     private String details;
 
     private LocalDateTime timestamp = LocalDateTime.now();
 
+    // Set when repeated read events are coalesced into this row, timestamp is then the first event
+    private Integer eventCount = 1;
+
+    private LocalDateTime lastTimestamp;
+
+    // Hash chain, set by the AuditLogWriter when the row is written (see AuditHashChain)
+    @Column(length = 64)
+    private String prevHash;
+
+    @Column(length = 64)
+    private String hash;
+
     public Logging() {}
 
     public Logging(String actor, LogAction action, String details) {
@@ -48,6 +66,8 @@ public class Logging {
                 ", action=" + action +
                 ", details='" + details + '\'' +
                 ", timestamp=" + timestamp +
+                ", eventCount=" + eventCount +
+                ", lastTimestamp=" + lastTimestamp +
                 '}';
     }
 }
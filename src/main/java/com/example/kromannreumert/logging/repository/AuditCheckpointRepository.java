@@ -0,0 +1,17 @@
+package com.example.kromannreumert.logging.repository;
+
+import com.example.kromannreumert.logging.entity.AuditCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AuditCheckpointRepository extends JpaRepository<AuditCheckpoint, Long> {
+
+    Optional<AuditCheckpoint> findTopByOrderByLastLogIdDesc();
+
+    // Checkpoints overlapping the id range [fromId, toId]
+    List<AuditCheckpoint> findAllByLastLogIdGreaterThanEqualAndFirstLogIdLessThanEqualOrderByFirstLogId(Long fromId, Long toId);
+}
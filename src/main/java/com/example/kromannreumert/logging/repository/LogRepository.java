@@ -3,12 +3,15 @@ package com.example.kromannreumert.logging.repository;
 import com.example.kromannreumert.logging.entity.LogAction;
 import com.example.kromannreumert.logging.entity.Logging;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface LogRepository extends JpaRepository<Logging, Integer> {
+public interface LogRepository extends JpaRepository<Logging, Integer>, JpaSpecificationExecutor<Logging> {
 
     List<Logging> findAllByAction(LogAction logAction);
+
+    List<Logging> findTop1000ByOrderByIdDesc();
 }
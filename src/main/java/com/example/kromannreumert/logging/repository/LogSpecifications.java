@@ -0,0 +1,38 @@
+package com.example.kromannreumert.logging.repository;
+
+import com.example.kromannreumert.logging.dto.LogFilter;
+import com.example.kromannreumert.logging.entity.Logging;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Builds the WHERE clause for audit log queries. Only the filters that are set end up in the query,
+ * so the database can use the (actor, id), (action, id) and (timestamp, id) indexes.
+ */
+public final class LogSpecifications {
+
+    private LogSpecifications() {
+    }
+
+    public static Specification<Logging> matches(LogFilter filter, Long beforeId) {
+        return (root, query, cb) -> {
+            var predicates = cb.conjunction();
+
+            if (filter.actor() != null && !filter.actor().isBlank()) {
+                predicates = cb.and(predicates, cb.equal(root.get("actor"), filter.actor()));
+            }
+            if (filter.action() != null) {
+                predicates = cb.and(predicates, cb.equal(root.get("action"), filter.action()));
+            }
+            if (filter.from() != null) {
+                predicates = cb.and(predicates, cb.greaterThanOrEqualTo(root.get("timestamp"), filter.from()));
+            }
+            if (filter.to() != null) {
+                predicates = cb.and(predicates, cb.lessThan(root.get("timestamp"), filter.to()));
+            }
+            if (beforeId != null) {
+                predicates = cb.and(predicates, cb.lessThan(root.get("id"), beforeId));
+            }
+            return predicates;
+        };
+    }
+}
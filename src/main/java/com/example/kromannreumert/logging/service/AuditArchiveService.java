@@ -0,0 +1,515 @@
+package com.example.kromannreumert.logging.service;
+
+import com.example.kromannreumert.logging.config.AuditArchiveProperties;
+import com.example.kromannreumert.logging.dto.LogFilter;
+import com.example.kromannreumert.logging.dto.LogRow;
+import com.example.kromannreumert.logging.entity.LogAction;
+import com.example.kromannreumert.logging.entity.Logging;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the logging table small by moving closed months out of it into compressed archive files.
+ *
+ * The logging table only holds the last {@code audit.archive.hot-months} months. Older months are written to
+ * {@code <directory>/<generation>/<yyyy-MM>/<firstId>-<lastId>/<ACTION>.ndjson.gz}, one file per action, and then deleted from the table.
+ * Ids begin at 1 again when the logging table is recreated, so every table generation (see AuditTableGeneration) gets
+ * its own folder and only the current one is read. Archives of earlier generations are kept until their retention passes.
+ * Each rollover writes its files into a hidden staging folder that is renamed into place in one step,
+ * so a crash never leaves a half written batch behind, and rows that are already archived are never archived twice.
+ *
+ * Retention is configured per LogAction and applied once a month leaves the table: expired rows are skipped when
+ * archiving, and archive files are deleted once their whole month has expired. Rows are only ever deleted from the
+ * table a whole month at a time from the oldest end, deleting single rows out of the middle would break the hash
+ * chain and the checkpoints covering them (see AuditVerificationService). A retention shorter than the hot window
+ * therefore only takes effect when the month is archived.
+ *
+ * The query and export code reads archived months through {@link #readPage} and {@link #forEach},
+ * so callers do not need to know where a row is stored.
+ */
+@Service
+public class AuditArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditArchiveService.class);
+
+    private static final String FILE_SUFFIX = ".ndjson.gz";
+    private static final String STAGING_PREFIX = ".staging-";
+    private static final int DELETE_CHUNK = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final AuditArchiveProperties properties;
+    private final AuditTableGeneration tableGeneration;
+
+    public AuditArchiveService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, AuditArchiveProperties properties,
+                               AuditTableGeneration tableGeneration) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.tableGeneration = tableGeneration;
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * @return the oldest month that is kept in the logging table
+     */
+    public YearMonth firstHotMonth() {
+        return YearMonth.now().minusMonths(properties.hotMonths() - 1);
+    }
+
+    @Scheduled(cron = "${audit.archive.cron:0 30 2 * * *}")
+    public void scheduledRollover() {
+        if (properties.enabled()) {
+            rollover();
+        }
+    }
+
+    /**
+     * Archives every closed month that is older than the hot window and applies the retention policy.
+     */
+    public synchronized void rollover() {
+        long started = System.currentTimeMillis();
+        try {
+            Files.createDirectories(currentGeneration());
+            deleteStaleStaging();
+
+            YearMonth firstHot = firstHotMonth();
+            Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(timestamp) FROM logging", Timestamp.class);
+            if (oldest != null) {
+                for (YearMonth month = YearMonth.from(oldest.toLocalDateTime()); month.isBefore(firstHot); month = month.plusMonths(1)) {
+                    archiveMonth(month);
+                }
+            }
+
+            deleteExpiredArchives();
+
+            log.info("Audit archive rollover finished in {} ms", System.currentTimeMillis() - started);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Audit archive rollover failed", e);
+        }
+    }
+
+    private void archiveMonth(YearMonth month) throws IOException {
+        Path monthDir = currentGeneration().resolve(month.toString());
+        Files.createDirectories(monthDir);
+
+        long alreadyArchived = maxArchivedId(monthDir);
+        Timestamp start = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp end = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+
+        Path staging = Files.createTempDirectory(monthDir, STAGING_PREFIX);
+        Map<String, Writer> writers = new HashMap<>();
+        long[] range = {Long.MAX_VALUE, Long.MIN_VALUE};
+        long[] counts = {0, 0};
+
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(
+                        "SELECT id, actor, action, details, timestamp, event_count, last_timestamp FROM logging WHERE timestamp >= ? AND timestamp < ? AND id > ? ORDER BY id",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(1000);
+                ps.setTimestamp(1, start);
+                ps.setTimestamp(2, end);
+                ps.setLong(3, alreadyArchived);
+                return ps;
+            }, rs -> {
+                LogRow row = toRow(rs);
+                range[0] = Math.min(range[0], row.id());
+                range[1] = Math.max(range[1], row.id());
+
+                if (isExpired(row.action(), row.timestamp().toLocalDate())) {
+                    counts[1]++;
+                    return;
+                }
+                try {
+                    Writer writer = writers.computeIfAbsent(row.action(), action -> openWriter(staging.resolve(action + FILE_SUFFIX)));
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                    counts[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            for (Writer writer : writers.values()) {
+                writer.close();
+            }
+        } catch (RuntimeException | IOException e) {
+            closeQuietly(writers.values());
+            deleteRecursively(staging);
+            throw e;
+        }
+
+        if (range[1] == Long.MIN_VALUE) {
+            deleteRecursively(staging);
+            deleteIfEmpty(monthDir);
+            deleteFromHotTable(start, end, alreadyArchived);
+            return;
+        }
+
+        if (writers.isEmpty()) {
+            deleteRecursively(staging);
+        } else {
+            Files.move(staging, monthDir.resolve(range[0] + "-" + range[1]), StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        deleteFromHotTable(start, end, range[1]);
+        log.info("Archived {} logs from {} ({} expired and dropped)", counts[0], month, counts[1]);
+    }
+
+    private void deleteFromHotTable(Timestamp start, Timestamp end, long upToId) {
+        Long minId = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM logging WHERE timestamp >= ? AND timestamp < ?", Long.class, start, end);
+        if (minId == null) {
+            return;
+        }
+        for (long from = minId; from <= upToId; from += DELETE_CHUNK) {
+            jdbcTemplate.update("DELETE FROM logging WHERE timestamp >= ? AND timestamp < ? AND id >= ? AND id < ? AND id <= ?",
+                    start, end, from, from + DELETE_CHUNK, upToId);
+        }
+    }
+
+    // Covers the archives of earlier table generations as well, they are no longer read but retention still applies
+    private void deleteExpiredArchives() throws IOException {
+        for (Path generation : list(properties.directory())) {
+            for (YearMonth month : archivedMonths(generation)) {
+                Path monthDir = generation.resolve(month.toString());
+                LocalDate lastDay = month.atEndOfMonth();
+                for (Path batch : list(monthDir)) {
+                    for (Path file : list(batch)) {
+                        if (isExpired(actionOf(file), lastDay)) {
+                            Files.delete(file);
+                            log.info("Deleted expired audit archive {}", file);
+                        }
+                    }
+                    deleteIfEmpty(batch);
+                }
+                deleteIfEmpty(monthDir);
+            }
+            deleteIfEmpty(generation);
+        }
+    }
+
+    private boolean isExpired(String action, LocalDate date) {
+        try {
+            Integer days = properties.retentionDays().get(LogAction.valueOf(action));
+            return days != null && date.isBefore(LocalDate.now().minusDays(days));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Newest first page of archived logs, using the same keyset cursor as the logging table.
+     * Batches are read newest first and skipped by the id range in their folder name when all their rows are at or
+     * above the cursor, and reading stops once the page is full. Memory use is bounded by the page size.
+     * @param filter actor, action and time range filters
+     * @param cursor only rows with a lower id are returned, null for no bound
+     * @param limit max rows to return
+     */
+    public List<Logging> readPage(LogFilter filter, Long cursor, int limit) {
+        List<Logging> page = new ArrayList<>();
+        if (!properties.enabled() || limit <= 0) {
+            return page;
+        }
+
+        List<YearMonth> months = new ArrayList<>(archivedMonths(filter));
+        months.sort(Comparator.reverseOrder());
+
+        for (YearMonth month : months) {
+            List<Path> batches = new ArrayList<>(batches(month));
+            batches.sort(Comparator.comparingLong(AuditArchiveService::firstId).reversed());
+
+            for (Path batch : batches) {
+                if (cursor != null && firstId(batch) >= cursor) {
+                    continue;
+                }
+                int remaining = limit - page.size();
+                Deque<LogRow> newest = new ArrayDeque<>(remaining);
+
+                mergeBatches(month, List.of(batch), filter, row -> {
+                    // Rows come in id order, so everything after this one is at or above the cursor as well
+                    if (cursor != null && row.id() >= cursor) {
+                        return false;
+                    }
+                    newest.addLast(row);
+                    if (newest.size() > remaining) {
+                        newest.removeFirst();
+                    }
+                    return true;
+                });
+
+                while (!newest.isEmpty()) {
+                    page.add(toLogging(newest.removeLast()));
+                }
+                if (page.size() >= limit) {
+                    return page;
+                }
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Streams every archived row matching the filter to the consumer, oldest first.
+     */
+    public void forEach(LogFilter filter, Consumer<LogRow> consumer) {
+        if (!properties.enabled()) {
+            return;
+        }
+        List<YearMonth> months = new ArrayList<>(archivedMonths(filter));
+        months.sort(Comparator.naturalOrder());
+        for (YearMonth month : months) {
+            mergeBatches(month, batches(month), filter, row -> {
+                consumer.accept(row);
+                return true;
+            });
+        }
+    }
+
+    // Every file of a batch is sorted by id, so a k-way merge gives the batches in id order without loading them.
+    // Stops reading when the consumer returns false
+    private void mergeBatches(YearMonth month, List<Path> batches, LogFilter filter, Predicate<LogRow> consumer) {
+        List<BufferedReader> readers = new ArrayList<>();
+        try {
+            PriorityQueue<Cursor> heads = new PriorityQueue<>(Comparator.comparingLong((Cursor c) -> c.row.id()));
+            for (Path batch : batches) {
+                for (Path file : list(batch)) {
+                    if (filter.action() != null && !filter.action().name().equals(actionOf(file))) {
+                        continue;
+                    }
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(
+                            new GZIPInputStream(Files.newInputStream(file), 64 * 1024), StandardCharsets.UTF_8));
+                    readers.add(reader);
+                    Cursor cursor = new Cursor(reader);
+                    if (cursor.advance()) {
+                        heads.add(cursor);
+                    }
+                }
+            }
+
+            while (!heads.isEmpty()) {
+                Cursor head = heads.poll();
+                if (matches(head.row, filter) && !consumer.test(head.row)) {
+                    return;
+                }
+                if (head.advance()) {
+                    heads.add(head);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read audit archive " + month, e);
+        } finally {
+            closeQuietly(readers);
+        }
+    }
+
+    private List<Path> batches(YearMonth month) {
+        try {
+            return list(currentGeneration().resolve(month.toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list audit archive " + month, e);
+        }
+    }
+
+    // Batch folders are named <firstId>-<lastId>
+    private static long firstId(Path batch) {
+        String name = batch.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.indexOf('-')));
+    }
+
+    private static long lastId(Path batch) {
+        String name = batch.getFileName().toString();
+        return Long.parseLong(name.substring(name.indexOf('-') + 1));
+    }
+
+    private boolean matches(LogRow row, LogFilter filter) {
+        if (filter.actor() != null && !filter.actor().isBlank() && !filter.actor().equals(row.actor())) {
+            return false;
+        }
+        if (filter.from() != null && row.timestamp().isBefore(filter.from())) {
+            return false;
+        }
+        return filter.to() == null || row.timestamp().isBefore(filter.to());
+    }
+
+    private List<YearMonth> archivedMonths(LogFilter filter) {
+        YearMonth fromMonth = filter.from() != null ? YearMonth.from(filter.from()) : null;
+        YearMonth toMonth = filter.to() != null ? YearMonth.from(filter.to()) : null;
+        return archivedMonths(currentGeneration()).stream()
+                .filter(month -> fromMonth == null || !month.isBefore(fromMonth))
+                .filter(month -> toMonth == null || !month.isAfter(toMonth))
+                .toList();
+    }
+
+    private List<YearMonth> archivedMonths(Path generation) {
+        List<YearMonth> months = new ArrayList<>();
+        try {
+            for (Path dir : list(generation)) {
+                try {
+                    months.add(YearMonth.parse(dir.getFileName().toString()));
+                } catch (RuntimeException ignored) {
+                    // Not a month folder
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list audit archive", e);
+        }
+        return months;
+    }
+
+    private Path currentGeneration() {
+        return properties.directory().resolve(tableGeneration.current());
+    }
+
+    private long maxArchivedId(Path monthDir) throws IOException {
+        long max = 0;
+        for (Path batch : list(monthDir)) {
+            max = Math.max(max, lastId(batch));
+        }
+        return max;
+    }
+
+    // Lists folder content without the staging folders, an empty list when the folder does not exist
+    private List<Path> list(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> paths = Files.list(dir)) {
+            return paths.filter(path -> !path.getFileName().toString().startsWith(".")).sorted().toList();
+        }
+    }
+
+    private void deleteStaleStaging() throws IOException {
+        for (YearMonth month : archivedMonths(currentGeneration())) {
+            try (Stream<Path> paths = Files.list(currentGeneration().resolve(month.toString()))) {
+                for (Path path : paths.filter(p -> p.getFileName().toString().startsWith(STAGING_PREFIX)).toList()) {
+                    deleteRecursively(path);
+                }
+            }
+        }
+    }
+
+    private String actionOf(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(FILE_SUFFIX) ? name.substring(0, name.length() - FILE_SUFFIX.length()) : name;
+    }
+
+    private Writer openWriter(Path file) {
+        try {
+            return new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(file), 64 * 1024), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private LogRow toRow(ResultSet rs) throws SQLException {
+        Timestamp lastTimestamp = rs.getTimestamp("last_timestamp");
+        int eventCount = rs.getInt("event_count");
+        return new LogRow(
+                rs.getLong("id"),
+                rs.getString("actor"),
+                rs.getString("action"),
+                rs.getString("details"),
+                rs.getTimestamp("timestamp").toLocalDateTime(),
+                rs.wasNull() ? 1 : eventCount,
+                lastTimestamp != null ? lastTimestamp.toLocalDateTime() : null);
+    }
+
+    private Logging toLogging(LogRow row) {
+        Logging logging = new Logging(row.actor(), LogAction.valueOf(row.action()), row.details());
+        logging.setId(row.id());
+        logging.setTimestamp(row.timestamp());
+        logging.setEventCount(row.eventCount() != null ? row.eventCount() : 1);
+        logging.setLastTimestamp(row.lastTimestamp());
+        return logging;
+    }
+
+    private void deleteIfEmpty(Path dir) throws IOException {
+        if (Files.isDirectory(dir)) {
+            try (Stream<Path> paths = Files.list(dir)) {
+                if (paths.findAny().isEmpty()) {
+                    Files.delete(dir);
+                }
+            }
+        }
+    }
+
+    private void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private void closeQuietly(Iterable<? extends Closeable> closeables) {
+        for (Closeable closeable : closeables) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                log.warn("Could not close audit archive file: {}", e.getMessage());
+            }
+        }
+    }
+
+    private class Cursor {
+        private final BufferedReader reader;
+        private LogRow row;
+
+        private Cursor(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        private boolean advance() throws IOException {
+            String line = reader.readLine();
+            if (line == null || line.isBlank()) {
+                return false;
+            }
+            row = objectMapper.readValue(line, LogRow.class);
+            return true;
+        }
+    }
+}
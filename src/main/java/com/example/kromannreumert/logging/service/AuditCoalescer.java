@@ -0,0 +1,131 @@
+package com.example.kromannreumert.logging.service;
+
+import com.example.kromannreumert.logging.entity.LogAction;
+import com.example.kromannreumert.logging.entity.Logging;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Folds repeated read events into one audit row.
+ *
+ * Read-only actions (see {@link LogAction#isReadOnly()}) with the same actor, action and details are counted
+ * in memory for a window, and written as a single row with eventCount and the first and last timestamps.
+ * Write actions are never coalesced, they are passed straight to the AuditLogWriter.
+ *
+ * Coalesced rows show up in the logging table once their window has closed, or when the application shuts down.
+ * If more than max-keys windows are open the event is written as its own row instead, so memory stays bounded.
+ */
+@Component
+public class AuditCoalescer {
+
+    private final AuditLogWriter auditLogWriter;
+    private final boolean enabled;
+    private final long windowMs;
+    private final int maxKeys;
+    private final LongSupplier clockMs;
+
+    private final ConcurrentHashMap<Key, Window> windows = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AuditCoalescer(AuditLogWriter auditLogWriter,
+                          @Value("${audit.coalesce.enabled:true}") boolean enabled,
+                          @Value("${audit.coalesce.window-ms:60000}") long windowMs,
+                          @Value("${audit.coalesce.max-keys:10000}") int maxKeys) {
+        this(auditLogWriter, enabled, windowMs, maxKeys, System::currentTimeMillis);
+    }
+
+    public AuditCoalescer(AuditLogWriter auditLogWriter, boolean enabled, long windowMs, int maxKeys, LongSupplier clockMs) {
+        this.auditLogWriter = auditLogWriter;
+        this.enabled = enabled;
+        this.windowMs = windowMs;
+        this.maxKeys = maxKeys;
+        this.clockMs = clockMs;
+    }
+
+    /**
+     * @param entry a new audit entry
+     * @return true if the entry was taken into a window, false if the caller should write it itself
+     */
+    public boolean accept(Logging entry) {
+        if (!enabled || entry.getAction() == null || !entry.getAction().isReadOnly()) {
+            return false;
+        }
+
+        Key key = new Key(entry.getActor(), entry.getAction(), entry.getDetails());
+        if (windows.size() >= maxKeys && !windows.containsKey(key)) {
+            return false;
+        }
+
+        long now = clockMs.getAsLong();
+        windows.compute(key, (k, window) -> {
+            if (window == null) {
+                return new Window(entry.getTimestamp(), now);
+            }
+            window.count++;
+            window.last = entry.getTimestamp();
+            return window;
+        });
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${audit.coalesce.flush-interval-ms:1000}")
+    public void flushExpired() {
+        flush(false);
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        flush(true);
+    }
+
+    public int getOpenWindows() {
+        return windows.size();
+    }
+
+    private void flush(boolean all) {
+        long now = clockMs.getAsLong();
+        windows.forEach((key, window) -> {
+            if (!all && now - window.openedAt < windowMs) {
+                return;
+            }
+            // Once removed no other thread can update this window, a new event for the key opens a new one
+            if (windows.remove(key, window)) {
+                auditLogWriter.submit(toLogging(key, window));
+            }
+        });
+    }
+
+    private Logging toLogging(Key key, Window window) {
+        Logging entry = new Logging(key.actor(), key.action(), key.details());
+        entry.setTimestamp(window.first);
+        entry.setEventCount(window.count);
+        if (window.count > 1) {
+            entry.setLastTimestamp(window.last);
+        }
+        return entry;
+    }
+
+    private record Key(String actor, LogAction action, String details) {
+    }
+
+    // Only updated inside ConcurrentHashMap.compute, which locks the entry
+    private static final class Window {
+        private final LocalDateTime first;
+        private final long openedAt;
+        private LocalDateTime last;
+        private int count = 1;
+
+        private Window(LocalDateTime first, long openedAt) {
+            this.first = first;
+            this.last = first;
+            this.openedAt = openedAt;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.kromannreumert.logging.service;
+
+import com.example.kromannreumert.logging.entity.Logging;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Hashing used for the tamper-evident audit log.
+ *
+ * Every row stores the hash of the row written before it (prevHash) and its own hash,
+ * SHA-256 over prevHash and the row content. Changing, inserting or removing a row breaks either its own hash
+ * or the link to the next row. Checkpoints store a Merkle root over a block of row hashes.
+ */
+public final class AuditHashChain {
+
+    /**
+     * prevHash of the first chained row, and of a row written after unchained (legacy) rows.
+     */
+    public static final String GENESIS = "0".repeat(64);
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final char SEPARATOR = '\u001f';
+
+    private AuditHashChain() {
+    }
+
+    public static String hash(String prevHash, Logging entry) {
+        return hash(prevHash, entry.getActor(), entry.getAction() != null ? entry.getAction().name() : null,
+                entry.getDetails(), entry.getTimestamp(), entry.getEventCount(), entry.getLastTimestamp());
+    }
+
+    public static String hash(String prevHash, String actor, String action, String details,
+                              LocalDateTime timestamp, Integer eventCount, LocalDateTime lastTimestamp) {
+        String content = prevHash + SEPARATOR + actor + SEPARATOR + action + SEPARATOR + details + SEPARATOR
+                + timestamp + SEPARATOR + (eventCount != null ? eventCount : 1) + SEPARATOR + lastTimestamp;
+        return HEX.formatHex(sha256().digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Merkle root over row hashes in id order. An odd node at the end of a level is carried up unchanged.
+     */
+    public static String merkleRoot(List<String> hashes) {
+        if (hashes.isEmpty()) {
+            return GENESIS;
+        }
+
+        List<byte[]> level = new ArrayList<>(hashes.size());
+        for (String hash : hashes) {
+            level.add(HEX.parseHex(hash));
+        }
+
+        MessageDigest digest = sha256();
+        while (level.size() > 1) {
+            List<byte[]> next = new ArrayList<>((level.size() + 1) / 2);
+            for (int i = 0; i < level.size(); i += 2) {
+                if (i + 1 == level.size()) {
+                    next.add(level.get(i));
+                } else {
+                    digest.update(level.get(i));
+                    digest.update(level.get(i + 1));
+                    next.add(digest.digest());
+                }
+            }
+            level = next;
+        }
+        return HEX.formatHex(level.getFirst());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.kromannreumert.logging.service;
+
+import com.example.kromannreumert.logging.entity.Logging;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind pipeline for audit entries.
+ *
+ * LoggingService hands entries to {@link #submit(Logging)} which only puts them on a bounded queue.
+ * A single background thread drains the queue and writes the entries to the logging table with JDBC batch inserts,
+ * either when a batch is full or when the flush interval has passed since the first entry of the batch.
+ *
+ * When the queue is full the configured backpressure policy decides what happens:
+ * BLOCK waits for space, DROP_READS drops read-only actions (VIEW_*) and writes everything else synchronously,
+ * SYNC writes the entry synchronously on the calling thread.
+ *
+ * Every write links the entries into the hash chain (see {@link AuditHashChain}). Writes are serialized,
+ * so the chain follows id order. This assumes one application instance writes to the logging table.
+ * Each batch is inserted in its own transaction, so a failed attempt stores nothing and is retried as a whole.
+ */
+@Component
+public class AuditLogWriter {
+
+    public enum Backpressure {
+        BLOCK,
+        DROP_READS,
+        SYNC
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO logging (actor, action, details, timestamp, event_count, last_timestamp, prev_hash, hash) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    private final BlockingQueue<Logging> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long shutdownTimeoutMs;
+    private final Backpressure backpressure;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    // Hash of the last written row, loaded from the table on the first write
+    private String chainHead;
+
+    public AuditLogWriter(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${audit.writer.queue-capacity:10000}") int queueCapacity,
+                          @Value("${audit.writer.batch-size:200}") int batchSize,
+                          @Value("${audit.writer.flush-interval-ms:500}") long flushIntervalMs,
+                          @Value("${audit.writer.shutdown-timeout-ms:10000}") long shutdownTimeoutMs,
+                          @Value("${audit.writer.backpressure:DROP_READS}") Backpressure backpressure) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Separate from a caller's transaction, a synchronous write must not be rolled back with the caller's changes
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.backpressure = backpressure;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::drainLoop, "audit-log-writer");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Audit writer started (batchSize={}, flushIntervalMs={}, backpressure={})", batchSize, flushIntervalMs, backpressure);
+    }
+
+    /**
+     * Queues an entry for the background writer. Falls back to a synchronous write when the writer is stopped.
+     * @param entry the audit entry, its timestamp is kept from when it was created
+     */
+    public void submit(Logging entry) {
+        if (!running) {
+            writeBatch(List.of(entry));
+            return;
+        }
+
+        if (queue.offer(entry)) {
+            // The writer may have stopped between the check above and the offer
+            if (!running) {
+                drainRemaining();
+            }
+            return;
+        }
+
+        switch (backpressure) {
+            case BLOCK -> {
+                try {
+                    queue.put(entry);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    writeBatch(List.of(entry));
+                }
+            }
+            case DROP_READS -> {
+                if (entry.getAction() != null && entry.getAction().isReadOnly()) {
+                    dropped.incrementAndGet();
+                } else {
+                    writeBatch(List.of(entry));
+                }
+            }
+            case SYNC -> writeBatch(List.of(entry));
+        }
+    }
+
+    /**
+     * Stops accepting queued entries and waits for the worker to drain the queue, so no entries are lost on deploy.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (worker != null) {
+            // Wakes the worker up if it is waiting for more entries, it writes its batch and drains the queue
+            worker.interrupt();
+            try {
+                worker.join(shutdownTimeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Whatever the worker did not manage to write in time is written here
+        drainRemaining();
+        log.info("Audit writer stopped (written={}, dropped={}, failed={})", written.get(), dropped.get(), failed.get());
+    }
+
+    private synchronized void drainRemaining() {
+        List<Logging> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        writeBatch(remaining);
+    }
+
+    private void drainLoop() {
+        List<Logging> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                Logging first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    Logging next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                // Treat an interrupt as a shutdown signal, the loop still drains what is left in the queue
+                running = false;
+                writeBatch(batch);
+            } catch (RuntimeException e) {
+                log.error("Audit writer failed to process a batch", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes the entries on the calling thread, for callers that keep their own copy until the write succeeded.
+     * @return false if the entries could not be written, nothing is logged or counted as failed then
+     */
+    public synchronized boolean writeNow(List<Logging> entries) {
+        return entries.isEmpty() || tryWrite(entries);
+    }
+
+    private synchronized void writeBatch(List<Logging> batch) {
+        if (batch.isEmpty() || tryWrite(batch)) {
+            return;
+        }
+
+        // Last resort so the entries are not lost silently
+        failed.addAndGet(batch.size());
+        batch.forEach(entry -> log.error("Audit entry could not be persisted: {}", entry));
+    }
+
+    private boolean tryWrite(List<Logging> batch) {
+        for (int attempt = 1; attempt <= MAX_WRITE_ATTEMPTS; attempt++) {
+            try {
+                String head = newTransaction.execute(status -> {
+                    String last = link(batch);
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, entry) -> {
+                        ps.setString(1, entry.getActor());
+                        ps.setString(2, entry.getAction() != null ? entry.getAction().name() : null);
+                        ps.setString(3, entry.getDetails());
+                        ps.setTimestamp(4, Timestamp.valueOf(entry.getTimestamp()));
+                        ps.setInt(5, entry.getEventCount());
+                        ps.setTimestamp(6, entry.getLastTimestamp() != null ? Timestamp.valueOf(entry.getLastTimestamp()) : null);
+                        ps.setString(7, entry.getPrevHash());
+                        ps.setString(8, entry.getHash());
+                    });
+                    return last;
+                });
+                // Only move the head once the rows are committed, a failed batch was rolled back and is linked again on retry
+                chainHead = head;
+                written.addAndGet(batch.size());
+                return true;
+            } catch (RuntimeException e) {
+                log.warn("Audit writer could not write {} entries (attempt {}/{}): {}", batch.size(), attempt, MAX_WRITE_ATTEMPTS, e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets prevHash and hash on the entries, starting from the current chain head.
+     * Timestamps are cut to microseconds first, so the hash matches what the database gives back.
+     * @return the hash of the last entry
+     */
+    private String link(List<Logging> batch) {
+        if (chainHead == null) {
+            List<String> last = jdbcTemplate.queryForList("SELECT hash FROM logging ORDER BY id DESC LIMIT 1", String.class);
+            chainHead = last.isEmpty() || last.getFirst() == null ? AuditHashChain.GENESIS : last.getFirst();
+        }
+
+        String prev = chainHead;
+        for (Logging entry : batch) {
+            entry.setTimestamp(entry.getTimestamp().truncatedTo(ChronoUnit.MICROS));
+            if (entry.getLastTimestamp() != null) {
+                entry.setLastTimestamp(entry.getLastTimestamp().truncatedTo(ChronoUnit.MICROS));
+            }
+            if (entry.getEventCount() == null) {
+                entry.setEventCount(1);
+            }
+            entry.setPrevHash(prev);
+            entry.setHash(AuditHashChain.hash(prev, entry));
+            prev = entry.getHash();
+        }
+        return prev;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+}
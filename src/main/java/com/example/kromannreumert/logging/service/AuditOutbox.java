@@ -0,0 +1,107 @@
+package com.example.kromannreumert.logging.service;
+
+import com.example.kromannreumert.logging.entity.LogAction;
+import com.example.kromannreumert.logging.entity.Logging;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transactional outbox for audit entries that record a change.
+ *
+ * When LoggingService.log is called inside a transaction, successful write actions are inserted into audit_outbox
+ * on the same connection, so the entry commits or rolls back together with the change. The insert only touches
+ * the outbox table, no locks are taken on the business rows beyond what the transaction already holds.
+ * The relay moves committed outbox rows to the logging table in batches and deletes them once they are written,
+ * so an entry is never lost, but it can be written twice if the application stops between the two steps.
+ *
+ * Reads and failures are not put in the outbox, a failure is usually followed by a rollback that would remove it.
+ */
+@Component
+public class AuditOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditOutbox.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO audit_outbox (actor, action, details, timestamp) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditLogWriter auditLogWriter;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public AuditOutbox(JdbcTemplate jdbcTemplate,
+                       AuditLogWriter auditLogWriter,
+                       @Value("${audit.outbox.enabled:true}") boolean enabled,
+                       @Value("${audit.outbox.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.auditLogWriter = auditLogWriter;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param entry a new audit entry
+     * @return true if the entry was written to the outbox in the current transaction
+     */
+    public boolean offer(Logging entry) {
+        LogAction action = entry.getAction();
+        if (!enabled || action == null || action.isReadOnly() || action.isFailure()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return false;
+        }
+
+        jdbcTemplate.update(INSERT_SQL, entry.getActor(), action.name(), entry.getDetails(), Timestamp.valueOf(entry.getTimestamp()));
+        return true;
+    }
+
+    /**
+     * Moves committed outbox rows to the logging table, oldest first, until the outbox is empty.
+     */
+    @Scheduled(fixedDelayString = "${audit.outbox.relay-interval-ms:200}")
+    public synchronized void relay() {
+        if (!enabled) {
+            return;
+        }
+
+        while (true) {
+            List<Long> ids = new ArrayList<>(batchSize);
+            List<Logging> entries = new ArrayList<>(batchSize);
+            jdbcTemplate.query("SELECT id, actor, action, details, timestamp FROM audit_outbox ORDER BY id LIMIT ?", rs -> {
+                ids.add(rs.getLong("id"));
+                Logging entry = new Logging(rs.getString("actor"), LogAction.valueOf(rs.getString("action")), rs.getString("details"));
+                entry.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
+                entries.add(entry);
+            }, batchSize);
+
+            if (entries.isEmpty()) {
+                return;
+            }
+            if (!auditLogWriter.writeNow(entries)) {
+                log.warn("Audit outbox relay could not write {} entries, retrying on the next run", entries.size());
+                return;
+            }
+
+            // Delete the relayed ids only, a transaction holding a lower id may still commit after this read
+            jdbcTemplate.batchUpdate("DELETE FROM audit_outbox WHERE id = ?", ids, ids.size(),
+                    (ps, id) -> ps.setLong(1, id));
+
+            if (entries.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    public long getPending() {
+        Long pending = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_outbox", Long.class);
+        return pending != null ? pending : 0;
+    }
+}
@@ -0,0 +1,350 @@
+package com.example.kromannreumert.logging.service;
+
+import com.example.kromannreumert.logging.config.AuditArchiveProperties;
+import com.example.kromannreumert.logging.dto.AuditEvent;
+import com.example.kromannreumert.logging.dto.LogFilter;
+import com.example.kromannreumert.logging.dto.LogPageDTO;
+import com.example.kromannreumert.logging.entity.LogAction;
+import com.example.kromannreumert.logging.entity.Logging;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Embedded full-text index over the audit log, kept in a local Lucene index next to the application.
+ *
+ * Every row is indexed with its actor, action and details in one analyzed text field, plus exact fields for the
+ * filters. The index is sorted by id descending, so a page of the newest matches stops reading as soon as it is full.
+ * New rows are picked up from the logging table by id every refresh interval and become searchable after the refresh,
+ * the id of the last indexed row is stored in the index commit so a restart continues where it stopped.
+ * The commit also stores the table generation (see AuditTableGeneration), an index built from an earlier logging table
+ * whose ids begin again at 1 is emptied and rebuilt on open instead of skipping the new rows and serving the old ones.
+ *
+ * Rows stay searchable after they are moved to the archive, they are only removed by the retention policy.
+ */
+@Component
+public class AuditSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditSearchIndex.class);
+
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final String LAST_ID = "lastId";
+    private static final String GENERATION = "generation";
+
+    private static final String ID = "id";
+    private static final String ACTOR = "actor";
+    private static final String ACTION = "action";
+    private static final String DETAILS = "details";
+    private static final String TEXT = "text";
+    private static final String TIMESTAMP = "timestamp";
+    private static final String TIMESTAMP_MS = "timestamp_ms";
+    private static final String EVENT_COUNT = "event_count";
+    private static final String LAST_TIMESTAMP = "last_timestamp";
+
+    private static final Sort NEWEST_FIRST = new Sort(new SortField(ID, SortField.Type.LONG, true));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LoggingService loggingService;
+    private final AuditArchiveProperties archiveProperties;
+    private final AuditTableGeneration tableGeneration;
+    private final Path directory;
+    private final boolean inMemory;
+    private final int batchSize;
+    private final long commitIntervalMs;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private Directory indexDirectory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+
+    private volatile long lastIndexedId;
+    private String generation;
+    private long lastCommit;
+
+    public AuditSearchIndex(JdbcTemplate jdbcTemplate,
+                            LoggingService loggingService,
+                            AuditArchiveProperties archiveProperties,
+                            AuditTableGeneration tableGeneration,
+                            @Value("${audit.search.directory:audit-index}") Path directory,
+                            @Value("${audit.search.in-memory:false}") boolean inMemory,
+                            @Value("${audit.search.batch-size:5000}") int batchSize,
+                            @Value("${audit.search.commit-interval-ms:30000}") long commitIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.loggingService = loggingService;
+        this.archiveProperties = archiveProperties;
+        this.tableGeneration = tableGeneration;
+        this.directory = directory;
+        this.inMemory = inMemory;
+        this.batchSize = batchSize;
+        this.commitIntervalMs = commitIntervalMs;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        indexDirectory = inMemory ? new ByteBuffersDirectory() : FSDirectory.open(directory);
+
+        IndexWriterConfig config = new IndexWriterConfig(analyzer);
+        config.setIndexSort(NEWEST_FIRST);
+        writer = new IndexWriter(indexDirectory, config);
+
+        String indexedGeneration = null;
+        Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+        if (commitData != null) {
+            for (Map.Entry<String, String> entry : commitData) {
+                if (LAST_ID.equals(entry.getKey())) {
+                    lastIndexedId = Long.parseLong(entry.getValue());
+                } else if (GENERATION.equals(entry.getKey())) {
+                    indexedGeneration = entry.getValue();
+                }
+            }
+        }
+
+        generation = tableGeneration.current();
+        if (!generation.equals(indexedGeneration) && (lastIndexedId > 0 || writer.getDocStats().numDocs > 0)) {
+            log.info("Audit search index was built from logging table generation {}, rebuilding it for {}", indexedGeneration, generation);
+            writer.deleteAll();
+            lastIndexedId = 0;
+        }
+        commit();
+        searcherManager = new SearcherManager(writer, null);
+        log.info("Audit search index opened at {} (last indexed id {})", inMemory ? "memory" : directory.toAbsolutePath(), lastIndexedId);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        commit();
+        searcherManager.close();
+        writer.close();
+        indexDirectory.close();
+    }
+
+    /**
+     * Indexes the rows written since the last run and makes them searchable.
+     */
+    @Scheduled(fixedDelayString = "${audit.search.refresh-interval-ms:1000}")
+    public synchronized void update() {
+        try {
+            int indexed;
+            do {
+                indexed = indexBatch();
+            } while (indexed == batchSize);
+
+            searcherManager.maybeRefresh();
+            if (System.currentTimeMillis() - lastCommit >= commitIntervalMs) {
+                commit();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not update the audit search index", e);
+        }
+    }
+
+    /**
+     * Removes entries whose retention has passed, using the same retention-days as the archive.
+     */
+    @Scheduled(cron = "${audit.archive.cron:0 30 2 * * *}")
+    public synchronized void applyRetention() throws IOException {
+        for (Map.Entry<LogAction, Integer> retention : archiveProperties.retentionDays().entrySet()) {
+            long cutoff = toMillis(LocalDate.now().minusDays(retention.getValue()).atStartOfDay());
+            writer.deleteDocuments(new BooleanQuery.Builder()
+                    .add(new TermQuery(new Term(ACTION, retention.getKey().name())), BooleanClause.Occur.FILTER)
+                    .add(LongPoint.newRangeQuery(TIMESTAMP_MS, Long.MIN_VALUE, cutoff - 1), BooleanClause.Occur.FILTER)
+                    .build());
+        }
+        commit();
+        searcherManager.maybeRefresh();
+    }
+
+    /**
+     * Full-text search, newest first, with keyset pagination like LoggingService.getLogs.
+     * @param query words that must all appear in actor, action or details. Supports "quoted phrases", prefix* and -exclusion
+     * @param filter optional exact actor, action and time range filters
+     * @param cursor the nextCursor from the previous page, or null for the first page
+     * @param limit page size, capped at 500
+     * @param name the user searching
+     */
+    public LogPageDTO search(String query, LogFilter filter, Long cursor, int limit, String name) {
+        try {
+            int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            Query luceneQuery = buildQuery(query, filter, cursor);
+
+            List<Logging> logs = new ArrayList<>(pageSize);
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs top = searcher.search(luceneQuery, pageSize, NEWEST_FIRST);
+                StoredFields storedFields = searcher.storedFields();
+                for (ScoreDoc hit : top.scoreDocs) {
+                    logs.add(toLogging(storedFields.document(hit.doc)));
+                }
+            } finally {
+                searcherManager.release(searcher);
+            }
+
+            Long nextCursor = logs.size() == pageSize ? logs.getLast().getId() : null;
+
+            loggingService.log(LogAction.SEARCH_LOGS, name, AuditEvent.of("log.search")
+                    .field("query", query)
+                    .field("hits", logs.size()));
+
+            return new LogPageDTO(logs, nextCursor);
+
+        } catch (IOException | RuntimeException e) {
+
+            loggingService.log(LogAction.SEARCH_LOGS_FAILED, name, "Failed to search logs");
+
+            throw new RuntimeException("could not search logs", e);
+        }
+    }
+
+    public long getLastIndexedId() {
+        return lastIndexedId;
+    }
+
+    private int indexBatch() throws IOException {
+        List<Document> documents = new ArrayList<>(batchSize);
+        long[] lastId = {lastIndexedId};
+        jdbcTemplate.query("SELECT id, actor, action, details, timestamp, event_count, last_timestamp FROM logging WHERE id > ? ORDER BY id LIMIT ?",
+                rs -> {
+                    Timestamp lastTimestamp = rs.getTimestamp("last_timestamp");
+                    int eventCount = rs.getInt("event_count");
+                    if (rs.wasNull()) {
+                        eventCount = 1;
+                    }
+                    documents.add(toDocument(
+                            rs.getLong("id"),
+                            rs.getString("actor"),
+                            rs.getString("action"),
+                            rs.getString("details"),
+                            rs.getTimestamp("timestamp").toLocalDateTime(),
+                            eventCount,
+                            lastTimestamp != null ? lastTimestamp.toLocalDateTime() : null));
+                    lastId[0] = rs.getLong("id");
+                }, lastIndexedId, batchSize);
+
+        if (!documents.isEmpty()) {
+            writer.addDocuments(documents);
+            lastIndexedId = lastId[0];
+        }
+        return documents.size();
+    }
+
+    private void commit() throws IOException {
+        writer.setLiveCommitData(Map.of(LAST_ID, Long.toString(lastIndexedId), GENERATION, generation).entrySet());
+        writer.commit();
+        lastCommit = System.currentTimeMillis();
+    }
+
+    private Query buildQuery(String query, LogFilter filter, Long cursor) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+
+        if (query == null || query.isBlank()) {
+            builder.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        } else {
+            SimpleQueryParser parser = new SimpleQueryParser(analyzer, TEXT);
+            parser.setDefaultOperator(BooleanClause.Occur.MUST);
+            builder.add(parser.parse(query), BooleanClause.Occur.MUST);
+        }
+
+        if (filter != null) {
+            if (filter.actor() != null) {
+                builder.add(new TermQuery(new Term(ACTOR, filter.actor())), BooleanClause.Occur.FILTER);
+            }
+            if (filter.action() != null) {
+                builder.add(new TermQuery(new Term(ACTION, filter.action().name())), BooleanClause.Occur.FILTER);
+            }
+            if (filter.from() != null || filter.to() != null) {
+                long from = filter.from() != null ? toMillis(filter.from()) : Long.MIN_VALUE;
+                long to = filter.to() != null ? toMillis(filter.to()) - 1 : Long.MAX_VALUE;
+                builder.add(LongPoint.newRangeQuery(TIMESTAMP_MS, from, to), BooleanClause.Occur.FILTER);
+            }
+        }
+        if (cursor != null) {
+            builder.add(LongPoint.newRangeQuery(ID, Long.MIN_VALUE, cursor - 1), BooleanClause.Occur.FILTER);
+        }
+        return builder.build();
+    }
+
+    private Document toDocument(long id, String actor, String action, String details,
+                                LocalDateTime timestamp, int eventCount, LocalDateTime lastTimestamp) {
+        Document document = new Document();
+        document.add(new LongPoint(ID, id));
+        document.add(new NumericDocValuesField(ID, id));
+        document.add(new StoredField(ID, id));
+        if (actor != null) {
+            document.add(new StringField(ACTOR, actor, Field.Store.YES));
+        }
+        if (action != null) {
+            document.add(new StringField(ACTION, action, Field.Store.YES));
+        }
+        if (details != null) {
+            document.add(new StoredField(DETAILS, details));
+        }
+        document.add(new TextField(TEXT, actor + " " + action + " " + (details != null ? details : ""), Field.Store.NO));
+        document.add(new LongPoint(TIMESTAMP_MS, toMillis(timestamp)));
+        document.add(new StoredField(TIMESTAMP, timestamp.toString()));
+        document.add(new StoredField(EVENT_COUNT, eventCount));
+        if (lastTimestamp != null) {
+            document.add(new StoredField(LAST_TIMESTAMP, lastTimestamp.toString()));
+        }
+        return document;
+    }
+
+    private Logging toLogging(Document document) {
+        String action = document.get(ACTION);
+        Logging logging = new Logging(document.get(ACTOR), action != null ? LogAction.valueOf(action) : null, document.get(DETAILS));
+        logging.setId(document.getField(ID).numericValue().longValue());
+        logging.setTimestamp(LocalDateTime.parse(document.get(TIMESTAMP)));
+        logging.setEventCount(document.getField(EVENT_COUNT).numericValue().intValue());
+        String lastTimestamp = document.get(LAST_TIMESTAMP);
+        logging.setLastTimestamp(lastTimestamp != null ? LocalDateTime.parse(lastTimestamp) : null);
+        return logging;
+    }
+
+    // Timestamps are local date-times, they are compared as if they were UTC so no time zone is involved
+    private static long toMillis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.kromannreumert.logging.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Names the current lifetime of the logging table.
+ *
+ * Logging ids are only unique within one table, with ddl-auto=create-drop the table is recreated on every start and
+ * the ids begin at 1 again. The search index and the archive are kept outside the database and outlive the table, so
+ * they record the generation they were built from and do not mix in ids from an earlier table.
+ *
+ * The generation is a random id stored in audit_generation the first time the application meets the database, that
+ * table is dropped and created together with logging, so a recreated schema gets a new generation.
+ */
+@Component
+public class AuditTableGeneration {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditTableGeneration.class);
+
+    private static final long ROW_ID = 1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile String current;
+
+    public AuditTableGeneration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return the generation of the logging table, created on the first call against a new schema
+     */
+    public String current() {
+        String generation = current;
+        if (generation == null) {
+            synchronized (this) {
+                if (current == null) {
+                    current = load();
+                }
+                generation = current;
+            }
+        }
+        return generation;
+    }
+
+    private String load() {
+        List<String> stored = find();
+        if (!stored.isEmpty()) {
+            return stored.getFirst();
+        }
+        String generation = UUID.randomUUID().toString();
+        try {
+            jdbcTemplate.update("INSERT INTO audit_generation (id, generation, created_at) VALUES (?, ?, ?)",
+                    ROW_ID, generation, Timestamp.valueOf(LocalDateTime.now()));
+            log.info("Started audit table generation {}", generation);
+            return generation;
+        } catch (DuplicateKeyException e) {
+            // Another instance started against the same schema first
+            return find().getFirst();
+        }
+    }
+
+    private List<String> find() {
+        return jdbcTemplate.queryForList("SELECT generation FROM audit_generation WHERE id = ?", String.class, ROW_ID);
+    }
+}
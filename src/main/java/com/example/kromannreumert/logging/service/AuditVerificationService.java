@@ -0,0 +1,311 @@
+package com.example.kromannreumert.logging.service;
+
+import com.example.kromannreumert.logging.dto.AuditEvent;
+import com.example.kromannreumert.logging.dto.AuditVerificationDTO;
+import com.example.kromannreumert.logging.dto.AuditVerificationStatusDTO;
+import com.example.kromannreumert.logging.entity.AuditCheckpoint;
+import com.example.kromannreumert.logging.entity.LogAction;
+import com.example.kromannreumert.logging.repository.AuditCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies the hash chain of the logging table (see {@link AuditHashChain}).
+ *
+ * A range is verified by reading only the rows in it plus the row just before it, so the cost follows the size
+ * of the range and not of the table. Checkpoints overlapping the range are checked against a Merkle root computed
+ * from the stored row hashes, which catches a chain that was rewritten from some row onwards.
+ * Checkpoint roots are also written to the application log, so they can be compared with a copy kept outside the database.
+ *
+ * In the background, new blocks are checkpointed and new rows are verified from where the last run stopped.
+ * Blocks that have been partly moved to the archive are skipped, the archive files do not carry hashes.
+ */
+@Service
+public class AuditVerificationService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditVerificationService.class);
+
+    private static final int MAX_REPORTED_IDS = 100;
+
+    private static final String ROWS_SQL =
+            "SELECT id, actor, action, details, timestamp, event_count, last_timestamp, prev_hash, hash " +
+            "FROM logging WHERE id >= ? AND id <= ? ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditCheckpointRepository checkpointRepository;
+    private final LoggingService loggingService;
+    private final int checkpointSize;
+    private final int verifyChunkSize;
+
+    // Background verification progress, only changed inside verifyIncrementally
+    private volatile long lastVerifiedId;
+    private volatile long rowsVerified;
+    private volatile long invalidRows;
+    private volatile long brokenLinks;
+    private volatile double rowsPerSecond;
+    private volatile LocalDateTime lastRun;
+    private final Chain backgroundChain = new Chain();
+
+    public AuditVerificationService(JdbcTemplate jdbcTemplate,
+                                    AuditCheckpointRepository checkpointRepository,
+                                    LoggingService loggingService,
+                                    @Value("${audit.chain.checkpoint-size:1000}") int checkpointSize,
+                                    @Value("${audit.chain.verify-chunk-size:10000}") int verifyChunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.checkpointRepository = checkpointRepository;
+        this.loggingService = loggingService;
+        this.checkpointSize = checkpointSize;
+        this.verifyChunkSize = verifyChunkSize;
+    }
+
+    /**
+     * Verifies every row with a timestamp in [from, to), and the checkpoints covering them.
+     * @param from inclusive, or null for the first row
+     * @param to exclusive, or null for the last row
+     * @param name the user asking for the verification
+     */
+    public AuditVerificationDTO verify(LocalDateTime from, LocalDateTime to, String name) {
+        try {
+            long start = System.nanoTime();
+
+            Chain chain = new Chain();
+            List<Long> checkpointMismatches = new ArrayList<>();
+            int checkpointsChecked = 0;
+
+            long[] range = idRange(from, to);
+            if (range != null) {
+                scan(range[0], range[1], chain);
+
+                Long minId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM logging", Long.class);
+                for (AuditCheckpoint checkpoint : checkpointRepository
+                        .findAllByLastLogIdGreaterThanEqualAndFirstLogIdLessThanEqualOrderByFirstLogId(range[0], range[1])) {
+                    if (minId == null || checkpoint.getFirstLogId() < minId) {
+                        continue;
+                    }
+                    checkpointsChecked++;
+                    if (!checkpointMatches(checkpoint)) {
+                        checkpointMismatches.add(checkpoint.getId());
+                    }
+                }
+            }
+
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            boolean valid = chain.invalidCount == 0 && chain.brokenCount == 0 && checkpointMismatches.isEmpty();
+
+            loggingService.log(LogAction.VERIFY_LOGS, name, AuditEvent.of("log.verify")
+                    .field("firstId", chain.firstId)
+                    .field("lastId", chain.lastId)
+                    .field("rows", chain.rows)
+                    .field("valid", valid));
+
+            return new AuditVerificationDTO(chain.firstId, chain.lastId, chain.rows, chain.unchained,
+                    chain.invalidIds, chain.brokenIds, checkpointsChecked, checkpointMismatches, valid,
+                    millis, ratePerSecond(chain.rows, millis));
+
+        } catch (RuntimeException e) {
+
+            loggingService.log(LogAction.VERIFY_LOGS_FAILED, name, "Failed to verify logs");
+
+            throw new RuntimeException("could not verify logs", e);
+        }
+    }
+
+    public AuditVerificationStatusDTO getStatus() {
+        return new AuditVerificationStatusDTO(lastVerifiedId, rowsVerified, invalidRows, brokenLinks,
+                checkpointRepository.count(), rowsPerSecond, lastRun);
+    }
+
+    /**
+     * Stores a checkpoint for every full block of chained rows after the last checkpoint.
+     */
+    @Scheduled(fixedDelayString = "${audit.chain.checkpoint-interval-ms:60000}")
+    public synchronized void createCheckpoints() {
+        long after = checkpointRepository.findTopByOrderByLastLogIdDesc()
+                .map(AuditCheckpoint::getLastLogId)
+                .orElse(0L);
+
+        while (true) {
+            List<Long> ids = new ArrayList<>(checkpointSize);
+            List<String> hashes = new ArrayList<>(checkpointSize);
+            jdbcTemplate.query("SELECT id, hash FROM logging WHERE id > ? AND hash IS NOT NULL ORDER BY id LIMIT ?",
+                    (RowCallbackHandler) rs -> {
+                        ids.add(rs.getLong("id"));
+                        hashes.add(rs.getString("hash"));
+                    }, after, checkpointSize);
+
+            if (ids.size() < checkpointSize) {
+                return;
+            }
+
+            AuditCheckpoint checkpoint = checkpointRepository.save(new AuditCheckpoint(
+                    ids.getFirst(), ids.getLast(), ids.size(), AuditHashChain.merkleRoot(hashes), hashes.getLast()));
+            log.info("Audit checkpoint {} for logs {}-{}: root {}",
+                    checkpoint.getId(), checkpoint.getFirstLogId(), checkpoint.getLastLogId(), checkpoint.getMerkleRoot());
+
+            after = ids.getLast();
+        }
+    }
+
+    /**
+     * Verifies the rows written since the last run, in chunks so the reads stay short.
+     */
+    @Scheduled(initialDelayString = "${audit.chain.verify-interval-ms:300000}", fixedDelayString = "${audit.chain.verify-interval-ms:300000}")
+    public synchronized void verifyIncrementally() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM logging", Long.class);
+        lastRun = LocalDateTime.now();
+        if (maxId == null || maxId <= lastVerifiedId) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Chain chain = backgroundChain;
+        long rowsBefore = chain.rows;
+        long invalidBefore = chain.invalidCount;
+        long brokenBefore = chain.brokenCount;
+
+        for (long from = lastVerifiedId + 1; from <= maxId; from += verifyChunkSize) {
+            scan(from, Math.min(maxId, from + verifyChunkSize - 1), chain);
+        }
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long rows = chain.rows - rowsBefore;
+        lastVerifiedId = maxId;
+        rowsVerified = chain.rows;
+        invalidRows = chain.invalidCount;
+        brokenLinks = chain.brokenCount;
+        rowsPerSecond = ratePerSecond(rows, millis);
+
+        if (chain.invalidCount > invalidBefore || chain.brokenCount > brokenBefore) {
+            log.error("Audit log verification failed up to id {}: invalid rows {}, broken links {}",
+                    maxId, chain.invalidIds, chain.brokenIds);
+        }
+        log.info("Verified {} audit rows up to id {} in {} ms ({} rows/s)", rows, maxId, millis, Math.round(rowsPerSecond));
+    }
+
+    private long[] idRange(LocalDateTime from, LocalDateTime to) {
+        StringBuilder sql = new StringBuilder("SELECT MIN(id), MAX(id) FROM logging WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (from != null) {
+            sql.append(" AND timestamp >= ?");
+            params.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND timestamp < ?");
+            params.add(Timestamp.valueOf(to));
+        }
+
+        return jdbcTemplate.queryForObject(sql.toString(), (rs, rowNum) -> {
+            Long min = rs.getObject(1, Long.class);
+            Long max = rs.getObject(2, Long.class);
+            return min == null ? null : new long[]{min, max};
+        }, params.toArray());
+    }
+
+    private void scan(long fromId, long toId, Chain chain) {
+        if (!chain.started) {
+            // The row before the range anchors the first link, without one the first row is taken as is
+            List<String> before = jdbcTemplate.queryForList(
+                    "SELECT hash FROM logging WHERE id < ? ORDER BY id DESC LIMIT 1", String.class, fromId);
+            chain.started = true;
+            chain.anchored = !before.isEmpty();
+            chain.prevHash = before.isEmpty() ? null : before.getFirst();
+        }
+        jdbcTemplate.query(ROWS_SQL, (RowCallbackHandler) chain::check, fromId, toId);
+    }
+
+    private boolean checkpointMatches(AuditCheckpoint checkpoint) {
+        List<String> hashes = jdbcTemplate.queryForList(
+                "SELECT hash FROM logging WHERE id >= ? AND id <= ? AND hash IS NOT NULL ORDER BY id",
+                String.class, checkpoint.getFirstLogId(), checkpoint.getLastLogId());
+        return hashes.size() == checkpoint.getRowCount()
+                && AuditHashChain.merkleRoot(hashes).equals(checkpoint.getMerkleRoot());
+    }
+
+    private static double ratePerSecond(long rows, long millis) {
+        return millis > 0 ? rows * 1000.0 / millis : rows;
+    }
+
+    /**
+     * Running state while walking rows in id order.
+     */
+    private static final class Chain {
+        private boolean started;
+        // False when the first row has nothing before it, its prevHash can then not be checked
+        private boolean anchored;
+        private String prevHash;
+
+        private Long firstId;
+        private Long lastId;
+        private long rows;
+        private long unchained;
+        private long invalidCount;
+        private long brokenCount;
+        private final List<Long> invalidIds = new ArrayList<>();
+        private final List<Long> brokenIds = new ArrayList<>();
+
+        private void check(ResultSet rs) throws SQLException {
+            long id = rs.getLong("id");
+            String hash = rs.getString("hash");
+            String storedPrevHash = rs.getString("prev_hash");
+
+            if (firstId == null) {
+                firstId = id;
+            }
+            lastId = id;
+            rows++;
+
+            if (hash == null) {
+                // Written before the chain existed, the next chained row starts again from GENESIS
+                unchained++;
+                anchored = true;
+                prevHash = null;
+                return;
+            }
+
+            String expectedPrevHash = prevHash != null ? prevHash : AuditHashChain.GENESIS;
+            if (anchored && !expectedPrevHash.equals(storedPrevHash)) {
+                brokenCount++;
+                report(brokenIds, id);
+            }
+
+            int eventCount = rs.getInt("event_count");
+            if (rs.wasNull()) {
+                eventCount = 1;
+            }
+            Timestamp lastTimestamp = rs.getTimestamp("last_timestamp");
+            String actual = AuditHashChain.hash(storedPrevHash,
+                    rs.getString("actor"),
+                    rs.getString("action"),
+                    rs.getString("details"),
+                    rs.getTimestamp("timestamp").toLocalDateTime(),
+                    eventCount,
+                    lastTimestamp != null ? lastTimestamp.toLocalDateTime() : null);
+            if (!actual.equals(hash)) {
+                invalidCount++;
+                report(invalidIds, id);
+            }
+
+            anchored = true;
+            prevHash = hash;
+        }
+
+        private static void report(List<Long> ids, long id) {
+            if (ids.size() < MAX_REPORTED_IDS) {
+                ids.add(id);
+            }
+        }
+    }
+}
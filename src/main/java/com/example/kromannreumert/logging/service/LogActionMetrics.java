@@ -0,0 +1,112 @@
+package com.example.kromannreumert.logging.service;
+
+import com.example.kromannreumert.logging.dto.LogActionRateDTO;
+import com.example.kromannreumert.logging.entity.LogAction;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory counters for every LogAction, updated by LoggingService.log.
+ *
+ * Each action has a total and a ring of one-second buckets covering the last five minutes.
+ * Counting uses LongAdder, which stripes contended updates across cells, and a bucket is only replaced
+ * with a compare-and-set when its second has passed, so recording an event never takes a lock.
+ * The numbers are per application instance and start from zero on restart.
+ */
+@Component
+public class LogActionMetrics {
+
+    private static final int WINDOW_SECONDS = 300;
+
+    private final LongSupplier epochSeconds;
+    private final ActionCounter[] counters;
+
+    public LogActionMetrics() {
+        this(() -> System.currentTimeMillis() / 1000);
+    }
+
+    public LogActionMetrics(LongSupplier epochSeconds) {
+        this.epochSeconds = epochSeconds;
+        this.counters = new ActionCounter[LogAction.values().length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new ActionCounter();
+        }
+    }
+
+    public void record(LogAction action) {
+        if (action != null) {
+            counters[action.ordinal()].increment(epochSeconds.getAsLong());
+        }
+    }
+
+    /**
+     * @return rates for every action that has been recorded since startup
+     */
+    public List<LogActionRateDTO> getRates() {
+        long now = epochSeconds.getAsLong();
+        List<LogActionRateDTO> rates = new ArrayList<>();
+        for (LogAction action : LogAction.values()) {
+            ActionCounter counter = counters[action.ordinal()];
+            long total = counter.total.sum();
+            if (total > 0) {
+                rates.add(toRate(action, counter, total, now));
+            }
+        }
+        return rates;
+    }
+
+    public LogActionRateDTO getRate(LogAction action) {
+        ActionCounter counter = counters[action.ordinal()];
+        return toRate(action, counter, counter.total.sum(), epochSeconds.getAsLong());
+    }
+
+    private LogActionRateDTO toRate(LogAction action, ActionCounter counter, long total, long now) {
+        long lastMinute = counter.sumSince(now, 60);
+        long lastFiveMinutes = counter.sumSince(now, WINDOW_SECONDS);
+        return new LogActionRateDTO(action, total, lastMinute, lastFiveMinutes, lastFiveMinutes / 5.0);
+    }
+
+    private static final class Bucket {
+        private final long second;
+        private final LongAdder count = new LongAdder();
+
+        private Bucket(long second) {
+            this.second = second;
+        }
+    }
+
+    private static final class ActionCounter {
+        private final LongAdder total = new LongAdder();
+        private final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray<>(WINDOW_SECONDS);
+
+        private void increment(long second) {
+            total.increment();
+
+            int slot = (int) (second % WINDOW_SECONDS);
+            Bucket bucket = buckets.get(slot);
+            if (bucket == null || bucket.second != second) {
+                Bucket fresh = new Bucket(second);
+                // If another thread replaced the bucket first we count in theirs
+                bucket = buckets.compareAndSet(slot, bucket, fresh) ? fresh : buckets.get(slot);
+            }
+            bucket.count.increment();
+        }
+
+        // Sum of the buckets from the last "seconds" seconds, including the current one
+        private long sumSince(long now, int seconds) {
+            long sum = 0;
+            for (int i = 0; i < WINDOW_SECONDS; i++) {
+                Bucket bucket = buckets.get(i);
+                if (bucket != null && bucket.second > now - seconds && bucket.second <= now) {
+                    sum += bucket.count.sum();
+                }
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.kromannreumert.logging.service;
+
+import com.example.kromannreumert.logging.dto.LogFilter;
+import com.example.kromannreumert.logging.dto.LogRow;
+import com.example.kromannreumert.logging.entity.LogAction;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the audit log to an OutputStream as NDJSON or CSV.
+ *
+ * Rows are read with a forward-only cursor and written one at a time, so memory use does not depend on how many
+ * rows are exported. On MySQL the driver only streams when useCursorFetch=true is set on the datasource url,
+ * otherwise it buffers the result set client side.
+ */
+@Service
+public class LogExportService {
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(LogExportService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final LoggingService loggingService;
+    private final AuditArchiveService auditArchiveService;
+    private final int fetchSize;
+
+    public LogExportService(JdbcTemplate jdbcTemplate,
+                            ObjectMapper objectMapper,
+                            LoggingService loggingService,
+                            AuditArchiveService auditArchiveService,
+                            @Value("${audit.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.loggingService = loggingService;
+        this.auditArchiveService = auditArchiveService;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes every log row matching the filter to the stream, oldest first. Archived months come first, then the logging table.
+     * @param filter the same actor, action and time range filters as the paginated log query
+     * @param format NDJSON or CSV
+     * @param gzip whether the stream should be gzip compressed
+     * @param out the response stream, it is flushed but not closed
+     * @param name the user exporting the logs
+     * @return number of exported rows
+     */
+    public long export(LogFilter filter, Format format, boolean gzip, OutputStream out, String name) {
+        long started = System.nanoTime();
+        long rows;
+        try {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 64 * 1024);
+
+            rows = format == Format.CSV ? writeCsv(filter, writer) : writeNdjson(filter, writer);
+
+            writer.flush();
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+            out.flush();
+
+        } catch (IOException | RuntimeException e) {
+            loggingService.log(LogAction.EXPORT_LOGS_FAILED, name, "Failed to export logs: " + e.getMessage());
+            throw new RuntimeException("could not export logs", e);
+        }
+
+        // Only once everything is written and flushed, a failed export is audited as EXPORT_LOGS_FAILED alone
+        loggingService.log(LogAction.EXPORT_LOGS, name, "Exported " + rows + " logs as " + format + " with filter " + filter);
+
+        long elapsedMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("Exported {} logs as {} in {} ms ({} rows/s)", rows, format, elapsedMs, rows * 1000 / elapsedMs);
+        return rows;
+    }
+
+    private long writeNdjson(LogFilter filter, Writer writer) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        long rows = streamRows(filter, row -> {
+            generator.writeStartObject();
+            generator.writeNumberField("id", row.id());
+            generator.writeStringField("actor", row.actor());
+            generator.writeStringField("action", row.action());
+            generator.writeStringField("details", row.details());
+            generator.writeStringField("timestamp", row.timestamp() != null ? row.timestamp().toString() : null);
+            generator.writeNumberField("eventCount", row.eventCount() != null ? row.eventCount() : 1);
+            generator.writeStringField("lastTimestamp", row.lastTimestamp() != null ? row.lastTimestamp().toString() : null);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        });
+
+        generator.flush();
+        return rows;
+    }
+
+    private long writeCsv(LogFilter filter, Writer writer) throws IOException {
+        writer.write("id,actor,action,details,timestamp,eventCount,lastTimestamp\n");
+
+        return streamRows(filter, row -> {
+            writer.write(Long.toString(row.id()));
+            writer.write(',');
+            writer.write(csv(row.actor()));
+            writer.write(',');
+            writer.write(csv(row.action()));
+            writer.write(',');
+            writer.write(csv(row.details()));
+            writer.write(',');
+            writer.write(row.timestamp() != null ? row.timestamp().toString() : "");
+            writer.write(',');
+            writer.write(Integer.toString(row.eventCount() != null ? row.eventCount() : 1));
+            writer.write(',');
+            writer.write(row.lastTimestamp() != null ? row.lastTimestamp().toString() : "");
+            writer.write('\n');
+        });
+    }
+
+    private long streamRows(LogFilter filter, RowWriter rowWriter) {
+        StringBuilder sql = new StringBuilder("SELECT id, actor, action, details, timestamp, event_count, last_timestamp FROM logging WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+
+        if (filter.actor() != null && !filter.actor().isBlank()) {
+            sql.append(" AND actor = ?");
+            params.add(filter.actor());
+        }
+        if (filter.action() != null) {
+            sql.append(" AND action = ?");
+            params.add(filter.action().name());
+        }
+        if (filter.from() != null) {
+            sql.append(" AND timestamp >= ?");
+            params.add(Timestamp.valueOf(filter.from()));
+        }
+        if (filter.to() != null) {
+            sql.append(" AND timestamp < ?");
+            params.add(Timestamp.valueOf(filter.to()));
+        }
+        sql.append(" ORDER BY id");
+
+        long[] rows = {0};
+        auditArchiveService.forEach(filter, row -> {
+            try {
+                rowWriter.write(row);
+                rows[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        }, rs -> {
+            try {
+                Timestamp timestamp = rs.getTimestamp("timestamp");
+                Timestamp lastTimestamp = rs.getTimestamp("last_timestamp");
+                int eventCount = rs.getInt("event_count");
+                rowWriter.write(new LogRow(rs.getLong("id"), rs.getString("actor"), rs.getString("action"),
+                        rs.getString("details"), timestamp != null ? timestamp.toLocalDateTime() : null,
+                        rs.wasNull() ? 1 : eventCount, lastTimestamp != null ? lastTimestamp.toLocalDateTime() : null));
+                rows[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return rows[0];
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(LogRow row) throws IOException;
+    }
+}
@@ -1,12 +1,19 @@
 package com.example.kromannreumert.logging.service;
 
+import com.example.kromannreumert.logging.dto.AuditEvent;
+import com.example.kromannreumert.logging.dto.LogFilter;
+import com.example.kromannreumert.logging.dto.LogMetricsDTO;
+import com.example.kromannreumert.logging.dto.LogPageDTO;
 import com.example.kromannreumert.logging.repository.LogRepository;
 import com.example.kromannreumert.logging.entity.LogAction;
 import com.example.kromannreumert.logging.entity.Logging;
+import com.example.kromannreumert.logging.repository.LogSpecifications;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,21 +21,64 @@ import java.util.Optional;
 public class LoggingService {
 
     private final static Logger log = LoggerFactory.getLogger(LoggingService.class);
+    private final static int MAX_PAGE_SIZE = 500;
     private final LogRepository logRepository;
+    private final AuditLogWriter auditLogWriter;
+    private final AuditArchiveService auditArchiveService;
+    private final LogActionMetrics logActionMetrics;
+    private final AuditCoalescer auditCoalescer;
+    private final AuditOutbox auditOutbox;
 
-    public LoggingService(LogRepository logRepository) {
+    public LoggingService(LogRepository logRepository, AuditLogWriter auditLogWriter, AuditArchiveService auditArchiveService, LogActionMetrics logActionMetrics, AuditCoalescer auditCoalescer, AuditOutbox auditOutbox) {
         this.logRepository = logRepository;
+        this.auditLogWriter = auditLogWriter;
+        this.auditArchiveService = auditArchiveService;
+        this.logActionMetrics = logActionMetrics;
+        this.auditCoalescer = auditCoalescer;
+        this.auditOutbox = auditOutbox;
     }
 
+    /**
+     * Records an audit entry. The entry is timestamped here but written by the AuditLogWriter in the background,
+     * so the calling request does not wait for the insert. Repeated read events are coalesced into one row first.
+     * Changes made inside a transaction go through the AuditOutbox, so they are only audited if the transaction commits.
+     */
     public void log(LogAction action, String actor, String details) {
         Logging entry = new Logging(actor, action, details);
-        logRepository.save(entry);
+        logActionMetrics.record(action);
+        if (auditOutbox.offer(entry) || auditCoalescer.accept(entry)) {
+            return;
+        }
+        auditLogWriter.submit(entry);
+    }
+
+    /**
+     * Records an audit entry with structured details, see {@link AuditEvent}.
+     */
+    public void log(LogAction action, String actor, AuditEvent event) {
+        log(action, actor, event.toJson());
+    }
+
+    /**
+     * Current per-action rates and writer stats, read from memory only.
+     * Not audited on purpose, it is polled by monitoring and should not add load to the logging table.
+     */
+    public LogMetricsDTO getMetrics() {
+        return new LogMetricsDTO(
+                logActionMetrics.getRates(),
+                auditLogWriter.getQueueSize(),
+                auditLogWriter.getWritten(),
+                auditLogWriter.getDropped(),
+                auditLogWriter.getFailed());
     }
 
 
+    /**
+     * Returns the newest 1000 log entries. Use getLogs for paging through older entries.
+     */
     public List<Logging> getAllLogs(String name) {
         try{
-            List<Logging>logs = logRepository.findAll();
+            List<Logging>logs = logRepository.findTop1000ByOrderByIdDesc();
 
             log(LogAction.VIEW_ALL_LOGS, name, "Viewed all logs");
 
@@ -43,6 +93,42 @@ public class LoggingService {
 
     }
 
+    /**
+     * Keyset pagination over the audit log, newest first. When the logging table runs out of rows
+     * the page continues into the archived months, so archived entries are returned the same way.
+     * @param filter optional actor, action and time range filters (from is inclusive, to is exclusive)
+     * @param cursor the nextCursor from the previous page, or null for the first page
+     * @param limit page size, capped at 500
+     * @param name the user viewing the logs
+     * @return the page and the cursor for the next page
+     */
+    public LogPageDTO getLogs(LogFilter filter, Long cursor, int limit, String name) {
+        try {
+            int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+            List<Logging> logs = new ArrayList<>(logRepository.findBy(
+                    LogSpecifications.matches(filter, cursor),
+                    query -> query.sortBy(Sort.by(Sort.Direction.DESC, "id")).limit(pageSize).all()));
+
+            if (logs.size() < pageSize) {
+                Long archiveCursor = logs.isEmpty() ? cursor : logs.getLast().getId();
+                logs.addAll(auditArchiveService.readPage(filter, archiveCursor, pageSize - logs.size()));
+            }
+
+            Long nextCursor = logs.size() == pageSize ? logs.getLast().getId() : null;
+
+            log(LogAction.VIEW_ALL_LOGS, name, "Viewed logs page");
+
+            return new LogPageDTO(logs, nextCursor);
+
+        } catch (RuntimeException e) {
+
+            log(LogAction.VIEW_ALL_LOGS_FAILED, name, "Failed to view logs page");
+
+            throw new RuntimeException("could not view logs", e);
+        }
+    }
+
     public List<Logging> getAllLogsByAction(LogAction action) {
         return logRepository.findAllByAction(action);
     }
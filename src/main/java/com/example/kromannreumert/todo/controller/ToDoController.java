@@ -1,11 +1,13 @@
 package com.example.kromannreumert.todo.controller;
 
+import com.example.kromannreumert.exception.customException.http4xxExceptions.VersionConflictException;
 import com.example.kromannreumert.todo.dto.ToDoRequestDto;
 import com.example.kromannreumert.todo.dto.ToDoRequestNewToDoDto;
 import com.example.kromannreumert.todo.dto.ToDoResponseDto;
 import com.example.kromannreumert.todo.service.ToDoService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
@@ -79,6 +81,11 @@ public class ToDoController {
         try {
             ToDoResponseDto toDoResponseDto = toDoService.updateTodo(id, principal.getName(), todoRequestDto);
             return ResponseEntity.ok(toDoResponseDto);
+        } catch (VersionConflictException e) {
+            throw e;
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Someone else committed a change to the todo while this update ran
+            throw toDoService.updateConflict(id, principal.getName());
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -15,5 +15,13 @@ public record ToDoRequestDto(
         Set<User> toDoAssignees,
         Priority priority,
         Status status,
-        Boolean archived
-) {}
+        Boolean archived,
+        Long version
+) {
+
+    // Without a version the update is applied to whatever is stored
+    public ToDoRequestDto(String name, String description, LocalDate startDate, LocalDate endDate, Set<User> toDoAssignees,
+                          Priority priority, Status status, Boolean archived) {
+        this(name, description, startDate, endDate, toDoAssignees, priority, status, archived, null);
+    }
+}
@@ -18,5 +18,12 @@ public record ToDoResponseDto(
         Set<User> toDoAssignees,
         Priority priority,
         Status status,
-        Boolean archived
-) {}
+        Boolean archived,
+        Long version
+) {
+
+    public ToDoResponseDto(Long id, String name, String description, LocalDateTime created, LocalDate startDate,
+                           LocalDate endDate, Set<User> toDoAssignees, Priority priority, Status status, Boolean archived) {
+        this(id, name, description, created, startDate, endDate, toDoAssignees, priority, status, archived, null);
+    }
+}
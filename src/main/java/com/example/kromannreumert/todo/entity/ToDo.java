@@ -14,6 +14,24 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Set;
 
+/**
+ * ToDo.list fetches the case, its client and responsible user, and the assignees with their roles in the same query,
+ * so the todo lists do not load them one todo at a time.
+ */
+@NamedEntityGraph(
+        name = "ToDo.list",
+        attributeNodes = {
+                @NamedAttributeNode(value = "caseId", subgraph = "case"),
+                @NamedAttributeNode(value = "users", subgraph = "user")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "case", attributeNodes = {
+                        @NamedAttributeNode("client"),
+                        @NamedAttributeNode(value = "responsibleUser", subgraph = "user")
+                }),
+                @NamedSubgraph(name = "user", attributeNodes = @NamedAttributeNode("roles"))
+        }
+)
 @Entity
 @NoArgsConstructor
 @AllArgsConstructor
@@ -55,6 +73,18 @@ public class ToDo {
     )
     private Set<User> users;
 
+    // Optimistic locking, an update based on an older version is rejected with 409
+    @Version
+    private Long version;
+
+    public ToDo(Long id, String name, String description, Casee caseId, LocalDateTime created, LocalDate startDate,
+                LocalDate endDate, Priority priority, Status status, Boolean archived, Set<User> users) {
+        this(name, description, created, startDate, endDate, priority, status, archived);
+        this.id = id;
+        this.caseId = caseId;
+        this.users = users;
+    }
+
     public ToDo(String name, String description, LocalDateTime created, LocalDate startDate, LocalDate endDate, Priority priority, Status status, Boolean archived) {
         this.name = name;
         this.description = description;
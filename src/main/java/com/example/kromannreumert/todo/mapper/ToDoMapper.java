@@ -36,7 +36,8 @@ public class ToDoMapper {
                 toDo.getUsers(),
                 toDo.getPriority(),
                 toDo.getStatus(),
-                toDo.getArchived()
+                toDo.getArchived(),
+                toDo.getVersion()
         );
     }
 }
@@ -1,14 +1,44 @@
 package com.example.kromannreumert.todo.repository;
 
+import com.example.kromannreumert.casee.dto.CaseToDoCountRow;
+import com.example.kromannreumert.todo.entity.Status;
 import com.example.kromannreumert.todo.entity.ToDo;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface ToDoRepository extends JpaRepository<ToDo, Long> {
+    @EntityGraph("ToDo.list")
     List<ToDo> findAllByArchivedFalse();
 
-    List<ToDo> findDistinctByCaseId_Users_UsernameAndArchivedFalse(String username);
+    // The todos of the cases the user is assigned to, one case_assignee row per case and user so no DISTINCT
+    @EntityGraph("ToDo.list")
+    @Query("select t from ToDo t join t.caseId c join c.users a where a.userId = :userId and t.archived = :archived")
+    List<ToDo> findByCaseAssignee(@Param("userId") Long userId, @Param("archived") boolean archived);
 
+    // Boolean literals are rendered for the configured dialect, so archived is bound instead
+    default List<ToDo> findOpenByCaseAssignee(Long userId) {
+        return findByCaseAssignee(userId, false);
+    }
+
+    @EntityGraph("ToDo.list")
     List<ToDo> findDistinctByUsers_UsernameAndArchivedFalse(String username);
+
+    // One row per status and priority the case has todos in, counted in the database instead of loading the todos
+    @Query("select new com.example.kromannreumert.casee.dto.CaseToDoCountRow(t.status, t.priority, count(t), " +
+            "sum(case when t.endDate < :today and t.status <> :done then 1L else 0L end)) " +
+            "from ToDo t where t.caseId.id = :caseId and t.archived = :archived group by t.status, t.priority")
+    List<CaseToDoCountRow> countByCase(@Param("caseId") Long caseId,
+                                       @Param("archived") boolean archived,
+                                       @Param("today") LocalDate today,
+                                       @Param("done") Status done);
+
+    // Boolean literals are rendered for the configured dialect, so archived is bound instead
+    default List<CaseToDoCountRow> countOpenByCase(Long caseId, LocalDate today) {
+        return countByCase(caseId, false, today, Status.DONE);
+    }
 }
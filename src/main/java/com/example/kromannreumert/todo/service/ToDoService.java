@@ -1,5 +1,8 @@
 package com.example.kromannreumert.todo.service;
 
+import com.example.kromannreumert.counter.service.EntityCounters;
+import com.example.kromannreumert.etag.service.CollectionVersions;
+import com.example.kromannreumert.exception.customException.http4xxExceptions.VersionConflictException;
 import com.example.kromannreumert.logging.entity.LogAction;
 import com.example.kromannreumert.logging.service.LoggingService;
 import com.example.kromannreumert.todo.dto.ToDoRequestDto;
@@ -12,7 +15,9 @@ import com.example.kromannreumert.user.entity.Role;
 import com.example.kromannreumert.user.entity.User;
 import com.example.kromannreumert.user.repository.UserRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -25,17 +30,20 @@ public class ToDoService {
     private final ToDoMapper toDoMapper;
     private final LoggingService loggingService;
     private final UserRepository userRepository;
+    private final CollectionVersions collectionVersions;
+    private final EntityCounters entityCounters;
 
-    public ToDoService(ToDoRepository toDoRepository, ToDoMapper toDoMapper, LoggingService loggingService, UserRepository userRepository) {
+    public ToDoService(ToDoRepository toDoRepository, ToDoMapper toDoMapper, LoggingService loggingService, UserRepository userRepository, CollectionVersions collectionVersions, EntityCounters entityCounters) {
         this.toDoRepository = toDoRepository;
         this.toDoMapper = toDoMapper;
         this.loggingService = loggingService;
         this.userRepository = userRepository;
+        this.collectionVersions = collectionVersions;
+        this.entityCounters = entityCounters;
     }
 
     public int getToDoSize() {
-        List<ToDo> getAll = toDoRepository.findAll();
-        return getAll.size();
+        return (int) entityCounters.count(EntityCounters.Entity.TODOS);
     }
 
     public List<ToDoResponseDto> findAll(String username) {
@@ -53,7 +61,7 @@ public class ToDoService {
             List<ToDo> toDos;
 
             if (isJurist && !isSagsbehandler && !isPartner && !isAdmin) {
-                toDos = toDoRepository.findDistinctByCaseId_Users_UsernameAndArchivedFalse(username);
+                toDos = toDoRepository.findOpenByCaseAssignee(user.getUserId());
             } else {
                 toDos = toDoRepository.findAllByArchivedFalse();
             }
@@ -93,10 +101,13 @@ public class ToDoService {
         }
     }
 
+    @Transactional
     public ToDoResponseDto createToDo(String name, ToDoRequestNewToDoDto todoRequestDto) {
         try {
             ToDo toDo = toDoMapper.toToDo(todoRequestDto);
             toDo = toDoRepository.save(toDo);
+            collectionVersions.changed(CollectionVersions.Listing.TODOS);
+            entityCounters.todoCreated(toDo.getStatus(), toDo.getArchived());
 
             loggingService.log(LogAction.CREATE_TODO, name, "Created a todo: " + toDo.getName());
 
@@ -107,12 +118,15 @@ public class ToDoService {
         }
     }
 
+    @Transactional
     public void deleteTodo(String name, Long id) {
         try {
             ToDo toDo = toDoRepository.findById(id)
                     .orElseThrow(() -> new RuntimeException("Could not find todo with id: " + id));
 
             toDoRepository.delete(toDo);
+            collectionVersions.changed(CollectionVersions.Listing.TODOS);
+            entityCounters.todoDeleted(toDo.getStatus(), toDo.getArchived());
 
             loggingService.log(LogAction.DELETE_TODO, name, "Deleted todo: " + toDo.getName() + ", id: " + id);
         } catch (Exception e) {
@@ -121,31 +135,77 @@ public class ToDoService {
         }
     }
 
+    @Transactional(noRollbackFor = VersionConflictException.class)
     public ToDoResponseDto updateTodo(Long id, String name, ToDoRequestDto todoRequestDto) {
         try {
             ToDo todo = toDoRepository.findById(id)
                     .orElseThrow(() -> new RuntimeException("Could not find todo with id: " + id));
+            if (todoRequestDto.version() != null && !todoRequestDto.version().equals(todo.getVersion())) {
+                throw new VersionConflictException(LogAction.UPDATE_TODO_FAILED, name, "Todo " + id,
+                        toDoMapper.toToDoResponseDto(todo));
+            }
 
+            entityCounters.todoChanged(todo.getStatus(), todo.getArchived(), todoRequestDto.status(), todoRequestDto.archived());
             todo.setName(todoRequestDto.name());
             todo.setDescription(todoRequestDto.description());
             todo.setStartDate(todoRequestDto.startDate());
             todo.setEndDate(todoRequestDto.endDate());
-            todo.setUsers(todoRequestDto.toDoAssignees());
+            updateAssignees(todo, todoRequestDto.toDoAssignees());
             todo.setPriority(todoRequestDto.priority());
             todo.setStatus(todoRequestDto.status());
             todo.setArchived(todoRequestDto.archived());
 
             toDoRepository.save(todo);
+            collectionVersions.changed(CollectionVersions.Listing.TODOS);
             loggingService.log(LogAction.UPDATE_TODO, name, "Updated todo: " + todoRequestDto.name());
 
             return toDoMapper.toToDoResponseDto(todo);
 
+        } catch (VersionConflictException e) {
+            throw e;
         } catch (Exception e) {
             loggingService.log(LogAction.UPDATE_TODO_FAILED, name, "Failed to update todo: " + todoRequestDto.name() + " " + e.getMessage());
             throw new RuntimeException("Could not update todo: " + todoRequestDto.name(), e);
         }
     }
 
+    /**
+     * The 409 for an update that lost the race at commit, with the todo as it is stored now, or null if it was deleted.
+     * Called after the failed transaction has rolled back.
+     */
+    public VersionConflictException updateConflict(Long id, String name) {
+        ToDoResponseDto current = toDoRepository.findById(id).map(toDoMapper::toToDoResponseDto).orElse(null);
+        return new VersionConflictException(LogAction.UPDATE_TODO_FAILED, name, "Todo " + id, current);
+    }
+
+    /**
+     * Removes and adds assignees by user id on the loaded collection, so only the todo_assignee rows that changed
+     * are written. New assignees are loaded with one query.
+     */
+    private void updateAssignees(ToDo todo, Set<User> requested) {
+        Set<Long> requestedIds = new HashSet<>();
+        if (requested != null) {
+            requested.forEach(user -> requestedIds.add(user.getUserId()));
+        }
+        if (todo.getUsers() == null) {
+            todo.setUsers(new HashSet<>());
+        }
+
+        Set<User> current = todo.getUsers();
+        current.removeIf(user -> !requestedIds.contains(user.getUserId()));
+
+        Set<Long> missing = new HashSet<>(requestedIds);
+        current.forEach(user -> missing.remove(user.getUserId()));
+        if (!missing.isEmpty()) {
+            List<User> added = userRepository.findAllByUserIdIn(missing);
+            if (added.size() < missing.size()) {
+                added.forEach(user -> missing.remove(user.getUserId()));
+                throw new RuntimeException("Users not found: " + missing);
+            }
+            current.addAll(added);
+        }
+    }
+
     public List<ToDoResponseDto> findAssignedToUser(String username) {
         try {
             List<ToDo> toDos = toDoRepository.findDistinctByUsers_UsernameAndArchivedFalse(username);
@@ -1,16 +1,38 @@
 package com.example.kromannreumert.user.repository;
 
 import com.example.kromannreumert.user.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
+    @EntityGraph(attributePaths = "roles")
     Optional<User> findByUsername(String username);
 
     Optional<User> findByName(String name);
 
+    /**
+     * Loads the users and their roles in one query, for resolving a set of ids at once.
+     */
+    @EntityGraph(attributePaths = "roles")
+    List<User> findAllByUserIdIn(Collection<Long> userIds);
+
+    /**
+     * Loads the users with these usernames and their roles in one query. Usernames nobody has are left out of the result.
+     */
+    @EntityGraph(attributePaths = "roles")
+    List<User> findAllByUsernameIn(Collection<String> usernames);
+
+    /**
+     * Loads the users with these display names and their roles in one query. Names nobody has are left out of the result.
+     */
+    @EntityGraph(attributePaths = "roles")
+    List<User> findAllByNameIn(Collection<String> names);
+
 }
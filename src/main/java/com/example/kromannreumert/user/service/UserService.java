@@ -1,5 +1,9 @@
 package com.example.kromannreumert.user.service;
 
+import com.example.kromannreumert.client.service.ClientCache;
+import com.example.kromannreumert.counter.service.EntityCounters;
+import com.example.kromannreumert.etag.service.CollectionVersions;
+import com.example.kromannreumert.logging.dto.AuditEvent;
 import com.example.kromannreumert.logging.entity.LogAction;
 import com.example.kromannreumert.logging.service.LoggingService;
 import com.example.kromannreumert.user.dto.UserRequestDTO;
@@ -29,13 +33,19 @@ public class UserService implements UserDetailsService {
     private final static Logger log = LoggerFactory.getLogger(UserService.class);
     private final UserMapper userMapper;
     private final RoleService roleService;
+    private final CollectionVersions collectionVersions;
+    private final ClientCache clientCache;
+    private final EntityCounters entityCounters;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, LoggingService loggingService, UserMapper userMapper, RoleService roleService) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, LoggingService loggingService, UserMapper userMapper, RoleService roleService, CollectionVersions collectionVersions, ClientCache clientCache, EntityCounters entityCounters) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.loggingService = loggingService;
         this.userMapper = userMapper;
         this.roleService = roleService;
+        this.collectionVersions = collectionVersions;
+        this.clientCache = clientCache;
+        this.entityCounters = entityCounters;
     }
 
     @Override
@@ -65,6 +75,7 @@ public class UserService implements UserDetailsService {
             user.setPassword(passwordEncoder.encode(user.getPassword()));
             log.info("Successfully encrypted password {}", user.getName());
             userRepository.save(user);
+            entityCounters.created(EntityCounters.Entity.USERS, 1);
             log.info("Successfully created {}", user.getName());
             loggingService.log(LogAction.CREATE_USER,name,"Created new user: " + user.getName());
 
@@ -144,6 +155,10 @@ public class UserService implements UserDetailsService {
 
             //opdatere brugeren i db
             userRepository.save(user);
+            // Users are shown in the case, client and todo lists
+            collectionVersions.changed(CollectionVersions.Listing.values());
+            // Cached clients hold the names of their users
+            clientCache.invalidateAll();
 
             //henter den nye bruger fra db
             Optional<User>getUserFromDb = userRepository.findById(userId);
@@ -152,7 +167,9 @@ public class UserService implements UserDetailsService {
             UserResponseDTO userResponse = getUserFromDb.stream().map(userMapper::toUserResponseDTO).toList().getFirst();
 
             //logger handlingerne
-            loggingService.log(LogAction.UPDATE_USER, name, "Updated user with user id: " + userId + ", new user is" + user);
+            loggingService.log(LogAction.UPDATE_USER, name, AuditEvent.of("user.update")
+                    .field("userId", userId)
+                    .field("username", user.getUsername()));
 
             //retunerer user
             return userResponse;
@@ -164,7 +181,12 @@ public class UserService implements UserDetailsService {
 
     public void deleteUser(int userId, String name){
         try{
-            userRepository.deleteById(userId);
+            userRepository.findById(userId).ifPresent(user -> {
+                userRepository.delete(user);
+                entityCounters.deleted(EntityCounters.Entity.USERS);
+            });
+            collectionVersions.changed(CollectionVersions.Listing.values());
+            clientCache.invalidateAll();
             loggingService.log(LogAction.DELETE_USER, name, "Deleted user with user Id: " + userId);
         }catch(RuntimeException e){
             loggingService.log(LogAction.DELETE_USER_FAILED, name, "Failed to delete user, with user id: " + userId);
@@ -173,7 +195,7 @@ public class UserService implements UserDetailsService {
     }
 
     public int getNumberOfAllUsers() {
-        return userRepository.findAll().size();
+        return (int) entityCounters.count(EntityCounters.Entity.USERS);
     }
 
 
@@ -0,0 +1,64 @@
+package com.example.kromannreumert.integrationTest;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, registered for the test profile
+ * in application-test.properties. Statements from scheduled tasks run on other threads and are not counted,
+ * and neither are statements sent through JdbcTemplate (the audit outbox and writer).
+ *
+ * Usage: start(entityManager), run the operation, then assertAtMost or assertSelectsAtMost.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get().add(sql);
+        return sql;
+    }
+
+    /**
+     * Flushes and clears the persistence context, so the operation starts without cached entities, and resets the count.
+     */
+    public static void start(EntityManager entityManager) {
+        entityManager.flush();
+        entityManager.clear();
+        STATEMENTS.get().clear();
+    }
+
+    /**
+     * Flushes pending writes and returns the statements prepared since start.
+     */
+    public static List<String> statements(EntityManager entityManager) {
+        entityManager.flush();
+        return List.copyOf(STATEMENTS.get());
+    }
+
+    public static void assertAtMost(EntityManager entityManager, int max) {
+        assertAtMost(statements(entityManager), max, "statements");
+    }
+
+    /**
+     * Only counts selects, for operations that write one row per element but should read a fixed number of times.
+     */
+    public static void assertSelectsAtMost(EntityManager entityManager, int max) {
+        List<String> selects = statements(entityManager).stream()
+                .filter(sql -> sql.regionMatches(true, 0, "select", 0, 6))
+                .toList();
+        assertAtMost(selects, max, "selects");
+    }
+
+    private static void assertAtMost(List<String> statements, int max, String kind) {
+        assertThat(statements)
+                .as("expected at most %d %s, got %d:%n%s", max, kind, statements.size(), String.join("\n", statements))
+                .hasSizeLessThanOrEqualTo(max);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.kromannreumert.integrationTest.casee;
+
+import com.example.kromannreumert.idprefix.service.IdPrefixAllocator;
+import com.example.kromannreumert.logging.service.AuditOutbox;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Runs against its own database, each chunk is committed in its own transaction
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:importdb;DB_CLOSE_DELAY=-1",
+        "case.import.chunk-size=3"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class CaseImportIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditOutbox auditOutbox;
+
+    @Autowired
+    private IdPrefixAllocator idPrefixAllocator;
+
+    @Test
+    void ndjsonImportSkipsBadRowsAndWritesTheRest() throws Exception {
+        String body = """
+                {"name":"Import-A","clientId":1,"userIds":[3,4],"idPrefix":5001,"responsibleUserId":2}
+                {"name":"Import-B","clientId":99,"userIds":[3],"idPrefix":5002,"responsibleUserId":2}
+                {"name":"Import-C","clientId":2,"userIds":[],"responsibleUserId":3}
+
+                {"name":"Import-D","clientId":1,"userIds":[3,77],"idPrefix":5004,"responsibleUserId":2}
+                not json
+                {"name":"Import-F","clientId":2,"userIds":[2],"idPrefix":5006,"responsibleUserId":4}
+                """;
+
+        mockMvc.perform(post("/api/v1/admin/cases/import")
+                        .with(user("importer-ndjson").roles("ADMIN"))
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(6))
+                .andExpect(jsonPath("$.imported").value(3))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[1].line").value(5))
+                .andExpect(jsonPath("$.errors[1].message").value("Users not found: [77]"))
+                .andExpect(jsonPath("$.errors[2].line").value(6));
+
+        assertThat(count("SELECT COUNT(*) FROM casee WHERE name LIKE 'Import-%'")).isEqualTo(3);
+        assertThat(count("SELECT COUNT(*) FROM case_assignee ca JOIN casee c ON c.id = ca.case_id WHERE c.name LIKE 'Import-%'"))
+                .isEqualTo(3);
+        Long allocated = jdbcTemplate.queryForObject("SELECT id_prefix FROM casee WHERE name = 'Import-C'", Long.class);
+        assertThat(allocated).isGreaterThanOrEqualTo(990000);
+
+        // One audit entry per chunk with imported rows
+        auditOutbox.relay();
+        assertThat(count("SELECT COUNT(*) FROM logging WHERE actor = 'importer-ndjson' AND action = 'CASE_IMPORT'"))
+                .isEqualTo(2);
+
+        assertThat(count("SELECT COUNT(*) FROM case_assignee ca JOIN casee c ON c.id = ca.case_id " +
+                "WHERE c.name = 'Import-A' AND ca.user_id = 4")).isEqualTo(1);
+    }
+
+    @Test
+    void csvImportReadsQuotedFieldsAndRejectsUsedPrefixes() throws Exception {
+        long reserved = idPrefixAllocator.next(IdPrefixAllocator.Sequence.CASE);
+        long legacy = idPrefixAllocator.reservedEnd(IdPrefixAllocator.Sequence.CASE) + 50;
+        String body = """
+                name,clientId,idPrefix,responsibleUserId,userIds
+                "Csv, Merger ""Nord""\",1,6001,2,2;3
+                Csv-Taken,1,1100,2,
+                Csv-Twice,2,6001,2,3
+                Csv-Reserved,2,%d,2,3
+                Csv-Legacy,2,%d,2,3
+                """.formatted(reserved + 1, legacy);
+
+        mockMvc.perform(post("/api/v1/admin/cases/import")
+                        .param("format", "CSV")
+                        .with(user("importer-csv").roles("ADMIN"))
+                        .contentType("text/csv")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(5))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.errors[0].message").value("idPrefix already used: 1100"))
+                .andExpect(jsonPath("$.errors[1].message").value("idPrefix already used: 6001"))
+                .andExpect(jsonPath("$.errors[2].line").value(5));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM casee WHERE id_prefix = 6001", String.class))
+                .isEqualTo("Csv, Merger \"Nord\"");
+        assertThat(count("SELECT COUNT(*) FROM case_assignee ca JOIN casee c ON c.id = ca.case_id WHERE c.id_prefix = 6001"))
+                .isEqualTo(2);
+        // A legacy 99xxxx prefix above the reserved blocks is kept
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM casee WHERE id_prefix = ?", String.class, legacy))
+                .isEqualTo("Csv-Legacy");
+    }
+
+    @Test
+    void rowTheDatabaseRejectsIsReportedAndTheRestOfItsChunkImported() throws Exception {
+        // Passes validation, but is longer than the name column
+        String tooLong = "X".repeat(300);
+        String body = """
+                {"name":"Split-A","clientId":1,"userIds":[3],"responsibleUserId":2}
+                {"name":"%s","clientId":1,"userIds":[3],"responsibleUserId":2}
+                {"name":"Split-C","clientId":2,"userIds":[4],"responsibleUserId":2}
+                """.formatted(tooLong);
+
+        mockMvc.perform(post("/api/v1/admin/cases/import")
+                        .with(user("importer-split").roles("ADMIN"))
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[0].message").value(startsWith("Could not write row")));
+
+        assertThat(count("SELECT COUNT(*) FROM casee WHERE name LIKE 'Split-%'")).isEqualTo(2);
+        assertThat(count("SELECT COUNT(*) FROM case_assignee ca JOIN casee c ON c.id = ca.case_id WHERE c.name LIKE 'Split-%'"))
+                .isEqualTo(2);
+        // The chunk is written again as [A] and [too long, C], then [too long] and [C]
+        auditOutbox.relay();
+        assertThat(count("SELECT COUNT(*) FROM logging WHERE actor = 'importer-split' AND action = 'CASE_IMPORT'"))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void csvWithoutRequiredColumnsIsRejected() throws Exception {
+        mockMvc.perform(post("/api/v1/admin/cases/import")
+                        .param("format", "CSV")
+                        .with(user("importer-bad").roles("ADMIN"))
+                        .contentType("text/csv")
+                        .content("name,idPrefix\nNo-Client,7001\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importIsAdminOnly() throws Exception {
+        mockMvc.perform(post("/api/v1/admin/cases/import")
+                        .with(user("partner01").roles("PARTNER"))
+                        .contentType("application/x-ndjson")
+                        .content("{\"name\":\"Import-X\",\"clientId\":1,\"responsibleUserId\":2}\n"))
+                .andExpect(status().isForbidden());
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+}
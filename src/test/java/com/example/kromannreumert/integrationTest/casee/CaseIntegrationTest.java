@@ -12,6 +12,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.ApplicationContext;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -46,6 +47,9 @@ public class CaseIntegrationTest {
     @Autowired
     private ClientRepository clientRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     void contextLoads() {
         assertNotNull(context);
@@ -71,6 +75,90 @@ public class CaseIntegrationTest {
                 .andExpect(jsonPath("$[0].name").value("Contract Review"));
     }
 
+    @Test
+    void juristSeesAssignmentChangesWrittenElsewhereRightAway() throws Exception {
+        // Written directly, as another instance would, jurist01 moves from Contract Review to case 2
+        jdbcTemplate.update("DELETE FROM case_assignee WHERE case_id = 1 AND user_id = 4");
+        jdbcTemplate.update("INSERT INTO case_assignee (case_id, user_id) VALUES (2, 4)");
+
+        mockMvc.perform(get(BASEURL).with(user("jurist01").roles("JURIST")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(2));
+        mockMvc.perform(get(BASEURL).param("page", "0").with(user("jurist01").roles("JURIST")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.cases[0].id").value(2));
+        mockMvc.perform(get(BASEURL + "/1/summary").with(user("jurist01").roles("JURIST")))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get(BASEURL + "/2/summary").with(user("jurist01").roles("JURIST")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void casesCanBeListedPageByPage() throws Exception {
+        mockMvc.perform(get(BASEURL).param("page", "0").param("size", "1").param("sort", "name,desc")
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cases.length()").value(1))
+                .andExpect(jsonPath("$.cases[0].name").value("System Rollout"))
+                .andExpect(jsonPath("$.cases[0].clientName").value("AlphaSolution"))
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.totalPages").value(2));
+
+        mockMvc.perform(get(BASEURL).param("page", "0").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cases[0].name").value("Contract Review"))
+                .andExpect(jsonPath("$.cases[0].assignees.length()").value(3))
+                .andExpect(jsonPath("$.cases[0].assignees[0].name").value("Case Worker"))
+                .andExpect(jsonPath("$.cases[0].assignees[0].password").doesNotExist());
+    }
+
+    @Test
+    void juristOnlyPagesThroughAssignedCases() throws Exception {
+        mockMvc.perform(get(BASEURL).param("page", "0").with(user("jurist01").roles("JURIST")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cases.length()").value(1))
+                .andExpect(jsonPath("$.cases[0].id").value(1))
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    void caseSummaryCountsOpenTodos() throws Exception {
+        // Case 1 has one open todo, past its end date, and one archived todo that is not counted
+        mockMvc.perform(get(BASEURL + "/1/summary").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.caseSummary.name").value("Contract Review"))
+                .andExpect(jsonPath("$.caseSummary.assignees.length()").value(3))
+                .andExpect(jsonPath("$.todos.total").value(1))
+                .andExpect(jsonPath("$.todos.overdue").value(1))
+                .andExpect(jsonPath("$.todos.byStatus.NOT_STARTED").value(1))
+                .andExpect(jsonPath("$.todos.byStatus.DONE").value(0))
+                .andExpect(jsonPath("$.todos.byPriority.HIGH").value(1))
+                .andExpect(jsonPath("$.todos.byPriority.LOW").value(0));
+    }
+
+    @Test
+    void juristOnlyGetsSummaryOfAssignedCases() throws Exception {
+        mockMvc.perform(get(BASEURL + "/1/summary").with(user("jurist01").roles("JURIST")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(BASEURL + "/2/summary").with(user("jurist01").roles("JURIST")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void summaryOfMissingCaseIsNotFound() throws Exception {
+        mockMvc.perform(get(BASEURL + "/999/summary").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void casesCannotBeSortedByUnknownProperty() throws Exception {
+        mockMvc.perform(get(BASEURL).param("page", "0").param("sort", "client.users")
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isBadRequest());
+    }
+
 
 
     // CREATE cases
@@ -0,0 +1,244 @@
+package com.example.kromannreumert.integrationTest.casee;
+
+import com.example.kromannreumert.casee.dto.CaseRequestDTO;
+import com.example.kromannreumert.casee.dto.CaseUpdateRequest;
+import com.example.kromannreumert.casee.entity.Casee;
+import com.example.kromannreumert.casee.repository.CaseRepository;
+import com.example.kromannreumert.client.entity.Client;
+import com.example.kromannreumert.client.repository.ClientRepository;
+import com.example.kromannreumert.integrationTest.SqlStatementCounter;
+import com.example.kromannreumert.todo.entity.Priority;
+import com.example.kromannreumert.todo.entity.Status;
+import com.example.kromannreumert.todo.entity.ToDo;
+import com.example.kromannreumert.todo.repository.ToDoRepository;
+import com.example.kromannreumert.user.entity.User;
+import com.example.kromannreumert.user.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Upper bounds on the statements per case write and case list, so lookups per assignee or per row do not come back unnoticed.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Transactional
+public class CaseQueryCountIntegrationTest {
+
+    private static final int ASSIGNEES = 20;
+    private static final int CASES = 15;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CaseRepository caseRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ToDoRepository toDoRepository;
+
+    private Set<Long> assigneeIds;
+
+    @BeforeEach
+    void setUp() {
+        assigneeIds = new TreeSet<>();
+        for (int i = 0; i < ASSIGNEES; i++) {
+            User user = new User("count" + i, "count" + i + "@example.com", "Count User " + i, "password", Set.of());
+            assigneeIds.add(userRepository.save(user).getUserId());
+        }
+    }
+
+    @Test
+    void createCaseQueryCountDoesNotGrowWithAssignees() throws Exception {
+        var dto = new CaseRequestDTO("Counted-Case", 1L, assigneeIds, 4400L, 2);
+
+        SqlStatementCounter.start(entityManager);
+        mockMvc.perform(post("/api/v1/cases")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.users.length()").value(ASSIGNEES));
+
+        // client, all users with their roles, and the client's users for the response
+        SqlStatementCounter.assertSelectsAtMost(entityManager, 3);
+        // plus the case insert and one insert per assignee row
+        SqlStatementCounter.assertAtMost(entityManager, 4 + ASSIGNEES);
+    }
+
+    @Test
+    void updateCaseQueryCountDoesNotGrowWithAssignees() throws Exception {
+        var dto = new CaseUpdateRequest(1L, "Counted-Case", 1100L, 2,
+                assigneeIds.stream().map(Long::intValue).collect(Collectors.toSet()));
+
+        SqlStatementCounter.start(entityManager);
+        mockMvc.perform(put("/api/v1/cases")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(ASSIGNEES));
+
+        // case, all users with their roles, current assignees, their roles in one batch, the client's users for the response
+        SqlStatementCounter.assertSelectsAtMost(entityManager, 5);
+        // plus the case update, the removed and the added assignee rows
+        SqlStatementCounter.assertAtMost(entityManager, 7 + ASSIGNEES);
+    }
+
+    @Test
+    void updateCaseWithSameAssigneesWritesNoAssigneeRows() throws Exception {
+        var dto = new CaseUpdateRequest(1L, "Contract Review", 1100L, 2, Set.of(2, 3, 4));
+
+        SqlStatementCounter.start(entityManager);
+        mockMvc.perform(put("/api/v1/cases")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk());
+
+        assertThat(writesTo("case_assignee")).isEmpty();
+    }
+
+    @Test
+    void updateCaseOnlyWritesChangedAssigneeRows() throws Exception {
+        var dto = new CaseUpdateRequest(1L, "Contract Review", 1100L, 2, Set.of(1, 2, 3));
+
+        SqlStatementCounter.start(entityManager);
+        mockMvc.perform(put("/api/v1/cases")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(3));
+
+        // user 4 removed and user 1 added, the other rows are left alone
+        assertThat(writesTo("case_assignee"))
+                .containsExactlyInAnyOrder(
+                        "delete from case_assignee where case_id=? and user_id=?",
+                        "insert into case_assignee (case_id,user_id) values (?,?)");
+    }
+
+    @Test
+    void caseListQueryCountDoesNotGrowWithCases() throws Exception {
+        List<User> assignees = userRepository.findAllByUserIdIn(assigneeIds);
+        for (int i = 0; i < CASES; i++) {
+            Client client = new Client();
+            client.setName("Counted Client " + i);
+            client.setIDPrefix(5000L + i);
+            client.setUsers(Set.of(assignees.get(i)));
+            clientRepository.save(client);
+            caseRepository.save(new Casee("Counted-Case-" + i, client, new HashSet<>(assignees.subList(i, i + 3)), 6000L + i, assignees.get(i)));
+        }
+
+        SqlStatementCounter.start(entityManager);
+        mockMvc.perform(get("/api/v1/cases").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(CASES + 2))
+                .andExpect(jsonPath("$[2].users.length()").value(3));
+
+        // current user, cases with client, responsible user and assignees, remaining roles and the users of all clients
+        SqlStatementCounter.assertAtMost(entityManager, 4);
+    }
+
+    @Test
+    void juristCaseListQueryCountDoesNotGrowWithCases() throws Exception {
+        User jurist = userRepository.findByUsername("jurist01").orElseThrow();
+        List<User> assignees = userRepository.findAllByUserIdIn(assigneeIds);
+        Client client = clientRepository.findById(2L).orElseThrow();
+        for (int i = 0; i < CASES; i++) {
+            Set<User> users = new HashSet<>(assignees.subList(i, i + 3));
+            users.add(jurist);
+            caseRepository.save(new Casee("Counted-Case-" + i, client, users, 6000L + i, assignees.get(i)));
+        }
+        entityManager.flush();
+
+        SqlStatementCounter.start(entityManager);
+        mockMvc.perform(get("/api/v1/cases").with(user("jurist01").roles("JURIST")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(CASES + 1))
+                .andExpect(jsonPath("$[1].users.length()").value(4));
+
+        SqlStatementCounter.assertAtMost(entityManager, 4);
+    }
+
+    @Test
+    void caseSummaryQueryCountDoesNotGrowWithTodos() throws Exception {
+        Casee contractReview = caseRepository.findById(1L).orElseThrow();
+        for (int i = 0; i < CASES; i++) {
+            ToDo todo = new ToDo("Counted-Todo-" + i, "", LocalDateTime.now(), LocalDate.now().minusDays(10),
+                    LocalDate.now().plusDays(i - 5), Priority.values()[i % 3], Status.values()[i % 3], false);
+            todo.setCaseId(contractReview);
+            toDoRepository.save(todo);
+        }
+
+        SqlStatementCounter.start(entityManager);
+        mockMvc.perform(get("/api/v1/cases/1/summary").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.todos.total").value(CASES + 1));
+
+        // current user, the case row, its assignees and the grouped todo counts
+        SqlStatementCounter.assertAtMost(entityManager, 4);
+
+        SqlStatementCounter.start(entityManager);
+        mockMvc.perform(get("/api/v1/cases/1/summary").with(user("jurist01").roles("JURIST")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.todos.total").value(CASES + 1));
+
+        // and for a jurist the check that they are assigned to the case
+        SqlStatementCounter.assertAtMost(entityManager, 5);
+    }
+
+    @Test
+    void missingUsersAreReportedTogether() throws Exception {
+        var dto = new CaseRequestDTO("Counted-Case", 1L, Set.of(2L, 9998L, 9999L), 4400L, 2);
+
+        mockMvc.perform(post("/api/v1/cases")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<String> writesTo(String table) {
+        return SqlStatementCounter.statements(entityManager).stream()
+                .filter(sql -> sql.contains(" " + table + " ") && !sql.startsWith("select"))
+                .toList();
+    }
+}
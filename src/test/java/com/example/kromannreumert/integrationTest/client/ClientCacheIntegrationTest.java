@@ -0,0 +1,103 @@
+package com.example.kromannreumert.integrationTest.client;
+
+import com.example.kromannreumert.client.DTO.ClientCacheStatsDTO;
+import com.example.kromannreumert.client.DTO.ClientRequestDTO;
+import com.example.kromannreumert.client.DTO.UpdateClientNameDTO;
+import com.example.kromannreumert.client.DTO.UpdateClientUserList;
+import com.example.kromannreumert.client.service.ClientCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Runs against its own database, the cache is only invalidated when a change commits
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:clientcachedb;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class ClientCacheIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ClientCache clientCache;
+
+    @Test
+    void repeatedLookupsAreServedFromTheCache() throws Exception {
+        create("Cache Client", 9200L);
+        ClientCacheStatsDTO before = clientCache.getStats();
+
+        mockMvc.perform(get("/api/v1/client/9200").with(user("admin").roles("ADMIN"))).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/client/9200").with(user("admin").roles("ADMIN"))).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/client/getclientbyname/Cache Client").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.idPrefix").value(9200));
+
+        ClientCacheStatsDTO after = clientCache.getStats();
+        assertThat(after.misses() - before.misses()).isEqualTo(1);
+        assertThat(after.hits() - before.hits()).isEqualTo(2);
+    }
+
+    @Test
+    void renameAndUserChangesAreVisibleRightAway() throws Exception {
+        create("Rename Client", 9300L);
+        mockMvc.perform(get("/api/v1/client/9300").with(user("admin").roles("ADMIN")))
+                .andExpect(jsonPath("$.name").value("Rename Client"));
+
+        mockMvc.perform(patch("/api/v1/client/update/name")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateClientNameDTO("Rename Client", "Renamed Client"))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/client/9300").with(user("admin").roles("ADMIN")))
+                .andExpect(jsonPath("$.name").value("Renamed Client"));
+        mockMvc.perform(get("/api/v1/client/getclientbyname/Rename Client").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(put("/api/v1/client/update/users")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateClientUserList(9300L, Set.of("Partner One")))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/client/user/9300").with(user("admin").roles("ADMIN")))
+                .andExpect(jsonPath("$[0]").value("Partner One"));
+    }
+
+    @Test
+    void metricsAreOnlyForAdmins() throws Exception {
+        mockMvc.perform(get("/api/v1/admin/client-cache/metrics").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.maxSize").value(1000));
+
+        mockMvc.perform(get("/api/v1/admin/client-cache/metrics").with(user("partner01").roles("PARTNER")))
+                .andExpect(status().isForbidden());
+    }
+
+    private void create(String name, Long idPrefix) throws Exception {
+        mockMvc.perform(post("/api/v1/client/add")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ClientRequestDTO(name, Set.of(), idPrefix))))
+                .andExpect(status().isCreated());
+    }
+}
@@ -66,6 +66,26 @@ public class ClientIntegrationTest {
         }
     }
 
+    @Test
+    void should_return_clientPage_with_userNames() throws Exception {
+        mockMvc.perform(get(BASEURL).param("page", "0").param("size", "1").param("sort", "idPrefix,desc")
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clients.length()").value(1))
+                .andExpect(jsonPath("$.clients[0].name").value("AlphaSolution"))
+                .andExpect(jsonPath("$.clients[0].idPrefix").value(2000))
+                .andExpect(jsonPath("$.clients[0].users[0]").value("Partner One"))
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.totalPages").value(2));
+    }
+
+    @Test
+    void should_reject_clientPage_sorted_by_unknown_property() throws Exception {
+        mockMvc.perform(get(BASEURL).param("page", "0").param("sort", "users")
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void should_not_return_allClients_for_unAuthorizedUsers() throws Exception {
         mockMvc.perform(get(BASEURL).with(user("JURIST").roles("JURIST")))
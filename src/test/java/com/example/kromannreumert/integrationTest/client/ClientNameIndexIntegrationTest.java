@@ -0,0 +1,86 @@
+package com.example.kromannreumert.integrationTest.client;
+
+import com.example.kromannreumert.client.DTO.ClientRequestDTO;
+import com.example.kromannreumert.client.DTO.UpdateClientNameDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Runs against its own database, the index only follows changes that commit
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:clientindexdb;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class ClientNameIndexIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void seededClientsAreFoundByPartialNameAndIdPrefix() throws Exception {
+        mockMvc.perform(get("/api/v1/client/suggest").param("q", "krom reu").with(user("partner01").roles("PARTNER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Kromann Reumert"))
+                .andExpect(jsonPath("$[0].idPrefix").value(1000));
+
+        mockMvc.perform(get("/api/v1/client/suggest").param("q", "200").with(user("partner01").roles("PARTNER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("AlphaSolution"));
+    }
+
+    @Test
+    void indexFollowsCreateRenameAndDelete() throws Exception {
+        mockMvc.perform(post("/api/v1/client/add")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ClientRequestDTO("Søndergård Café", Set.of(), 9400L))))
+                .andExpect(status().isCreated());
+        JsonNode created = suggest("cafe");
+        assertThat(created).hasSize(1);
+        assertThat(created.get(0).get("name").asText()).isEqualTo("Søndergård Café");
+
+        mockMvc.perform(patch("/api/v1/client/update/name")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateClientNameDTO("Søndergård Café", "Søndergård Bistro", null))))
+                .andExpect(status().isOk());
+        assertThat(suggest("cafe")).isEmpty();
+        assertThat(suggest("bistro")).hasSize(1);
+
+        mockMvc.perform(delete("/api/v1/client/delete/" + created.get(0).get("id").asLong()).with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk());
+        assertThat(suggest("bistro")).isEmpty();
+    }
+
+    @Test
+    void juristsCannotSearchClients() throws Exception {
+        mockMvc.perform(get("/api/v1/client/suggest").param("q", "krom").with(user("jurist01").roles("JURIST")))
+                .andExpect(status().isForbidden());
+    }
+
+    private JsonNode suggest(String query) throws Exception {
+        String body = mockMvc.perform(get("/api/v1/client/suggest").param("q", query).with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.kromannreumert.integrationTest.client;
+
+import com.example.kromannreumert.client.DTO.ClientRequestDTO;
+import com.example.kromannreumert.client.DTO.UpdateClientUserList;
+import com.example.kromannreumert.client.entity.Client;
+import com.example.kromannreumert.client.repository.ClientRepository;
+import com.example.kromannreumert.integrationTest.SqlStatementCounter;
+import com.example.kromannreumert.user.entity.User;
+import com.example.kromannreumert.user.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Upper bounds on the statements for creating a client and replacing its users, run with 1, 10 and 100 users.
+ * Each run logs its statement count and time, so the numbers for the three sizes can be compared in the test output.
+ * The paged and the unpaged client list are checked the same way against the number of clients.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Transactional
+public class ClientQueryCountIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ClientQueryCountIntegrationTest.class);
+
+    private static final int CLIENTS = 30;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100})
+    void addClientQueryCountDoesNotGrowWithUsers(int size) throws Exception {
+        Set<String> usernames = createUsers(size, User::getUsername);
+        var dto = new ClientRequestDTO("Counted Client", usernames, 9400L);
+
+        SqlStatementCounter.start(entityManager);
+        long started = System.nanoTime();
+        mockMvc.perform(post("/api/v1/client/add")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated());
+        report("addClient", size, started);
+
+        // the users with their roles in one query and the idPrefix check
+        SqlStatementCounter.assertSelectsAtMost(entityManager, 2);
+        // plus the client insert and one insert per client_assignee row
+        SqlStatementCounter.assertAtMost(entityManager, 3 + size);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100})
+    void updateClientUsersQueryCountDoesNotGrowWithUsers(int size) throws Exception {
+        Set<String> names = createUsers(size, User::getName);
+        var dto = new UpdateClientUserList(2000L, names);
+
+        SqlStatementCounter.start(entityManager);
+        long started = System.nanoTime();
+        mockMvc.perform(put("/api/v1/client/update/users")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk());
+        report("updateClientUserList", size, started);
+
+        // the client, the users with their roles in one query and the client's current users
+        SqlStatementCounter.assertSelectsAtMost(entityManager, 3);
+        // plus the client version update, the client_assignee delete and one insert per user
+        SqlStatementCounter.assertAtMost(entityManager, 5 + size);
+    }
+
+    @Test
+    void clientPageQueryCountDoesNotGrowWithClients() throws Exception {
+        List<User> users = userRepository.saveAll(List.of(
+                new User("page0", "page0@example.com", "Page User 0", "password", Set.of()),
+                new User("page1", "page1@example.com", "Page User 1", "password", Set.of())));
+        for (int i = 0; i < CLIENTS; i++) {
+            clientRepository.save(new Client(null, "Paged Client " + i, new HashSet<>(users), 9500L + i));
+        }
+
+        SqlStatementCounter.start(entityManager);
+        mockMvc.perform(get("/api/v1/client/").param("page", "0").param("size", "100")
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clients.length()").value(CLIENTS + 2))
+                .andExpect(jsonPath("$.clients[2].users.length()").value(2));
+
+        // the page of client columns, the count and the user names of all clients on the page
+        SqlStatementCounter.assertAtMost(entityManager, 3);
+    }
+
+    @Test
+    void clientListQueryCountDoesNotGrowWithClients() throws Exception {
+        List<User> users = userRepository.saveAll(List.of(
+                new User("list0", "list0@example.com", "List User 0", "password", Set.of()),
+                new User("list1", "list1@example.com", "List User 1", "password", Set.of())));
+        for (int i = 0; i < CLIENTS; i++) {
+            clientRepository.save(new Client(null, "Listed Client " + i, new HashSet<>(users), 9600L + i));
+        }
+
+        SqlStatementCounter.start(entityManager);
+        mockMvc.perform(get("/api/v1/client/")
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(CLIENTS + 2))
+                .andExpect(jsonPath("$[2].users.length()").value(2));
+
+        // the client columns and the user names of all clients
+        SqlStatementCounter.assertAtMost(entityManager, 2);
+    }
+
+    private Set<String> createUsers(int size, Function<User, String> key) {
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            User user = new User("client" + i, "client" + i + "@example.com", "Client User " + i, "password", Set.of());
+            keys.add(key.apply(userRepository.save(user)));
+        }
+        return keys;
+    }
+
+    private void report(String operation, int size, long started) {
+        long micros = (System.nanoTime() - started) / 1000;
+        log.info("{} with {} users: {} statements in {} us",
+                operation, size, SqlStatementCounter.statements(entityManager).size(), micros);
+    }
+}
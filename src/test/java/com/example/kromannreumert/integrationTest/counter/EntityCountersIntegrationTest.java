@@ -0,0 +1,130 @@
+package com.example.kromannreumert.integrationTest.counter;
+
+import com.example.kromannreumert.client.DTO.ClientRequestDTO;
+import com.example.kromannreumert.todo.dto.ToDoRequestDto;
+import com.example.kromannreumert.todo.dto.ToDoRequestNewToDoDto;
+import com.example.kromannreumert.todo.entity.Priority;
+import com.example.kromannreumert.todo.entity.Status;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Runs against its own database, the counters only move when a transaction commits
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:countersdb;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class EntityCountersIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void sizeEndpointsFollowCreatesAndDeletes() throws Exception {
+        JsonNode before = counts();
+
+        String body = mockMvc.perform(post("/api/v1/todos")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ToDoRequestNewToDoDto(
+                                "Counted todo", "Counted", LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 5), Priority.LOW))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long todoId = objectMapper.readTree(body).get("id").asLong();
+
+        mockMvc.perform(post("/api/v1/client/add")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ClientRequestDTO("Counted Client", Set.of(), 9300L))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/v1/todos/size").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(content().string(String.valueOf(before.get("todos").asLong() + 1)));
+        mockMvc.perform(get("/api/v1/client/size").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(content().string(String.valueOf(before.get("clients").asLong() + 1)));
+
+        mockMvc.perform(delete("/api/v1/todos/" + todoId).with(user("admin").roles("ADMIN")))
+                .andExpect(status().isNoContent());
+
+        assertThat(counts().get("todos").asLong()).isEqualTo(before.get("todos").asLong());
+        assertThat(tableCount("to_do")).isEqualTo(before.get("todos").asLong());
+    }
+
+    @Test
+    void archivingMovesATodoOutOfTheOpenCounts() throws Exception {
+        JsonNode before = counts();
+
+        mockMvc.perform(put("/api/v1/todos/1")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ToDoRequestDto("NDA", "Draft NDA",
+                                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 5), null, Priority.HIGH, Status.DONE, true, null))))
+                .andExpect(status().isOk());
+
+        JsonNode after = counts();
+        assertThat(after.get("todos").asLong()).isEqualTo(before.get("todos").asLong());
+        assertThat(after.get("archivedTodos").asLong()).isEqualTo(before.get("archivedTodos").asLong() + 1);
+        assertThat(after.get("openTodosByStatus").get("NOT_STARTED").asLong())
+                .isEqualTo(before.get("openTodosByStatus").get("NOT_STARTED").asLong() - 1);
+    }
+
+    @Test
+    void reconcileCorrectsRowsWrittenPastTheServices() throws Exception {
+        long users = counts().get("users").asLong();
+        jdbcTemplate.update("INSERT INTO users (username, name, email, password, created_date) VALUES ('direct01', 'Direct Insert', 'direct@example.com', 'x', CURRENT_DATE)");
+
+        assertThat(counts().get("users").asLong()).isEqualTo(users);
+
+        String body = mockMvc.perform(post("/api/v1/admin/counts/reconcile").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(objectMapper.readTree(body).get("corrected").toString()).contains("USERS");
+        assertThat(counts().get("users").asLong()).isEqualTo(users + 1);
+        mockMvc.perform(get("/api/v1/user/size").with(user("admin").roles("ADMIN")))
+                .andExpect(content().string(String.valueOf(users + 1)));
+    }
+
+    @Test
+    void countsAreForAdminsOnly() throws Exception {
+        mockMvc.perform(get("/api/v1/admin/counts").with(user("partner01").roles("PARTNER")))
+                .andExpect(status().isForbidden());
+    }
+
+    private JsonNode counts() throws Exception {
+        String body = mockMvc.perform(get("/api/v1/admin/counts").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private long tableCount(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.kromannreumert.integrationTest.etag;
+
+import com.example.kromannreumert.casee.dto.CaseRequestDTO;
+import com.example.kromannreumert.client.DTO.ClientRequestDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Runs against its own database, the version stamps only move when a write commits
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:etagdb;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class ETagIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void unchangedListIsAnsweredWithNotModified() throws Exception {
+        String etag = etag("/api/v1/cases", "admin", "ADMIN");
+
+        mockMvc.perform(get("/api/v1/cases").with(user("admin").roles("ADMIN"))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void eachUserAndPageHasItsOwnETag() throws Exception {
+        String admin = etag("/api/v1/cases", "admin", "ADMIN");
+        String jurist = etag("/api/v1/cases", "jurist01", "JURIST");
+        assertThat(jurist).isNotEqualTo(admin);
+
+        mockMvc.perform(get("/api/v1/cases").with(user("jurist01").roles("JURIST"))
+                        .header(HttpHeaders.IF_NONE_MATCH, admin))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/cases").param("page", "0").with(user("admin").roles("ADMIN"))
+                        .header(HttpHeaders.IF_NONE_MATCH, admin))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void caseWriteChangesCaseAndTodoETags() throws Exception {
+        String cases = etag("/api/v1/cases", "admin", "ADMIN");
+        String todos = etag("/api/v1/todos", "admin", "ADMIN");
+        String clients = etag("/api/v1/client/", "admin", "ADMIN");
+
+        var dto = new CaseRequestDTO("ETag-Case", 1L, Set.of(3L), 7700L, 2);
+        mockMvc.perform(post("/api/v1/cases")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/v1/cases").with(user("admin").roles("ADMIN"))
+                        .header(HttpHeaders.IF_NONE_MATCH, cases))
+                .andExpect(status().isOk());
+        assertThat(etag("/api/v1/todos", "admin", "ADMIN")).isNotEqualTo(todos);
+        assertThat(etag("/api/v1/client/", "admin", "ADMIN")).isEqualTo(clients);
+    }
+
+    @Test
+    void clientWriteChangesAllETags() throws Exception {
+        String cases = etag("/api/v1/cases", "admin", "ADMIN");
+        String clients = etag("/api/v1/client/", "admin", "ADMIN");
+
+        var dto = new ClientRequestDTO("ETag Client", Set.of("partner01"), 7800L);
+        mockMvc.perform(post("/api/v1/client/add")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated());
+
+        assertThat(etag("/api/v1/client/", "admin", "ADMIN")).isNotEqualTo(clients);
+        assertThat(etag("/api/v1/cases", "admin", "ADMIN")).isNotEqualTo(cases);
+    }
+
+    @Test
+    void failedWriteKeepsETag() throws Exception {
+        String cases = etag("/api/v1/cases", "admin", "ADMIN");
+
+        // Unknown assignee, the transaction rolls back
+        var dto = new CaseRequestDTO("ETag-Failed", 1L, Set.of(9999L), 7701L, 2);
+        mockMvc.perform(post("/api/v1/cases")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isBadRequest());
+
+        assertThat(etag("/api/v1/cases", "admin", "ADMIN")).isEqualTo(cases);
+    }
+
+    private String etag(String url, String username, String role) throws Exception {
+        String etag = mockMvc.perform(get(url).with(user(username).roles(role)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"").endsWith("\"");
+        return etag;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.kromannreumert.integrationTest.idprefix;
+
+import com.example.kromannreumert.casee.dto.CaseRequestDTO;
+import com.example.kromannreumert.idprefix.service.IdPrefixAllocator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Runs against its own database, blocks are reserved in their own committed transactions
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idprefixdb;DB_CLOSE_DELAY=-1",
+        "id-prefix.block-size=10"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class IdPrefixAllocatorIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IdPrefixAllocator idPrefixAllocator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void caseWithoutIdPrefixGetsOneAllocated() throws Exception {
+        var dto = new CaseRequestDTO("Allocated-Case", 1L, Set.of(2L), null, 2);
+
+        mockMvc.perform(post("/api/v1/cases")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.idPrefix").value(greaterThanOrEqualTo(990000)));
+    }
+
+    @Test
+    void explicitIdPrefixInAReservedBlockIsRejected() throws Exception {
+        long reserved = idPrefixAllocator.reservedEnd(IdPrefixAllocator.Sequence.CASE) - 1;
+        if (reserved < 990000) {
+            reserved = idPrefixAllocator.next(IdPrefixAllocator.Sequence.CASE);
+        }
+        var dto = new CaseRequestDTO("Explicit-Case", 1L, Set.of(2L), reserved, 2);
+
+        mockMvc.perform(post("/api/v1/cases")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void legacyIdPrefixAboveTheReservedBlocksIsAcceptedAndSkipped() throws Exception {
+        idPrefixAllocator.next(IdPrefixAllocator.Sequence.CASE);
+        long legacy = idPrefixAllocator.reservedEnd(IdPrefixAllocator.Sequence.CASE) + 3;
+        var dto = new CaseRequestDTO("Legacy-Case", 1L, Set.of(2L), legacy, 2);
+
+        mockMvc.perform(post("/api/v1/cases")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.idPrefix").value(legacy));
+
+        // Two blocks of 10 run past the legacy prefix
+        Set<Long> allocated = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            allocated.add(idPrefixAllocator.next(IdPrefixAllocator.Sequence.CASE));
+        }
+        assertThat(allocated).contains(legacy - 1, legacy + 1).doesNotContain(legacy);
+    }
+
+    @Test
+    void instancesNeverHandOutTheSamePrefix() throws Exception {
+        // A second allocator on the same database stands in for another node
+        IdPrefixAllocator otherNode = new IdPrefixAllocator(jdbcTemplate, transactionManager, 10, 990000, 990000);
+        Set<Long> prefixes = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 200; i++) {
+            IdPrefixAllocator node = i % 2 == 0 ? idPrefixAllocator : otherNode;
+            executor.submit(() -> prefixes.add(node.next(IdPrefixAllocator.Sequence.CLIENT)));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(prefixes).hasSize(200).allMatch(prefix -> prefix >= 990000);
+        Long reserved = jdbcTemplate.queryForObject(
+                "SELECT next_value FROM id_prefix_sequence WHERE name = 'client'", Long.class);
+        assertThat(prefixes).allMatch(prefix -> prefix < reserved);
+    }
+}
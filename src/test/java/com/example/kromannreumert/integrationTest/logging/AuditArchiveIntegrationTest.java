@@ -0,0 +1,91 @@
+package com.example.kromannreumert.integrationTest.logging;
+
+import com.example.kromannreumert.logging.service.AuditArchiveService;
+import com.example.kromannreumert.logging.service.AuditTableGeneration;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Runs against its own database, as the rollover moves the seeded logs out of the logging table
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archivedb;DB_CLOSE_DELAY=-1",
+        "audit.archive.enabled=true",
+        "audit.archive.hot-months=1",
+        "audit.archive.retention-days.UPDATE_TODO=30"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Transactional
+public class AuditArchiveIntegrationTest {
+
+    @TempDir
+    static Path archiveDir;
+
+    @DynamicPropertySource
+    static void archiveDirectory(DynamicPropertyRegistry registry) {
+        registry.add("audit.archive.directory", () -> archiveDir.toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuditArchiveService auditArchiveService;
+
+    @Autowired
+    private AuditTableGeneration auditTableGeneration;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String SEEDED_UNTIL = "2024-12-31T00:00:00";
+
+    @Test
+    void rolloverMovesOldMonthsToArchiveAndQueriesStillFindThem() throws Exception {
+        auditArchiveService.rollover();
+
+        Integer hotRows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM logging WHERE timestamp < '2024-12-31 00:00:00'", Integer.class);
+        assertEquals(0, hotRows);
+        assertTrue(Files.isDirectory(archiveDir.resolve(auditTableGeneration.current()).resolve("2024-02")));
+
+        // UPDATE_TODO has a 30 day retention, so only two of the three seeded logs are archived
+        mockMvc.perform(get("/api/v1/admin/logs").param("to", SEEDED_UNTIL).param("limit", "1")
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.logs.length()").value(1))
+                .andExpect(jsonPath("$.logs[0].id").value(2))
+                .andExpect(jsonPath("$.nextCursor").value(2));
+
+        mockMvc.perform(get("/api/v1/admin/logs").param("to", SEEDED_UNTIL).param("cursor", "2")
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.logs.length()").value(1))
+                .andExpect(jsonPath("$.logs[0].id").value(1))
+                .andExpect(jsonPath("$.logs[0].actor").value("admin"));
+
+        // Running it again does not archive anything twice
+        auditArchiveService.rollover();
+        mockMvc.perform(get("/api/v1/admin/logs").param("to", SEEDED_UNTIL)
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.logs.length()").value(2));
+    }
+}
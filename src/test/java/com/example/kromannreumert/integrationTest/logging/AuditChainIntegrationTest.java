@@ -0,0 +1,96 @@
+package com.example.kromannreumert.integrationTest.logging;
+
+import com.example.kromannreumert.logging.dto.AuditVerificationDTO;
+import com.example.kromannreumert.logging.entity.LogAction;
+import com.example.kromannreumert.logging.repository.AuditCheckpointRepository;
+import com.example.kromannreumert.logging.service.AuditLogWriter;
+import com.example.kromannreumert.logging.service.AuditVerificationService;
+import com.example.kromannreumert.logging.service.LoggingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Runs against its own database and without a transaction, the rows are written by the audit writer thread
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:chaindb;DB_CLOSE_DELAY=-1",
+        "audit.coalesce.enabled=false",
+        "audit.chain.checkpoint-size=5"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class AuditChainIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LoggingService loggingService;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private AuditVerificationService auditVerificationService;
+
+    @Autowired
+    private AuditCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void chainedRowsVerifyAndTamperingIsFound() throws Exception {
+        long writtenBefore = auditLogWriter.getWritten();
+        for (int i = 0; i < 12; i++) {
+            loggingService.log(LogAction.UPDATE_TODO, "admin", "Updated todo " + i);
+        }
+        awaitWritten(writtenBefore + 12);
+
+        auditVerificationService.createCheckpoints();
+        assertTrue(checkpointRepository.count() >= 2);
+
+        // The seeded rows have no hash and are reported as unchained, not as failures
+        mockMvc.perform(get("/api/v1/admin/logs/verify").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.valid").value(true))
+                .andExpect(jsonPath("$.unchainedRows").value(3));
+
+        Long tampered = jdbcTemplate.queryForObject(
+                "SELECT id FROM logging WHERE details = 'Updated todo 3'", Long.class);
+        jdbcTemplate.update("UPDATE logging SET details = 'Nothing happened' WHERE id = ?", tampered);
+
+        AuditVerificationDTO result = auditVerificationService.verify(null, null, "admin");
+        assertFalse(result.valid());
+        assertEquals(List.of(tampered), result.invalidRows());
+
+        // Rewriting the hashes to hide the change breaks the link to the next row and the checkpoint
+        jdbcTemplate.update("UPDATE logging SET hash = 'ff' WHERE id = ?", tampered);
+        result = auditVerificationService.verify(null, null, "admin");
+        assertTrue(result.brokenLinks().contains(tampered + 1));
+        assertFalse(result.checkpointMismatches().isEmpty());
+
+        auditVerificationService.verifyIncrementally();
+        assertTrue(auditVerificationService.getStatus().rowsVerified() >= 15);
+        assertTrue(auditVerificationService.getStatus().invalidRows() >= 1);
+    }
+
+    private void awaitWritten(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (auditLogWriter.getWritten() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(auditLogWriter.getWritten() >= expected);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.kromannreumert.integrationTest.logging;
+
+import com.example.kromannreumert.logging.entity.LogAction;
+import com.example.kromannreumert.logging.service.AuditOutbox;
+import com.example.kromannreumert.logging.service.LoggingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against its own database and commits for real, the relay only sees committed outbox rows
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outboxdb;DB_CLOSE_DELAY=-1",
+        "audit.outbox.relay-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+public class AuditOutboxIntegrationTest {
+
+    @Autowired
+    private LoggingService loggingService;
+
+    @Autowired
+    private AuditOutbox auditOutbox;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void committedChangesAreRelayedAndRolledBackChangesAreNot() {
+        transactionTemplate.executeWithoutResult(status ->
+                loggingService.log(LogAction.CREATE_CLIENT, "admin", "Created client: Committed"));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            loggingService.log(LogAction.CREATE_CLIENT, "admin", "Created client: Rolled back");
+            status.setRollbackOnly();
+        });
+
+        assertEquals(1, auditOutbox.getPending());
+
+        auditOutbox.relay();
+
+        assertEquals(0, auditOutbox.getPending());
+        assertEquals(1, count("Created client: Committed"));
+        assertEquals(0, count("Created client: Rolled back"));
+    }
+
+    private int count(String details) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM logging WHERE details = ?", Integer.class, details);
+        return count != null ? count : 0;
+    }
+}
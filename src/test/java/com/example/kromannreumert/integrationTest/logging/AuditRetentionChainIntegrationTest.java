@@ -0,0 +1,85 @@
+package com.example.kromannreumert.integrationTest.logging;
+
+import com.example.kromannreumert.logging.dto.AuditVerificationDTO;
+import com.example.kromannreumert.logging.entity.LogAction;
+import com.example.kromannreumert.logging.entity.Logging;
+import com.example.kromannreumert.logging.service.AuditArchiveService;
+import com.example.kromannreumert.logging.service.AuditLogWriter;
+import com.example.kromannreumert.logging.service.AuditVerificationService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against its own database and without a transaction, the rows are written by the audit writer thread
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:retentionchaindb;DB_CLOSE_DELAY=-1",
+        "audit.coalesce.enabled=false",
+        "audit.chain.checkpoint-size=3",
+        "audit.archive.enabled=true",
+        "audit.archive.hot-months=3",
+        "audit.archive.retention-days.UPDATE_TODO=5"
+})
+@ActiveProfiles("test")
+public class AuditRetentionChainIntegrationTest {
+
+    @TempDir
+    static Path archiveDir;
+
+    @DynamicPropertySource
+    static void archiveDirectory(DynamicPropertyRegistry registry) {
+        registry.add("audit.archive.directory", () -> archiveDir.toString());
+    }
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private AuditArchiveService auditArchiveService;
+
+    @Autowired
+    private AuditVerificationService auditVerificationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void expiredRowInsideTheHotWindowIsKeptSoTheChainStillVerifies() throws Exception {
+        long writtenBefore = auditLogWriter.getWritten();
+        auditLogWriter.submit(new Logging("admin", LogAction.UPDATE_CLIENT, "Before"));
+        // Past its retention, but in a month that is still hot
+        Logging expired = new Logging("admin", LogAction.UPDATE_TODO, "Expired");
+        expired.setTimestamp(LocalDateTime.now().minusDays(10));
+        auditLogWriter.submit(expired);
+        for (int i = 0; i < 4; i++) {
+            auditLogWriter.submit(new Logging("admin", LogAction.UPDATE_CLIENT, "After " + i));
+        }
+        awaitWritten(writtenBefore + 6);
+        auditVerificationService.createCheckpoints();
+
+        auditArchiveService.rollover();
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM logging WHERE details = 'Expired'", Integer.class));
+        AuditVerificationDTO result = auditVerificationService.verify(null, null, "admin");
+        assertTrue(result.valid(), "broken links " + result.brokenLinks() + ", checkpoints " + result.checkpointMismatches());
+        assertTrue(result.checkpointsChecked() >= 1);
+    }
+
+    private void awaitWritten(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (auditLogWriter.getWritten() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(auditLogWriter.getWritten() >= expected);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.kromannreumert.integrationTest.logging;
+
+import com.example.kromannreumert.logging.config.AuditArchiveProperties;
+import com.example.kromannreumert.logging.dto.LogFilter;
+import com.example.kromannreumert.logging.entity.LogAction;
+import com.example.kromannreumert.logging.service.AuditLogWriter;
+import com.example.kromannreumert.logging.service.AuditSearchIndex;
+import com.example.kromannreumert.logging.service.AuditTableGeneration;
+import com.example.kromannreumert.logging.service.LoggingService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Runs against its own database, the rows are written by the audit writer thread and indexed from the table
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:searchdb;DB_CLOSE_DELAY=-1",
+        "audit.coalesce.enabled=false"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class AuditSearchIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LoggingService loggingService;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private AuditSearchIndex auditSearchIndex;
+
+    @Autowired
+    private AuditTableGeneration auditTableGeneration;
+
+    @Autowired
+    private AuditArchiveProperties auditArchiveProperties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path indexDir;
+
+    @Test
+    void searchFindsNewEntriesByWordsAndPrefix() throws Exception {
+        long writtenBefore = auditLogWriter.getWritten();
+        loggingService.log(LogAction.CREATE_CLIENT, "admin", "Created client: Nordisk Shipping, idPrefix 991234");
+        loggingService.log(LogAction.CREATE_CLIENT, "admin", "Created client: Baltic Freight, idPrefix 995678");
+        loggingService.log(LogAction.DELETE_CLIENT, "jurist", "Deleted client with id: 12");
+        awaitWritten(writtenBefore + 3);
+
+        auditSearchIndex.update();
+
+        mockMvc.perform(get("/api/v1/admin/logs/search").param("q", "client 99*")
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.logs.length()").value(2))
+                .andExpect(jsonPath("$.logs[0].details").value("Created client: Baltic Freight, idPrefix 995678"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        // Paging through the same matches one at a time
+        mockMvc.perform(get("/api/v1/admin/logs/search").param("q", "client 99*").param("limit", "1")
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.logs.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").isNumber());
+
+        mockMvc.perform(get("/api/v1/admin/logs/search").param("q", "nordisk").param("action", "CREATE_CLIENT")
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.logs.length()").value(1))
+                .andExpect(jsonPath("$.logs[0].actor").value("admin"));
+
+        mockMvc.perform(get("/api/v1/admin/logs/search").param("q", "client").param("actor", "jurist")
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.logs.length()").value(1))
+                .andExpect(jsonPath("$.logs[0].action").value("DELETE_CLIENT"));
+    }
+
+    @Test
+    void indexFromAnEarlierTableIsRebuiltOnOpen() throws Exception {
+        long writtenBefore = auditLogWriter.getWritten();
+        loggingService.log(LogAction.CREATE_CLIENT, "admin", "Created client: Generation Test");
+        awaitWritten(writtenBefore + 1);
+        long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM logging", Long.class);
+        LogFilter noFilter = new LogFilter(null, null, null, null);
+
+        // An index on disk built from a logging table that has since been dropped, its ids clash with the current rows
+        AuditTableGeneration earlier = mock(AuditTableGeneration.class);
+        when(earlier.current()).thenReturn("earlier");
+        AuditSearchIndex stale = newIndex(earlier);
+        stale.update();
+        assertEquals(maxId, stale.getLastIndexedId());
+        stale.close();
+
+        AuditSearchIndex reopened = newIndex(auditTableGeneration);
+        assertEquals(0, reopened.getLastIndexedId());
+        assertEquals(0, reopened.search(null, noFilter, null, 500, "admin").logs().size());
+
+        reopened.update();
+        assertTrue(reopened.getLastIndexedId() >= maxId);
+        assertEquals(1, reopened.search("generation", noFilter, null, 500, "admin").logs().size());
+        long indexed = reopened.getLastIndexedId();
+        reopened.close();
+
+        // Reopened against the same table it continues where it stopped
+        AuditSearchIndex continued = newIndex(auditTableGeneration);
+        assertEquals(indexed, continued.getLastIndexedId());
+        continued.close();
+    }
+
+    private AuditSearchIndex newIndex(AuditTableGeneration generation) throws Exception {
+        AuditSearchIndex index = new AuditSearchIndex(jdbcTemplate, loggingService, auditArchiveProperties, generation,
+                indexDir, false, 5000, 30000);
+        index.open();
+        return index;
+    }
+
+    private void awaitWritten(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (auditLogWriter.getWritten() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(auditLogWriter.getWritten() >= expected);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.kromannreumert.integrationTest.logging;
+
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Transactional
+public class LogIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final String BASEURL = "/api/v1/admin/logs";
+
+    // The seeded logs are from february 2024, everything written while the tests run is newer
+    private final String SEEDED_UNTIL = "2024-12-31T00:00:00";
+
+    @Test
+    void adminCanPageThroughLogsWithCursor() throws Exception {
+        mockMvc.perform(get(BASEURL).param("to", SEEDED_UNTIL).param("limit", "2")
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.logs.length()").value(2))
+                .andExpect(jsonPath("$.logs[0].id").value(3))
+                .andExpect(jsonPath("$.logs[1].id").value(2))
+                .andExpect(jsonPath("$.nextCursor").value(2));
+
+        mockMvc.perform(get(BASEURL).param("to", SEEDED_UNTIL).param("limit", "2").param("cursor", "2")
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.logs.length()").value(1))
+                .andExpect(jsonPath("$.logs[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void adminCanFilterLogsByActorAndAction() throws Exception {
+        mockMvc.perform(get(BASEURL).param("to", SEEDED_UNTIL).param("actor", "partner01").param("action", "CASE_CREATE")
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.logs.length()").value(1))
+                .andExpect(jsonPath("$.logs[0].actor").value("partner01"));
+    }
+
+    @Test
+    void adminCanFilterLogsByTimeRange() throws Exception {
+        mockMvc.perform(get(BASEURL).param("from", "2024-02-02T00:00:00").param("to", SEEDED_UNTIL)
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.logs.length()").value(1))
+                .andExpect(jsonPath("$.logs[0].actor").value("worker01"));
+    }
+
+    @Test
+    void nonAdminCannotViewLogs() throws Exception {
+        mockMvc.perform(get(BASEURL).with(user("partner01").roles("PARTNER")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void adminCanExportLogsAsNdjson() throws Exception {
+        MvcResult started = mockMvc.perform(get(BASEURL + "/export").param("to", SEEDED_UNTIL)
+                        .with(user("admin").roles("ADMIN")))
+                .andReturn();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,\"actor\":\"admin\""));
+    }
+
+    @Test
+    void adminCanExportLogsAsGzippedCsv() throws Exception {
+        MvcResult started = mockMvc.perform(get(BASEURL + "/export").param("format", "CSV").param("gzip", "true")
+                        .param("to", SEEDED_UNTIL).param("actor", "worker01")
+                        .with(user("admin").roles("ADMIN")))
+                .andReturn();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"audit-log.csv.gz\""))
+                .andReturn();
+
+        byte[] csv = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray())).readAllBytes();
+        String[] lines = new String(csv, StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("id,actor,action,details,timestamp,eventCount,lastTimestamp", lines[0]);
+        assertTrue(lines[1].startsWith("3,worker01,UPDATE_TODO,"));
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.kromannreumert.integrationTest.todo;
+
+import com.example.kromannreumert.casee.entity.Casee;
+import com.example.kromannreumert.casee.repository.CaseRepository;
+import com.example.kromannreumert.integrationTest.SqlStatementCounter;
+import com.example.kromannreumert.todo.dto.ToDoRequestDto;
+import com.example.kromannreumert.todo.entity.Priority;
+import com.example.kromannreumert.todo.entity.Status;
+import com.example.kromannreumert.todo.entity.ToDo;
+import com.example.kromannreumert.todo.repository.ToDoRepository;
+import com.example.kromannreumert.user.entity.User;
+import com.example.kromannreumert.user.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Upper bounds on the statements per todo list, so the case and assignees are not loaded one todo at a time,
+ * and a todo update only writes the assignee rows that changed.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Transactional
+public class ToDoQueryCountIntegrationTest {
+
+    private static final int TODOS = 15;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CaseRepository caseRepository;
+
+    @Autowired
+    private ToDoRepository toDoRepository;
+
+    @BeforeEach
+    void setUp() {
+        User worker = userRepository.findByUsername("worker01").orElseThrow();
+        List<User> assignees = new ArrayList<>();
+        for (int i = 0; i < TODOS + 2; i++) {
+            assignees.add(userRepository.save(new User("todo" + i, "todo" + i + "@example.com", "Todo User " + i, "password", Set.of())));
+        }
+
+        // Spread over both seeded cases, worker01 is assigned to all of them
+        List<Casee> cases = caseRepository.findAll();
+        for (int i = 0; i < TODOS; i++) {
+            ToDo toDo = new ToDo("Counted-ToDo-" + i, "Counted", LocalDateTime.now(), LocalDate.now(), LocalDate.now().plusDays(1),
+                    Priority.MEDIUM, Status.NOT_STARTED, false);
+            toDo.setCaseId(cases.get(i % cases.size()));
+            Set<User> users = new HashSet<>(assignees.subList(i, i + 3));
+            users.add(worker);
+            toDo.setUsers(users);
+            toDoRepository.save(toDo);
+        }
+    }
+
+    @Test
+    void toDoListQueryCountDoesNotGrowWithToDos() throws Exception {
+        SqlStatementCounter.start(entityManager);
+        mockMvc.perform(get("/api/v1/todos").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(TODOS + 2));
+
+        // current user, todos with case and assignees, and the roles of all assignees in one batch
+        SqlStatementCounter.assertAtMost(entityManager, 3);
+    }
+
+    @Test
+    void juristToDoListQueryCountDoesNotGrowWithToDos() throws Exception {
+        SqlStatementCounter.start(entityManager);
+        mockMvc.perform(get("/api/v1/todos").with(user("jurist01").roles("JURIST")))
+                .andExpect(status().isOk());
+
+        SqlStatementCounter.assertAtMost(entityManager, 3);
+    }
+
+    @Test
+    void assignedToDoListQueryCountDoesNotGrowWithToDos() throws Exception {
+        SqlStatementCounter.start(entityManager);
+        mockMvc.perform(get("/api/v1/todos/assigned").with(user("worker01").roles("SAGSBEHANDLER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(TODOS + 1));
+
+        // todos with case and assignees, and the roles of all assignees in one batch
+        SqlStatementCounter.assertAtMost(entityManager, 2);
+    }
+
+    @Test
+    void updateToDoOnlyWritesChangedAssigneeRows() throws Exception {
+        // ToDo 1 is assigned to users 3 and 4
+        User keep = new User();
+        keep.setUserId(3L);
+        User add = new User();
+        add.setUserId(2L);
+        ToDoRequestDto dto = new ToDoRequestDto("NDA", "Draft NDA", LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 5),
+                Set.of(keep, add), Priority.HIGH, Status.NOT_STARTED, false);
+
+        SqlStatementCounter.start(entityManager);
+        mockMvc.perform(put("/api/v1/todos/{id}", 1)
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.toDoAssignees.length()").value(2));
+
+        assertThat(SqlStatementCounter.statements(entityManager).stream()
+                .filter(sql -> sql.contains(" todo_assignee ") && !sql.startsWith("select")))
+                .containsExactlyInAnyOrder(
+                        "delete from todo_assignee where todo_id=? and user_id=?",
+                        "insert into todo_assignee (todo_id,user_id) values (?,?)");
+    }
+}
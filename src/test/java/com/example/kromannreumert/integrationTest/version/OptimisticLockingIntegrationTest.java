@@ -0,0 +1,143 @@
+package com.example.kromannreumert.integrationTest.version;
+
+import com.example.kromannreumert.casee.dto.CaseUpdateRequest;
+import com.example.kromannreumert.client.DTO.ClientRequestDTO;
+import com.example.kromannreumert.client.DTO.UpdateClientNameDTO;
+import com.example.kromannreumert.todo.dto.ToDoRequestDto;
+import com.example.kromannreumert.todo.entity.Priority;
+import com.example.kromannreumert.todo.entity.Status;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Runs against its own database, versions are only bumped when an update is flushed on commit
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:versiondb;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class OptimisticLockingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void staleCaseUpdateIsRejectedWithCurrentCase() throws Exception {
+        long version = caseVersion(2L);
+
+        mockMvc.perform(put("/api/v1/cases")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new CaseUpdateRequest(2L, "Rollout v2", null, 2, Set.of(3), version))))
+                .andExpect(status().isOk());
+        assertThat(caseVersion(2L)).isEqualTo(version + 1);
+
+        mockMvc.perform(put("/api/v1/cases")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new CaseUpdateRequest(2L, "Rollout v3", null, 2, Set.of(3), version))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.action").value("CASE_UPDATE_FAILED"))
+                .andExpect(jsonPath("$.current.name").value("Rollout v2"))
+                .andExpect(jsonPath("$.current.version").value(version + 1));
+    }
+
+    @Test
+    void staleClientRenameIsRejectedWithCurrentClient() throws Exception {
+        mockMvc.perform(post("/api/v1/client/add")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ClientRequestDTO("Version Client", Set.of(), 9100L))))
+                .andExpect(status().isCreated());
+        long version = read(get("/api/v1/client/9100")).get("version").asLong();
+
+        mockMvc.perform(patch("/api/v1/client/update/name")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new UpdateClientNameDTO("Version Client", "Version Client A", version))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/api/v1/client/update/name")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new UpdateClientNameDTO("Version Client A", "Version Client B", version))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.current.name").value("Version Client A"))
+                .andExpect(jsonPath("$.current.version").value(version + 1));
+    }
+
+    @Test
+    void staleTodoUpdateIsRejectedWithCurrentTodo() throws Exception {
+        long version = read(get("/api/v1/todos/2")).get("version").asLong();
+
+        mockMvc.perform(put("/api/v1/todos/2")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(todoUpdate("First edit", version))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(put("/api/v1/todos/2")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(todoUpdate("Second edit", version))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.action").value("UPDATE_TODO_FAILED"))
+                .andExpect(jsonPath("$.current.name").value("First edit"))
+                .andExpect(jsonPath("$.current.version").value(version + 1));
+    }
+
+    @Test
+    void updateWithoutVersionIsAppliedAsBefore() throws Exception {
+        long version = read(get("/api/v1/todos/1")).get("version").asLong();
+
+        mockMvc.perform(put("/api/v1/todos/1")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(todoUpdate("Unversioned edit", null))))
+                .andExpect(status().isOk());
+
+        assertThat(read(get("/api/v1/todos/1")).get("version").asLong()).isEqualTo(version + 1);
+    }
+
+    private ToDoRequestDto todoUpdate(String name, Long version) {
+        return new ToDoRequestDto(name, "Edited", LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 20),
+                null, Priority.MEDIUM, Status.IN_PROGRESS, false, version);
+    }
+
+    private long caseVersion(Long id) throws Exception {
+        for (JsonNode node : read(get("/api/v1/cases"))) {
+            if (node.get("id").asLong() == id) return node.get("version").asLong();
+        }
+        throw new AssertionError("case " + id + " not listed");
+    }
+
+    private JsonNode read(org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request.with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
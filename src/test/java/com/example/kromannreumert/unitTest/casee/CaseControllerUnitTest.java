@@ -17,8 +17,11 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import org.springframework.data.domain.Pageable;
+
 import java.security.Principal;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.*;
@@ -67,6 +70,25 @@ public class CaseControllerUnitTest {
     }
 
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void should_returnCasePage_whenPageIsGiven() throws Exception {
+
+        CaseSummaryDTO summary = new CaseSummaryDTO(1L, "Case1", 100L, 1L, "Client1", 2L, "Partner One",
+                List.of(new CaseAssigneeDTO(3L, "Case Worker")));
+
+        when(caseService.getCasesPage(any(Principal.class), any(Pageable.class)))
+                .thenReturn(new CasePageDTO(List.of(summary), 0, 50, 1, 1));
+
+        mockMvc.perform(get(BASE).param("page", "0").param("sort", "name,asc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cases[0].name").value("Case1"))
+                .andExpect(jsonPath("$.cases[0].assignees[0].userId").value(3));
+
+        verify(caseService).getCasesPage(any(Principal.class), any(Pageable.class));
+        verify(caseService, never()).getAllCases(any(Principal.class));
+    }
+
     @Test
     @WithMockUser(roles = "JURIST")
     void should_returnAllCases_isOK_forJurist() throws Exception {
@@ -1,8 +1,12 @@
 package com.example.kromannreumert.unitTest.casee;
 
+import com.example.kromannreumert.casee.dto.CaseAssigneeRow;
 import com.example.kromannreumert.casee.dto.CaseDeleteRequestDTO;
+import com.example.kromannreumert.casee.dto.CaseDetailSummaryDTO;
+import com.example.kromannreumert.casee.dto.CaseListRow;
 import com.example.kromannreumert.casee.dto.CaseRequestDTO;
 import com.example.kromannreumert.casee.dto.CaseResponseDTO;
+import com.example.kromannreumert.casee.dto.CaseToDoCountRow;
 import com.example.kromannreumert.casee.dto.CaseUpdateRequest;
 import com.example.kromannreumert.casee.entity.Casee;
 import com.example.kromannreumert.casee.mapper.CaseMapper;
@@ -10,10 +14,18 @@ import com.example.kromannreumert.casee.repository.CaseRepository;
 import com.example.kromannreumert.casee.service.CaseService;
 import com.example.kromannreumert.client.entity.Client;
 import com.example.kromannreumert.client.repository.ClientRepository;
+import com.example.kromannreumert.idprefix.service.IdPrefixAllocator;
+import com.example.kromannreumert.logging.dto.AuditEvent;
 import com.example.kromannreumert.logging.entity.LogAction;
+import com.example.kromannreumert.counter.service.EntityCounters;
+import com.example.kromannreumert.etag.service.CollectionVersions;
 import com.example.kromannreumert.logging.service.LoggingService;
+import com.example.kromannreumert.todo.entity.Priority;
+import com.example.kromannreumert.todo.entity.Status;
+import com.example.kromannreumert.todo.repository.ToDoRepository;
 import com.example.kromannreumert.user.entity.User;
 import com.example.kromannreumert.user.repository.UserRepository;
+import com.example.kromannreumert.exception.customException.http4xxExceptions.VersionConflictException;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -52,6 +64,18 @@ public class CaseServiceUnitTest {
     @Mock
     LoggingService loggingService;
 
+    @Mock
+    IdPrefixAllocator idPrefixAllocator;
+
+    @Mock
+    ToDoRepository toDoRepository;
+
+    @Mock
+    CollectionVersions collectionVersions;
+
+    @Mock
+    EntityCounters entityCounters;
+
     @Mock
     Principal principal;
 
@@ -78,12 +102,12 @@ public class CaseServiceUnitTest {
 
         Casee c1 = new Casee();
         Casee c2 = new Casee();
-        when(caseRepository.findAll()).thenReturn(List.of(c1, c2));
+        when(caseRepository.findAllForList()).thenReturn(List.of(c1, c2));
 
         List<Casee> result = caseService.getAllCases(principal);
 
         assertThat(result).hasSize(2);
-        verify(caseRepository, times(1)).findAll();
+        verify(caseRepository, times(1)).findAllForList();
     }
 
     @Test
@@ -97,11 +121,54 @@ public class CaseServiceUnitTest {
         when(userRepository.findByUsername("jurist01")).thenReturn(Optional.of(jurist));
 
         Casee assignedCase = new Casee();
-        when(caseRepository.findDistinctByUsers_UserId(4L)).thenReturn(List.of(assignedCase));
+        when(caseRepository.findAssignedTo(4L)).thenReturn(List.of(assignedCase));
 
         List<Casee> result = caseService.getAllCases(principal);
         assertThat(result).hasSize(1);
-        verify(caseRepository).findDistinctByUsers_UserId(4L);
+        verify(caseRepository).findAssignedTo(4L);
+        verify(caseRepository, never()).findAllForList();
+    }
+
+    // --------- getCaseSummary ---------
+    @Test
+    void getCaseSummary_sumsGroupedTodoCounts() {
+        when(principal.getName()).thenReturn("admin");
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(adminUser));
+        when(caseRepository.findCaseRow(1L)).thenReturn(Optional.of(
+                new CaseListRow(1L, "Contract Review", 1100L, 1L, "Kromann Reumert", 2L, "Partner")));
+        when(caseRepository.findAssigneeRows(List.of(1L))).thenReturn(List.of(new CaseAssigneeRow(1L, 3L, "Worker")));
+        when(toDoRepository.countOpenByCase(eq(1L), any())).thenReturn(List.of(
+                new CaseToDoCountRow(Status.NOT_STARTED, Priority.HIGH, 2L, 1L),
+                new CaseToDoCountRow(Status.NOT_STARTED, Priority.LOW, 1L, 0L),
+                new CaseToDoCountRow(Status.DONE, Priority.HIGH, 3L, 0L)));
+
+        CaseDetailSummaryDTO result = caseService.getCaseSummary(1L, principal);
+
+        assertThat(result.caseSummary().name()).isEqualTo("Contract Review");
+        assertThat(result.caseSummary().assignees()).extracting("userId").containsExactly(3L);
+        assertThat(result.todos().total()).isEqualTo(6);
+        assertThat(result.todos().overdue()).isEqualTo(1);
+        assertThat(result.todos().byStatus()).containsEntry(Status.NOT_STARTED, 3L)
+                .containsEntry(Status.IN_PROGRESS, 0L)
+                .containsEntry(Status.DONE, 3L);
+        assertThat(result.todos().byPriority()).containsEntry(Priority.HIGH, 5L)
+                .containsEntry(Priority.MEDIUM, 0L)
+                .containsEntry(Priority.LOW, 1L);
+    }
+
+    @Test
+    void getCaseSummary_throwsForJuristNotAssigned() {
+        User jurist = new User();
+        jurist.setUserId(4L);
+        jurist.setUsername("jurist01");
+        jurist.setRoles(Set.of(new com.example.kromannreumert.user.entity.Role(4L, "JURIST")));
+
+        when(principal.getName()).thenReturn("jurist01");
+        when(userRepository.findByUsername("jurist01")).thenReturn(Optional.of(jurist));
+        when(caseRepository.existsByIdAndUsers_UserId(2L, 4L)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> caseService.getCaseSummary(2L, principal));
+        verify(caseRepository, never()).findCaseRow(any());
     }
 
     // --------- getCaseByName ---------
@@ -132,14 +199,31 @@ public class CaseServiceUnitTest {
 
         when(principal.getName()).thenReturn("admin");
         when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
-        when(userRepository.findById(2)).thenReturn(Optional.of(assignee));
-        when(userRepository.findById(2)).thenReturn(Optional.of(responsible));
+        when(userRepository.findAllByUserIdIn(Set.of(2L))).thenReturn(List.of(responsible));
+        when(idPrefixAllocator.resolve(IdPrefixAllocator.Sequence.CASE, 100L)).thenReturn(100L);
 
         CaseResponseDTO response = caseService.createCase(dto, principal);
 
         assertThat(response.name()).isEqualTo("New Case");
         verify(caseRepository).save(any(Casee.class));
-        verify(loggingService).log(eq(LogAction.CASE_CREATE), eq("admin"), anyString());
+        verify(userRepository, never()).findById(any());
+        verify(loggingService).log(eq(LogAction.CASE_CREATE), eq("admin"), any(AuditEvent.class));
+    }
+
+    @Test
+    void createCase_throwsWithAllMissingUserIds() {
+        CaseRequestDTO dto = new CaseRequestDTO("New Case", 1L, Set.of(2L, 8L, 9L), 100L, 2);
+
+        User existing = new User();
+        existing.setUserId(2L);
+
+        when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
+        when(userRepository.findAllByUserIdIn(Set.of(2L, 8L, 9L))).thenReturn(List.of(existing));
+
+        EntityNotFoundException e = assertThrows(EntityNotFoundException.class, () -> caseService.createCase(dto, principal));
+
+        assertThat(e.getMessage()).isEqualTo("Users not found: [8, 9]");
+        verify(caseRepository, never()).save(any());
     }
 
     // --------- updateCase ---------
@@ -158,7 +242,7 @@ public class CaseServiceUnitTest {
         assignee.setUserId(2L);
 
         when(caseRepository.findById(1L)).thenReturn(Optional.of(existing));
-        when(userRepository.findById(2)).thenReturn(Optional.of(responsible));
+        when(userRepository.findAllByUserIdIn(Set.of(2L))).thenReturn(List.of(responsible));
 
         // Mock save() to return the same instance
         when(caseRepository.save(existing)).thenReturn(existing);
@@ -173,7 +257,35 @@ public class CaseServiceUnitTest {
 
         assertThat(response.name()).isEqualTo("Updated Case");
         verify(caseRepository).save(existing);
-        verify(loggingService).log(eq(LogAction.CASE_UPDATE), eq("admin"), anyString());
+        ArgumentCaptor<AuditEvent> event = ArgumentCaptor.forClass(AuditEvent.class);
+        verify(loggingService).log(eq(LogAction.CASE_UPDATE), eq("admin"), event.capture());
+        assertThat(event.getValue().toJson())
+                .contains("\"caseId\":1")
+                .contains("\"name\":{\"from\":null,\"to\":\"Updated Case\"}")
+                .contains("\"assigneeIds\":{\"added\":[2],\"removed\":[]}");
+    }
+
+    @Test
+    void updateCase_withoutIdPrefixKeepsTheStoredOne() {
+        CaseUpdateRequest dto = new CaseUpdateRequest(1L, "Updated Case", null, 2, Set.of(2));
+
+        // A case created without a prefix, so both are null
+        Casee existing = new Casee();
+        existing.setId(1L);
+        existing.setUsers(new HashSet<>());
+
+        User responsible = new User();
+        responsible.setUserId(2L);
+
+        when(caseRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(userRepository.findAllByUserIdIn(Set.of(2L))).thenReturn(List.of(responsible));
+        when(caseRepository.save(existing)).thenReturn(existing);
+        when(principal.getName()).thenReturn("admin");
+
+        caseService.updateCase(dto, principal);
+
+        assertThat(existing.getIdPrefix()).isNull();
+        verify(idPrefixAllocator, never()).checkExplicit(any(), any());
     }
 
 
@@ -191,7 +303,7 @@ public class CaseServiceUnitTest {
 
         assertThat(result).isEqualTo("Case deleted successfully");
         verify(caseRepository).delete(existing);
-        verify(loggingService).log(eq(LogAction.CASE_DELETE), eq("admin"), anyString());
+        verify(loggingService).log(eq(LogAction.CASE_DELETE), eq("admin"), any(AuditEvent.class));
     }
 
     @Test
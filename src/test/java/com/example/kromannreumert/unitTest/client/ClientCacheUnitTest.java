@@ -0,0 +1,165 @@
+package com.example.kromannreumert.unitTest.client;
+
+import com.example.kromannreumert.client.DTO.ClientCacheStatsDTO;
+import com.example.kromannreumert.client.DTO.ClientResponeDTO;
+import com.example.kromannreumert.client.service.ClientCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClientCacheUnitTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void loadedClientIsFoundByIdPrefixAndName() {
+
+        // ARRANGE
+        ClientCache cache = newCache();
+        cache.getByIdPrefix(1000L, loader(client(1L, "Acme", 1000L)));
+
+        // ACT
+        Optional<ClientResponeDTO> byPrefix = cache.getByIdPrefix(1000L, loader(client(1L, "Acme", 1000L)));
+        Optional<ClientResponeDTO> byName = cache.getByName("Acme", loader(client(1L, "Acme", 1000L)));
+
+        // ASSERT
+        assertEquals("Acme", byPrefix.orElseThrow().name());
+        assertEquals(1000L, byName.orElseThrow().idPrefix());
+        assertEquals(1, loads.get());
+        ClientCacheStatsDTO stats = cache.getStats();
+        assertEquals(2, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.size());
+    }
+
+    @Test
+    void invalidateDropsBothKeys() {
+
+        // ARRANGE
+        ClientCache cache = newCache();
+        cache.getByName("Acme", loader(client(1L, "Acme", 1000L)));
+
+        // ACT
+        cache.invalidate(1L);
+
+        // ASSERT
+        assertEquals("Acme Renamed", cache.getByIdPrefix(1000L, loader(client(1L, "Acme Renamed", 1000L))).orElseThrow().name());
+        assertTrue(cache.getByName("Acme", () -> Optional.empty()).isEmpty());
+        assertEquals(1, cache.getStats().invalidated());
+    }
+
+    @Test
+    void missesAreNotCached() {
+
+        // ARRANGE
+        ClientCache cache = newCache();
+        cache.getByIdPrefix(1000L, () -> Optional.empty());
+
+        // ACT
+        Optional<ClientResponeDTO> created = cache.getByIdPrefix(1000L, loader(client(1L, "Acme", 1000L)));
+
+        // ASSERT
+        assertTrue(created.isPresent());
+    }
+
+    @Test
+    void frequentlyReadClientsSurviveABurstOfOneOffLookups() {
+
+        // ARRANGE
+        ClientCache cache = newCache();
+        for (long id = 1; id <= 9; id++) {
+            for (int read = 0; read < 5; read++) {
+                cache.getByIdPrefix(id, loader(client(id, "Client " + id, id)));
+            }
+        }
+        loads.set(0);
+
+        // ACT
+        for (long id = 100; id < 150; id++) {
+            cache.getByIdPrefix(id, loader(client(id, "Client " + id, id)));
+        }
+        for (long id = 1; id <= 9; id++) {
+            cache.getByIdPrefix(id, loader(client(id, "Client " + id, id)));
+        }
+
+        // ASSERT
+        assertEquals(50, loads.get(), "only the one-off clients should have been loaded");
+        assertEquals(10, cache.getStats().size());
+        assertTrue(cache.getStats().rejected() > 0);
+    }
+
+    @Test
+    void loadRacingAnInvalidationIsNotStored() {
+
+        // ARRANGE
+        ClientCache cache = newCache();
+        cache.getByIdPrefix(1000L, loader(client(1L, "Acme", 1000L)));
+        cache.invalidate(1L);
+
+        // ACT, the rename commits while the old row is being loaded
+        cache.getByIdPrefix(1000L, () -> {
+            cache.invalidate(1L);
+            return Optional.of(client(1L, "Acme", 1000L));
+        });
+
+        // ASSERT
+        assertEquals("Acme Renamed", cache.getByIdPrefix(1000L, loader(client(1L, "Acme Renamed", 1000L))).orElseThrow().name());
+    }
+
+    @Test
+    void entryIsLoadedAgainOnceItExpires() {
+
+        // ARRANGE, renamed on another instance, so this one is never told
+        ClientCache cache = newCache();
+        cache.getByIdPrefix(1000L, loader(client(1L, "Acme", 1000L)));
+        clock.addAndGet(59_999);
+        assertEquals("Acme", cache.getByIdPrefix(1000L, loader(client(1L, "Acme Renamed", 1000L))).orElseThrow().name());
+
+        // ACT
+        clock.addAndGet(1);
+        Optional<ClientResponeDTO> reloaded = cache.getByIdPrefix(1000L, loader(client(1L, "Acme Renamed", 1000L)));
+
+        // ASSERT
+        assertEquals("Acme Renamed", reloaded.orElseThrow().name());
+        assertTrue(cache.getByName("Acme", () -> Optional.empty()).isEmpty());
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getStats().expired());
+    }
+
+    @Test
+    void disabledCacheLoadsEveryTime() {
+
+        // ARRANGE
+        ClientCache cache = new ClientCache(false, 10, 60_000, clock::get);
+
+        // ACT
+        cache.getByIdPrefix(1000L, loader(client(1L, "Acme", 1000L)));
+        cache.getByIdPrefix(1000L, loader(client(1L, "Acme", 1000L)));
+
+        // ASSERT
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.getStats().size());
+    }
+
+    private ClientCache newCache() {
+        return new ClientCache(true, 10, 60_000, clock::get);
+    }
+
+    private Supplier<Optional<ClientResponeDTO>> loader(ClientResponeDTO client) {
+        return () -> {
+            loads.incrementAndGet();
+            return Optional.of(client);
+        };
+    }
+
+    private static ClientResponeDTO client(Long id, String name, Long idPrefix) {
+        return new ClientResponeDTO(id, name, List.of(), idPrefix, 0L);
+    }
+}
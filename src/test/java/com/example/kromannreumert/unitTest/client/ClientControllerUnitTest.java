@@ -12,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
@@ -21,6 +22,7 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 import static org.mockito.Mockito.*;
@@ -65,6 +67,23 @@ public class ClientControllerUnitTest {
         verify(clientService).getAllClients(anyString());
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void should_returnClientPage_whenPageIsGiven() throws Exception {
+        ClientResponeDTO dto = new ClientResponeDTO(1L, "TestClient", List.of("Partner One"), 1000L, 0L);
+
+        when(clientService.getClientsPage(any(Pageable.class), anyString()))
+                .thenReturn(new ClientPageDTO(List.of(dto), 0, 50, 1, 1));
+
+        mockMvc.perform(get(BASE).param("page", "0").param("sort", "name,asc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clients[0].name").value("TestClient"))
+                .andExpect(jsonPath("$.clients[0].users[0]").value("Partner One"));
+
+        verify(clientService).getClientsPage(any(Pageable.class), anyString());
+        verify(clientService, never()).getAllClients(anyString());
+    }
+
 
     @Test
     @WithMockUser(roles = "SAGSBEHANDLER")
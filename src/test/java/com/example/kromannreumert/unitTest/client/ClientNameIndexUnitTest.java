@@ -0,0 +1,132 @@
+package com.example.kromannreumert.unitTest.client;
+
+import com.example.kromannreumert.client.DTO.ClientSuggestionDTO;
+import com.example.kromannreumert.client.service.ClientNameIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class ClientNameIndexUnitTest {
+
+    private ClientNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // The mocked JdbcTemplate returns no rows, the clients are put by the tests
+        index = new ClientNameIndex(mock(JdbcTemplate.class));
+        index.rebuild();
+    }
+
+    @Test
+    void namePrefixMatchesComeBeforeWordMatches() {
+
+        // ARRANGE
+        index.put(1L, "Reumert Holding", 1000L);
+        index.put(2L, "Kromann Reumert", 2000L);
+        index.put(3L, "Reu Consulting", 3000L);
+
+        // ACT
+        List<ClientSuggestionDTO> result = index.suggest("reu", 10);
+
+        // ASSERT
+        assertEquals(List.of("Reu Consulting", "Reumert Holding", "Kromann Reumert"), names(result));
+    }
+
+    @Test
+    void queryIsFoldedLikeTheNames() {
+
+        // ARRANGE
+        index.put(1L, "Café Ørsted ApS", 1000L);
+
+        // ACT & ASSERT
+        assertEquals(1, index.suggest("CAFE", 10).size());
+        assertEquals(1, index.suggest("  ørst ", 10).size());
+        assertEquals(1, index.suggest("aps-cafe", 10).size());
+        assertTrue(index.suggest("orsted", 10).isEmpty(), "ø does not decompose to o");
+    }
+
+    @Test
+    void everyQueryWordNeedsItsOwnNameWord() {
+
+        // ARRANGE
+        index.put(1L, "Anders Andersen", 1000L);
+        index.put(2L, "Anders Hansen", 2000L);
+
+        // ACT
+        List<ClientSuggestionDTO> result = index.suggest("and and", 10);
+
+        // ASSERT
+        assertEquals(List.of("Anders Andersen"), names(result));
+    }
+
+    @Test
+    void digitsMatchTheIdPrefix() {
+
+        // ARRANGE
+        index.put(1L, "Kromann Reumert", 1000L);
+        index.put(2L, "AlphaSolution", 2000L);
+        index.put(3L, "Client 10", 3000L);
+
+        // ACT
+        List<ClientSuggestionDTO> result = index.suggest("10", 10);
+
+        // ASSERT
+        assertEquals(List.of("Kromann Reumert", "Client 10"), names(result));
+        assertEquals(1000L, result.get(0).idPrefix());
+    }
+
+    @Test
+    void renamedAndRemovedClientsAreNoLongerFound() {
+
+        // ARRANGE
+        index.put(1L, "Old Name", 1000L);
+        index.put(2L, "Other Name", 2000L);
+
+        // ACT
+        index.put(1L, "New Name", 1000L);
+        index.remove(2L);
+
+        // ASSERT
+        assertTrue(index.suggest("old", 10).isEmpty());
+        assertTrue(index.suggest("other", 10).isEmpty());
+        assertEquals(List.of("New Name"), names(index.suggest("name", 10)));
+    }
+
+    @Test
+    void topMatchesAreFoundAmongHundredThousandClients() {
+
+        // ARRANGE
+        String[] words = {"Holding", "Consulting", "Advokat", "Ejendomme", "Invest", "Søndergård", "Café", "Nordic",
+                "Partners", "Group", "Finans", "Logistik", "Energi", "Medical", "Data"};
+        String[] owners = {"Hansen", "Jensen", "Nielsen", "Pedersen", "Andersen", "Christensen", "Larsen", "Sørensen",
+                "Rasmussen", "Jørgensen", "Petersen", "Madsen", "Kristensen", "Olsen", "Thomsen", "Poulsen"};
+        Random random = new Random(42);
+        for (long id = 1; id <= 100_000; id++) {
+            String name = owners[random.nextInt(owners.length)] + " " + words[random.nextInt(words.length)] + " "
+                    + words[random.nextInt(words.length)];
+            index.put(id, name, 100_000 + id);
+        }
+
+        // ACT
+        List<ClientSuggestionDTO> twoWords = index.suggest("partners group", 10);
+        List<ClientSuggestionDTO> threeWords = index.suggest("medical nordic han", 10);
+        List<ClientSuggestionDTO> idPrefix = index.suggest("101234", 10);
+
+        // ASSERT
+        assertEquals(10, twoWords.size());
+        assertEquals(10, threeWords.size());
+        assertTrue(threeWords.stream().allMatch(client -> client.name().startsWith("Hansen")));
+        assertEquals(1_234L, idPrefix.get(0).id());
+        assertTrue(index.suggest("xyz", 10).isEmpty());
+    }
+
+    private static List<String> names(List<ClientSuggestionDTO> suggestions) {
+        return suggestions.stream().map(ClientSuggestionDTO::name).toList();
+    }
+}
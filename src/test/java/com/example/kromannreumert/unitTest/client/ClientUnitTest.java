@@ -1,13 +1,21 @@
 package com.example.kromannreumert.unitTest.client;
 
+import com.example.kromannreumert.client.DTO.ClientListRow;
 import com.example.kromannreumert.client.DTO.ClientRequestDTO;
 import com.example.kromannreumert.client.DTO.ClientResponeDTO;
+import com.example.kromannreumert.client.DTO.ClientUserNameRow;
 import com.example.kromannreumert.client.DTO.UpdateClientIdPrefixDTO;
 import com.example.kromannreumert.client.DTO.UpdateClientNameDTO;
 import com.example.kromannreumert.client.entity.Client;
 import com.example.kromannreumert.client.mapper.ClientMapper;
 import com.example.kromannreumert.client.repository.ClientRepository;
+import com.example.kromannreumert.client.service.ClientCache;
+import com.example.kromannreumert.client.service.ClientNameIndex;
 import com.example.kromannreumert.client.service.ClientService;
+import com.example.kromannreumert.counter.service.EntityCounters;
+import com.example.kromannreumert.etag.service.CollectionVersions;
+import com.example.kromannreumert.exception.customException.http4xxExceptions.UserNotFoundException;
+import com.example.kromannreumert.idprefix.service.IdPrefixAllocator;
 import com.example.kromannreumert.logging.entity.LogAction;
 import com.example.kromannreumert.logging.service.LoggingService;
 import com.example.kromannreumert.user.entity.Role;
@@ -18,7 +26,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -43,6 +54,21 @@ public class ClientUnitTest {
     @Mock
     LoggingService loggingService;
 
+    @Mock
+    IdPrefixAllocator idPrefixAllocator;
+
+    @Mock
+    CollectionVersions collectionVersions;
+
+    @Mock
+    EntityCounters entityCounters;
+
+    @Mock
+    ClientNameIndex clientNameIndex;
+
+    @Spy
+    ClientCache clientCache = new ClientCache(true, 100, 60_000, System::currentTimeMillis);
+
     @InjectMocks
     ClientService clientService;
 
@@ -53,11 +79,10 @@ public class ClientUnitTest {
         // ARRANGE
         Long idPrefix = 1000L;
         String clientName = "ClientTestName";
-        Client createClient = new Client(1L, clientName, null, idPrefix);
-        ClientResponeDTO convert = new ClientResponeDTO(1L, clientName, null, idPrefix);
+        ClientListRow row = new ClientListRow(1L, clientName, idPrefix, 0L);
 
-        when(clientRepository.findAll()).thenReturn(List.of(createClient));
-        when(clientMapper.toClientDTO(createClient)).thenReturn(convert);
+        when(clientRepository.findClientRows(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(row)));
+        when(clientRepository.findAllUserNameRows()).thenReturn(List.of(new ClientUserNameRow(1L, "Anna")));
 
         // ACT
         List<ClientResponeDTO> result = clientService.getAllClients("Abdi");
@@ -66,10 +91,11 @@ public class ClientUnitTest {
         assertNotNull(result);
         assertFalse(result.isEmpty());
         assertEquals(1, result.size());
-        assertEquals(createClient.getName(), result.getFirst().name());
-        assertEquals(createClient.getIDPrefix(), result.getFirst().idPrefix());
-        verify(clientRepository).findAll();
-        verify(clientMapper).toClientDTO(createClient);
+        assertEquals(clientName, result.getFirst().name());
+        assertEquals(idPrefix, result.getFirst().idPrefix());
+        assertEquals(List.of("Anna"), result.getFirst().users());
+        verify(clientRepository, never()).findAll();
+        verifyNoInteractions(clientMapper);
         verify(loggingService).log(eq(LogAction.VIEW_ALL_CLIENTS), eq("Abdi"), eq("Fetched all clients"));
 
     }
@@ -143,7 +169,8 @@ public class ClientUnitTest {
         Client convertDTOToClient = new Client(null, createClient.clientName(), null, createClient.idPrefix());
 
         when(clientRepository.save(any(Client.class))).thenReturn(convertDTOToClient);
-        when(userRepository.findByUsername("TestUser")).thenReturn(Optional.of(createUser));
+        when(userRepository.findAllByUsernameIn(Set.of("TestUser"))).thenReturn(List.of(createUser));
+        when(idPrefixAllocator.resolve(IdPrefixAllocator.Sequence.CLIENT, idPrefix)).thenReturn(idPrefix);
 
         // ACT
         String result = clientService.addClient(createClient, "Creator");
@@ -154,11 +181,30 @@ public class ClientUnitTest {
         assertNotNull(result);
         assertEquals(result, expectedResult);
         verify(clientRepository).save(any(Client.class));
-        verify(userRepository).findByUsername("TestUser");
+        verify(userRepository).findAllByUsernameIn(Set.of("TestUser"));
         verify(loggingService).log(eq(LogAction.CREATE_CLIENT), eq("Creator"), contains(createClient.clientName()));
 
     }
 
+    @Test
+    void should_report_every_unknown_username_when_adding_client() {
+
+        // ARRANGE
+        User known = new User(1L, "known", "Known", "known@1234", "1234", null, null);
+        ClientRequestDTO createClient = new ClientRequestDTO("ClientTest", Set.of("known", "ghost2", "ghost1"), 99000L);
+
+        when(userRepository.findAllByUsernameIn(Set.of("known", "ghost1", "ghost2"))).thenReturn(List.of(known));
+
+        // ACT
+        UserNotFoundException ex = assertThrows(UserNotFoundException.class,
+                () -> clientService.addClient(createClient, "Creator"));
+
+        // ASSERT
+        assertEquals("User not found: usernames=[ghost1, ghost2]", ex.getMessage());
+        verify(userRepository, times(1)).findAllByUsernameIn(any());
+        verify(clientRepository, never()).save(any(Client.class));
+    }
+
     @Test
     void should_update_client_name() {
 
@@ -224,7 +270,7 @@ public class ClientUnitTest {
         Long id = 1L;
         Client client = new Client(id, clientName, Set.of(), idPrefix);
 
-        doNothing().when(clientRepository).deleteById(id);
+        when(clientRepository.findById(id)).thenReturn(Optional.of(client));
 
         // ACT
         String expectedResult = "Client with id: " + id + " has been deleted";
@@ -233,7 +279,8 @@ public class ClientUnitTest {
         String result = clientService.deleteClient(id, "Remover");
         assertNotNull(result);
         assertEquals(result, expectedResult);
-        verify(clientRepository).deleteById(id);
+        verify(clientRepository).delete(client);
+        verify(entityCounters).deleted(EntityCounters.Entity.CLIENTS);
         verify(loggingService).log(eq(LogAction.DELETE_CLIENT), eq("Remover"), contains(id.toString()));
     }
 
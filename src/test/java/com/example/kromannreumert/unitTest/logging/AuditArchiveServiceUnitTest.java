@@ -0,0 +1,125 @@
+package com.example.kromannreumert.unitTest.logging;
+
+import com.example.kromannreumert.logging.config.AuditArchiveProperties;
+import com.example.kromannreumert.logging.dto.LogFilter;
+import com.example.kromannreumert.logging.dto.LogRow;
+import com.example.kromannreumert.logging.entity.LogAction;
+import com.example.kromannreumert.logging.entity.Logging;
+import com.example.kromannreumert.logging.service.AuditArchiveService;
+import com.example.kromannreumert.logging.service.AuditTableGeneration;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AuditArchiveServiceUnitTest {
+
+    @TempDir
+    Path archiveDir;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final LogFilter noFilter = new LogFilter(null, null, null, null);
+    private final AuditTableGeneration tableGeneration = mock(AuditTableGeneration.class);
+    private AuditArchiveService auditArchiveService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(tableGeneration.current()).thenReturn("current");
+        auditArchiveService = new AuditArchiveService(mock(JdbcTemplate.class), objectMapper,
+                new AuditArchiveProperties(true, archiveDir, 1, null, Map.of()), tableGeneration);
+        writeBatch("current", "2024-01", 1, 3);
+        writeBatch("current", "2024-01", 4, 6);
+
+        // Not a gzip file, reading it fails, so a page below id 7 must not open it
+        Path unreadable = Files.createDirectories(archiveDir.resolve("current").resolve("2024-02").resolve("7-9"));
+        Files.writeString(unreadable.resolve("CREATE_CLIENT.ndjson.gz"), "not gzip");
+    }
+
+    @Test
+    void pageBelowTheCursorSkipsNewerBatches() {
+
+        // ACT
+        List<Logging> page = auditArchiveService.readPage(noFilter, 7L, 4);
+
+        // ASSERT
+        assertEquals(List.of(6L, 5L, 4L, 3L), ids(page));
+    }
+
+    @Test
+    void pageStopsReadingAtTheCursorAndTheLimit() {
+
+        // ACT
+        List<Logging> page = auditArchiveService.readPage(noFilter, 5L, 2);
+
+        // ASSERT
+        assertEquals(List.of(4L, 3L), ids(page));
+    }
+
+    @Test
+    void pageWithoutCursorStillReadsTheNewestBatch() {
+        assertThrows(RuntimeException.class, () -> auditArchiveService.readPage(noFilter, null, 2));
+    }
+
+    @Test
+    void pageDoesNotReadArchivesOfAnEarlierTable() throws IOException {
+        // ARRANGE
+        // Archived from a logging table that was dropped since, in a newer month and with the same ids
+        writeBatch("earlier", "2024-03", 1, 6);
+
+        // ACT
+        List<Logging> page = auditArchiveService.readPage(noFilter, 7L, 10);
+
+        // ASSERT
+        assertEquals(List.of(6L, 5L, 4L, 3L, 2L, 1L), ids(page));
+        assertTrue(page.stream().allMatch(logging -> logging.getTimestamp().getMonthValue() == 1));
+    }
+
+    @Test
+    void retentionAlsoDeletesArchivesOfAnEarlierTable() throws IOException {
+        // ARRANGE
+        writeBatch("earlier", "2024-03", 1, 6);
+        AuditArchiveService withRetention = new AuditArchiveService(mock(JdbcTemplate.class), objectMapper,
+                new AuditArchiveProperties(true, archiveDir, 1, null, Map.of(LogAction.CREATE_CLIENT, 30)), tableGeneration);
+
+        // ACT
+        withRetention.rollover();
+
+        // ASSERT
+        assertFalse(Files.exists(archiveDir.resolve("earlier")));
+        assertFalse(Files.exists(archiveDir.resolve("current").resolve("2024-01")));
+    }
+
+    private void writeBatch(String generation, String month, long firstId, long lastId) throws IOException {
+        Path batch = Files.createDirectories(archiveDir.resolve(generation).resolve(month).resolve(firstId + "-" + lastId));
+        try (Writer writer = new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(batch.resolve("CREATE_CLIENT.ndjson.gz"))), StandardCharsets.UTF_8)) {
+            for (long id = firstId; id <= lastId; id++) {
+                LogRow row = new LogRow(id, "admin", "CREATE_CLIENT", "Created client " + id,
+                        YearMonth.parse(month).atDay(10).atTime(12, 0).plusMinutes(id), 1, null);
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+        }
+    }
+
+    private static List<Long> ids(List<Logging> page) {
+        return page.stream().map(Logging::getId).toList();
+    }
+}
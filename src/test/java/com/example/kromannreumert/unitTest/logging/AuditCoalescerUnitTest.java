@@ -0,0 +1,104 @@
+package com.example.kromannreumert.unitTest.logging;
+
+import com.example.kromannreumert.logging.entity.LogAction;
+import com.example.kromannreumert.logging.entity.Logging;
+import com.example.kromannreumert.logging.service.AuditCoalescer;
+import com.example.kromannreumert.logging.service.AuditLogWriter;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AuditCoalescerUnitTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final AuditLogWriter auditLogWriter = mock(AuditLogWriter.class);
+    private final AuditCoalescer coalescer = new AuditCoalescer(auditLogWriter, true, 60_000, 100, clock::get);
+
+    @Test
+    void coalescesRepeatedReadsIntoOneRow() {
+
+        // ARRANGE
+        Logging first = entry("admin", LogAction.CASE_READ, LocalDateTime.of(2025, 1, 1, 10, 0, 0));
+        Logging second = entry("admin", LogAction.CASE_READ, LocalDateTime.of(2025, 1, 1, 10, 0, 20));
+        Logging third = entry("admin", LogAction.CASE_READ, LocalDateTime.of(2025, 1, 1, 10, 0, 40));
+
+        // ACT
+        assertTrue(coalescer.accept(first));
+        assertTrue(coalescer.accept(second));
+        assertTrue(coalescer.accept(third));
+        coalescer.flushExpired();
+        verifyNoInteractions(auditLogWriter);
+
+        clock.addAndGet(60_000);
+        coalescer.flushExpired();
+
+        // ASSERT
+        ArgumentCaptor<Logging> captor = ArgumentCaptor.forClass(Logging.class);
+        verify(auditLogWriter).submit(captor.capture());
+        Logging row = captor.getValue();
+        assertEquals(3, row.getEventCount());
+        assertEquals(first.getTimestamp(), row.getTimestamp());
+        assertEquals(third.getTimestamp(), row.getLastTimestamp());
+        assertEquals(0, coalescer.getOpenWindows());
+    }
+
+    @Test
+    void writeActionsAreNotCoalesced() {
+
+        // ACT & ASSERT
+        assertFalse(coalescer.accept(entry("admin", LogAction.CASE_CREATE, LocalDateTime.now())));
+        assertFalse(coalescer.accept(entry("admin", LogAction.VIEW_ALL_TODOS_FAILED, LocalDateTime.now())));
+        assertEquals(0, coalescer.getOpenWindows());
+    }
+
+    @Test
+    void differentActorsGetSeparateRows() {
+
+        // ARRANGE
+        coalescer.accept(entry("admin", LogAction.VIEW_ALL_CLIENTS, LocalDateTime.now()));
+        coalescer.accept(entry("jurist", LogAction.VIEW_ALL_CLIENTS, LocalDateTime.now()));
+
+        // ACT
+        coalescer.flushAll();
+
+        // ASSERT
+        ArgumentCaptor<Logging> captor = ArgumentCaptor.forClass(Logging.class);
+        verify(auditLogWriter, times(2)).submit(captor.capture());
+        List<Logging> rows = captor.getAllValues();
+        assertTrue(rows.stream().allMatch(row -> row.getEventCount() == 1 && row.getLastTimestamp() == null));
+    }
+
+    @Test
+    void fallsBackToSingleRowsWhenTooManyWindowsAreOpen() {
+
+        // ARRANGE
+        AuditCoalescer small = new AuditCoalescer(auditLogWriter, true, 60_000, 1, clock::get);
+
+        // ACT & ASSERT
+        assertTrue(small.accept(entry("admin", LogAction.VIEW_ALL_TODOS, LocalDateTime.now())));
+        assertTrue(small.accept(entry("admin", LogAction.VIEW_ALL_TODOS, LocalDateTime.now())));
+        assertFalse(small.accept(entry("jurist", LogAction.VIEW_ALL_TODOS, LocalDateTime.now())));
+    }
+
+    @Test
+    void disabledCoalescerAcceptsNothing() {
+
+        // ARRANGE
+        AuditCoalescer disabled = new AuditCoalescer(auditLogWriter, false, 60_000, 100, clock::get);
+
+        // ACT & ASSERT
+        assertFalse(disabled.accept(entry("admin", LogAction.CASE_READ, LocalDateTime.now())));
+    }
+
+    private Logging entry(String actor, LogAction action, LocalDateTime timestamp) {
+        Logging logging = new Logging(actor, action, "Viewed");
+        logging.setTimestamp(timestamp);
+        return logging;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.kromannreumert.unitTest.logging;
+
+import com.example.kromannreumert.logging.dto.AuditEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuditEventUnitTest {
+
+    @Test
+    void writesOnlyChangedFields() {
+
+        // ACT
+        String json = AuditEvent.of("case.update")
+                .field("caseId", 4L)
+                .changed("name", "Old", "New")
+                .changed("idPrefix", 100L, 100L)
+                .changedIds("assigneeIds", List.of(1L, 2L), List.of(2L, 3L))
+                .toJson();
+
+        // ASSERT
+        assertEquals("{\"event\":\"case.update\",\"caseId\":4,\"name\":{\"from\":\"Old\",\"to\":\"New\"},"
+                + "\"assigneeIds\":{\"added\":[3],\"removed\":[1]}}", json);
+    }
+
+    @Test
+    void escapesStrings() {
+
+        // ACT
+        String json = AuditEvent.of("client.create").field("name", "A \"quoted\"\nname").toJson();
+
+        // ASSERT
+        assertEquals("{\"event\":\"client.create\",\"name\":\"A \\\"quoted\\\"\\nname\"}", json);
+    }
+
+    @Test
+    void staysWithinTheDetailsColumn() {
+
+        // ARRANGE
+        List<Long> manyIds = LongStream.rangeClosed(1, 500).boxed().toList();
+        AuditEvent event = AuditEvent.of("case.create").ids("assigneeIds", manyIds);
+
+        // ACT
+        for (int i = 0; i < 50; i++) {
+            event.field("field" + i, "x".repeat(500));
+        }
+        String json = event.toJson();
+
+        // ASSERT
+        assertTrue(json.length() <= AuditEvent.MAX_LENGTH);
+        assertTrue(json.contains("\"+450\""));
+        assertTrue(json.endsWith(",\"truncated\":true}"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.kromannreumert.unitTest.logging;
+
+import com.example.kromannreumert.logging.entity.LogAction;
+import com.example.kromannreumert.logging.entity.Logging;
+import com.example.kromannreumert.logging.service.AuditLogWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AuditLogWriterUnitTest {
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void queuedEntriesAreWrittenInOneBatch() {
+
+        // ARRANGE
+        AuditLogWriter writer = new AuditLogWriter(jdbcTemplate, transactionManager, 100, 50, 60_000, 5_000, AuditLogWriter.Backpressure.BLOCK);
+        writer.start();
+
+        // ACT
+        for (int i = 0; i < 10; i++) {
+            writer.submit(new Logging("Zahaa", LogAction.VIEW_ALL_TODOS, "Viewed todos " + i));
+        }
+        writer.shutdown();
+
+        // ASSERT
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(10, writer.getWritten());
+        assertEquals(0, writer.getQueueSize());
+    }
+
+    @Test
+    void stoppedWriterWritesSynchronously() {
+
+        // ARRANGE
+        AuditLogWriter writer = new AuditLogWriter(jdbcTemplate, transactionManager, 100, 50, 500, 5_000, AuditLogWriter.Backpressure.DROP_READS);
+
+        // ACT
+        writer.submit(new Logging("Zahaa", LogAction.CREATE_CLIENT, "Created client"));
+
+        // ASSERT
+        verify(jdbcTemplate).batchUpdate(anyString(), anyCollection(), eq(1), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(1, writer.getWritten());
+    }
+
+    @Test
+    void failedBatchIsRolledBackBeforeItIsRetried() {
+
+        // ARRANGE
+        AuditLogWriter writer = new AuditLogWriter(jdbcTemplate, transactionManager, 100, 50, 500, 5_000, AuditLogWriter.Backpressure.SYNC);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection reset"))
+                .thenReturn(new int[][]{{1}});
+
+        // ACT
+        boolean stored = writer.writeNow(List.of(new Logging("Zahaa", LogAction.CREATE_CLIENT, "Created client")));
+
+        // ASSERT
+        assertTrue(stored);
+        verify(transactionManager).rollback(any());
+        verify(transactionManager).commit(any());
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyCollection(), eq(1), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(1, writer.getWritten());
+    }
+
+    @Test
+    void readActionsAreReadOnly() {
+        assertTrue(LogAction.VIEW_ALL_CLIENTS.isReadOnly());
+        assertTrue(LogAction.CASE_READ.isReadOnly());
+        assertFalse(LogAction.VIEW_ALL_CLIENTS_FAILED.isReadOnly());
+        assertFalse(LogAction.UPDATE_CLIENT.isReadOnly());
+    }
+}
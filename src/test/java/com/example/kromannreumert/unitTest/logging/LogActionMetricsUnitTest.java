@@ -0,0 +1,80 @@
+package com.example.kromannreumert.unitTest.logging;
+
+import com.example.kromannreumert.logging.dto.LogActionRateDTO;
+import com.example.kromannreumert.logging.entity.LogAction;
+import com.example.kromannreumert.logging.service.LogActionMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogActionMetricsUnitTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final LogActionMetrics metrics = new LogActionMetrics(clock::get);
+
+    @Test
+    void countsEventsInSlidingWindows() {
+
+        // ARRANGE
+        metrics.record(LogAction.LOGIN_FAILED);
+        clock.addAndGet(120);
+        metrics.record(LogAction.LOGIN_FAILED);
+        metrics.record(LogAction.LOGIN_FAILED);
+
+        // ACT
+        LogActionRateDTO rate = metrics.getRate(LogAction.LOGIN_FAILED);
+
+        // ASSERT
+        assertEquals(3, rate.total());
+        assertEquals(2, rate.lastMinute());
+        assertEquals(3, rate.lastFiveMinutes());
+        assertEquals(0.6, rate.perMinute(), 0.0001);
+    }
+
+    @Test
+    void oldBucketsFallOutOfTheWindow() {
+
+        // ARRANGE
+        metrics.record(LogAction.VIEW_ALL_TODOS);
+        clock.addAndGet(301);
+
+        // ACT
+        LogActionRateDTO rate = metrics.getRate(LogAction.VIEW_ALL_TODOS);
+
+        // ASSERT
+        assertEquals(1, rate.total());
+        assertEquals(0, rate.lastFiveMinutes());
+    }
+
+    @Test
+    void onlyRecordedActionsAreListed() {
+        metrics.record(LogAction.UPDATE_CLIENT_FAILED);
+
+        List<LogActionRateDTO> rates = metrics.getRates();
+
+        assertEquals(1, rates.size());
+        assertEquals(LogAction.UPDATE_CLIENT_FAILED, rates.getFirst().action());
+    }
+
+    @Test
+    void concurrentUpdatesAreNotLost() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    metrics.record(LogAction.VIEW_ALL_CLIENTS);
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(80_000, metrics.getRate(LogAction.VIEW_ALL_CLIENTS).lastMinute());
+    }
+}
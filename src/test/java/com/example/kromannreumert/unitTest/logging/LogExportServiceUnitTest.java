@@ -0,0 +1,75 @@
+package com.example.kromannreumert.unitTest.logging;
+
+import com.example.kromannreumert.logging.dto.LogFilter;
+import com.example.kromannreumert.logging.entity.LogAction;
+import com.example.kromannreumert.logging.service.AuditArchiveService;
+import com.example.kromannreumert.logging.service.LogExportService;
+import com.example.kromannreumert.logging.service.LoggingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LogExportServiceUnitTest {
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    LoggingService loggingService;
+
+    @Mock
+    AuditArchiveService auditArchiveService;
+
+    private LogExportService logExportService;
+
+    private final LogFilter filter = new LogFilter(null, null, null, null);
+
+    @BeforeEach
+    void setUp() {
+        logExportService = new LogExportService(jdbcTemplate, new ObjectMapper(), loggingService, auditArchiveService, 1000);
+    }
+
+    @Test
+    void exportIsAuditedOnceItIsWritten() {
+
+        // ACT
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        logExportService.export(filter, LogExportService.Format.CSV, false, out, "admin");
+
+        // ASSERT
+        assertTrue(out.toString().startsWith("id,actor,action"));
+        verify(loggingService).log(eq(LogAction.EXPORT_LOGS), eq("admin"), startsWith("Exported 0 logs as CSV"));
+        verify(loggingService, never()).log(eq(LogAction.EXPORT_LOGS_FAILED), anyString(), anyString());
+    }
+
+    @Test
+    void failedExportIsOnlyAuditedAsFailed() {
+
+        // ARRANGE
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("client went away");
+            }
+        };
+
+        // ACT & ASSERT
+        assertThrows(RuntimeException.class,
+                () -> logExportService.export(filter, LogExportService.Format.CSV, false, broken, "admin"));
+        verify(loggingService).log(eq(LogAction.EXPORT_LOGS_FAILED), eq("admin"), contains("client went away"));
+        verify(loggingService, never()).log(eq(LogAction.EXPORT_LOGS), anyString(), anyString());
+    }
+}
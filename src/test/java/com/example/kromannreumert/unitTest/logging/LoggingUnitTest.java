@@ -1,8 +1,15 @@
 package com.example.kromannreumert.unitTest.logging;
 
+import com.example.kromannreumert.logging.dto.LogFilter;
+import com.example.kromannreumert.logging.dto.LogPageDTO;
 import com.example.kromannreumert.logging.entity.LogAction;
 import com.example.kromannreumert.logging.entity.Logging;
 import com.example.kromannreumert.logging.repository.LogRepository;
+import com.example.kromannreumert.logging.service.AuditArchiveService;
+import com.example.kromannreumert.logging.service.AuditCoalescer;
+import com.example.kromannreumert.logging.service.AuditLogWriter;
+import com.example.kromannreumert.logging.service.AuditOutbox;
+import com.example.kromannreumert.logging.service.LogActionMetrics;
 import com.example.kromannreumert.logging.service.LoggingService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,6 +17,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.security.Principal;
 import java.util.List;
@@ -27,6 +35,21 @@ public class LoggingUnitTest {
     @Mock
     LogRepository logRepository;
 
+    @Mock
+    AuditLogWriter auditLogWriter;
+
+    @Mock
+    AuditArchiveService auditArchiveService;
+
+    @Mock
+    LogActionMetrics logActionMetrics;
+
+    @Mock
+    AuditCoalescer auditCoalescer;
+
+    @Mock
+    AuditOutbox auditOutbox;
+
     @Test
     void getAllLogs() {
         Principal principal = mock(Principal.class);
@@ -34,7 +57,7 @@ public class LoggingUnitTest {
 
         // ARRANGE
         List<Logging> addData = List.of(new Logging("Zahaa", LogAction.CREATE_USER, "user created"));
-        when(logRepository.findAll()).thenReturn(addData);
+        when(logRepository.findTop1000ByOrderByIdDesc()).thenReturn(addData);
 
         // ACT
         List<Logging> result = loggingService.getAllLogs(principal.getName());
@@ -42,7 +65,7 @@ public class LoggingUnitTest {
         // ASSERT
         assertNotNull(result);
         assertFalse(result.isEmpty());
-        verify(logRepository).findAll();
+        verify(logRepository).findTop1000ByOrderByIdDesc();
 
     }
 
@@ -57,13 +80,14 @@ public class LoggingUnitTest {
         // ACT
         ArgumentCaptor<Logging> logsObject = ArgumentCaptor.forClass(Logging.class);
         loggingService.log(action,actor, details);
-        verify(logRepository).save(logsObject.capture());
+        verify(auditLogWriter).submit(logsObject.capture());
         Logging loggedContext = logsObject.getValue();
 
         // ASSERT
         assertEquals(actor, loggedContext.getActor());
         assertEquals(action, loggedContext.getAction());
         assertEquals(details, loggedContext.getDetails());
+        verify(logActionMetrics).record(action);
 
     }
 
@@ -88,4 +112,40 @@ public class LoggingUnitTest {
 
     }
 
+    @Test
+    void getLogsReturnsCursorWhenPageIsFull() {
+
+        // ARRANGE
+        Logging first = new Logging("Zahaa", LogAction.LOGIN_FAILED, "User failed to login");
+        first.setId(12L);
+        Logging second = new Logging("Zahaa", LogAction.LOGIN_FAILED, "User failed to login");
+        second.setId(7L);
+        when(logRepository.findBy(any(Specification.class), any())).thenReturn(List.of(first, second));
+
+        // ACT
+        LogPageDTO page = loggingService.getLogs(new LogFilter("Zahaa", LogAction.LOGIN_FAILED, null, null), null, 2, "admin");
+
+        // ASSERT
+        assertEquals(2, page.logs().size());
+        assertEquals(7L, page.nextCursor());
+        verify(auditLogWriter).submit(any(Logging.class));
+    }
+
+    @Test
+    void getLogsReturnsNoCursorOnLastPage() {
+
+        // ARRANGE
+        Logging only = new Logging("Zahaa", LogAction.LOGIN_FAILED, "User failed to login");
+        only.setId(3L);
+        when(logRepository.findBy(any(Specification.class), any())).thenReturn(List.of(only));
+
+        // ACT
+        LogPageDTO page = loggingService.getLogs(new LogFilter(null, null, null, null), 7L, 50, "admin");
+
+        // ASSERT
+        assertEquals(1, page.logs().size());
+        assertNull(page.nextCursor());
+        verify(auditArchiveService).readPage(any(LogFilter.class), eq(3L), eq(49));
+    }
+
 }
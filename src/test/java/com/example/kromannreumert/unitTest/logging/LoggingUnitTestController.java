@@ -2,6 +2,9 @@ package com.example.kromannreumert.unitTest.logging;
 
 import com.example.kromannreumert.security.config.SecurityConfig;
 import com.example.kromannreumert.logging.controller.LogController;
+import com.example.kromannreumert.logging.service.AuditSearchIndex;
+import com.example.kromannreumert.logging.service.AuditVerificationService;
+import com.example.kromannreumert.logging.service.LogExportService;
 import com.example.kromannreumert.logging.service.LoggingService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +29,15 @@ public class LoggingUnitTestController {
     @MockitoBean
     LoggingService loggingService;
 
+    @MockitoBean
+    LogExportService logExportService;
+
+    @MockitoBean
+    AuditVerificationService auditVerificationService;
+
+    @MockitoBean
+    AuditSearchIndex auditSearchIndex;
+
 
     @Test
     @WithMockUser(roles = "ADMIN") // <-- Mocks a user that has access
@@ -47,4 +59,62 @@ public class LoggingUnitTestController {
                 .andExpect(MockMvcResultMatchers.status().isForbidden());
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void accessLogsPageWithFilters() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/admin/logs")
+                        .param("actor", "admin")
+                        .param("action", "LOGIN_FAILED")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("cursor", "100")
+                        .param("limit", "20"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    @Test
+    @WithMockUser(roles = "JURIST")
+    void accessDeniedToLogsPageWhileLoggedIn() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/admin/logs"))
+                .andExpect(MockMvcResultMatchers.status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "PARTNER")
+    void accessDeniedToLogExportWhileLoggedIn() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/admin/logs/export"))
+                .andExpect(MockMvcResultMatchers.status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void accessLogMetricsWhileLoggedIn() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/admin/logs/metrics"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void accessLogVerification() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/admin/logs/verify")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-02-01T00:00:00"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    @Test
+    @WithMockUser(roles = "SAGSBEHANDLER")
+    void accessDeniedToLogVerification() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/admin/logs/verify/status"))
+                .andExpect(MockMvcResultMatchers.status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void accessLogSearch() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/admin/logs/search")
+                        .param("q", "client 99*")
+                        .param("action", "CREATE_CLIENT"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
 }
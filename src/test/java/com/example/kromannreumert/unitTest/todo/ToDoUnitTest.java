@@ -1,5 +1,7 @@
 package com.example.kromannreumert.unitTest.todo;
 
+import com.example.kromannreumert.counter.service.EntityCounters;
+import com.example.kromannreumert.etag.service.CollectionVersions;
 import com.example.kromannreumert.logging.entity.LogAction;
 import com.example.kromannreumert.logging.service.LoggingService;
 import com.example.kromannreumert.todo.dto.ToDoRequestDto;
@@ -22,11 +24,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -49,15 +53,20 @@ public class ToDoUnitTest {
     @Mock
     UserRepository userRepository;
 
+    @Mock
+    CollectionVersions collectionVersions;
+
+    @Mock
+    EntityCounters entityCounters;
+
     @Test
     void getToDoSize_returnsNumberOfTodos() {
-        List<ToDo> toDos = List.of(new ToDo(), new ToDo(), new ToDo());
-        when(toDoRepository.findAll()).thenReturn(toDos);
+        when(entityCounters.count(EntityCounters.Entity.TODOS)).thenReturn(3L);
 
         int size = toDoService.getToDoSize();
 
         assertEquals(3, size);
-        verify(toDoRepository).findAll();
+        verify(toDoRepository, never()).findAll();
     }
 
     @Test
@@ -111,7 +120,7 @@ public class ToDoUnitTest {
 
         verify(userRepository).findByUsername(userName);
         verify(toDoRepository).findAllByArchivedFalse();
-        verify(toDoRepository, never()).findDistinctByCaseId_Users_UsernameAndArchivedFalse(anyString());
+        verify(toDoRepository, never()).findOpenByCaseAssignee(any());
         verify(toDoMapper).toToDoResponseDto(entity);
         verify(loggingService).log(eq(LogAction.VIEW_ALL_TODOS), eq(userName), anyString());
     }
@@ -122,6 +131,7 @@ public class ToDoUnitTest {
 
         Role juristRole = new Role(4L, "JURIST");
         User jurist = User.builder()
+                .userId(4L)
                 .username(userName)
                 .name("Jurist User")
                 .email("jurist@example.com")
@@ -157,7 +167,7 @@ public class ToDoUnitTest {
         );
 
         when(userRepository.findByUsername(userName)).thenReturn(Optional.of(jurist));
-        when(toDoRepository.findDistinctByCaseId_Users_UsernameAndArchivedFalse(userName))
+        when(toDoRepository.findOpenByCaseAssignee(4L))
                 .thenReturn(List.of(entity));
         when(toDoMapper.toToDoResponseDto(entity)).thenReturn(dto);
 
@@ -167,7 +177,7 @@ public class ToDoUnitTest {
         assertEquals(dto, result.getFirst());
 
         verify(userRepository).findByUsername(userName);
-        verify(toDoRepository).findDistinctByCaseId_Users_UsernameAndArchivedFalse(userName);
+        verify(toDoRepository).findOpenByCaseAssignee(4L);
         verify(toDoRepository, never()).findAllByArchivedFalse();
         verify(toDoMapper).toToDoResponseDto(entity);
         verify(loggingService).log(eq(LogAction.VIEW_ALL_TODOS), eq(userName), anyString());
@@ -291,6 +301,38 @@ public class ToDoUnitTest {
         verify(loggingService).log(eq(LogAction.DELETE_TODO), eq(userName), anyString());
     }
 
+    @Test
+    void updateToDo_onlyChangesAssigneesThatDiffer() {
+        User kept = new User();
+        kept.setUserId(3L);
+        User removed = new User();
+        removed.setUserId(4L);
+        User added = new User();
+        added.setUserId(5L);
+
+        ToDo existing = new ToDo();
+        existing.setId(1L);
+        existing.setUsers(new HashSet<>(Set.of(kept, removed)));
+
+        // Assignees arrive from the request as detached users with only an id
+        User keptInRequest = new User();
+        keptInRequest.setUserId(3L);
+        User addedInRequest = new User();
+        addedInRequest.setUserId(5L);
+        ToDoRequestDto request = new ToDoRequestDto("NDA", "Draft NDA", LocalDate.of(2025, 12, 1), LocalDate.of(2025, 12, 2),
+                Set.of(keptInRequest, addedInRequest), Priority.HIGH, Status.IN_PROGRESS, false);
+
+        when(toDoRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(userRepository.findAllByUserIdIn(Set.of(5L))).thenReturn(List.of(added));
+
+        toDoService.updateTodo(1L, "admin", request);
+
+        assertTrue(existing.getUsers().contains(kept));
+        assertTrue(existing.getUsers().contains(added));
+        assertEquals(2, existing.getUsers().size());
+        verify(userRepository).findAllByUserIdIn(Set.of(5L));
+    }
+
     @Test
     void updateToDo_updatesToDoAndReturnsDto() {
         String userName = "jurist";
@@ -35,8 +35,8 @@ INSERT INTO to_do ( name, description, case_id, created, start_date, end_date, a
 
 INSERT INTO logging (actor, action, details, timestamp)
 VALUES ('admin', 'CREATE_CLIENT', 'Created client Kromann Reumert', '2024-02-01 09:00:00'),
-       ('partner01', 'CREATE_CASE', 'Created Contract Review for client 1', '2024-02-01 10:00:00'),
-       ('worker01', 'ASSIGN_TODO', 'Assigned ToDo 1 to worker01', '2024-02-02 11:00:00');
+       ('partner01', 'CASE_CREATE', 'Created Contract Review for client 1', '2024-02-01 10:00:00'),
+       ('worker01', 'UPDATE_TODO', 'Assigned ToDo 1 to worker01', '2024-02-02 11:00:00');
 
 INSERT INTO client_assignee (user_id, client_id)
 VALUES (2, 1),
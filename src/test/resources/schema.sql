@@ -21,7 +21,8 @@ CREATE TABLE user_roles (
 CREATE TABLE client (
                         id BIGINT AUTO_INCREMENT PRIMARY KEY,
                         name VARCHAR(255) NOT NULL UNIQUE,
-                        idprefix BIGINT
+                        idprefix BIGINT,
+                        version BIGINT DEFAULT 0 NOT NULL
 );
 
 CREATE TABLE casee (
@@ -29,7 +30,8 @@ CREATE TABLE casee (
                       name VARCHAR(255) NOT NULL,
                       client_id BIGINT NOT NULL,
                       id_prefix BIGINT,
-                      responsible_user_user_id BIGINT
+                      responsible_user_user_id BIGINT,
+                      version BIGINT DEFAULT 0 NOT NULL
 );
 
 CREATE TABLE to_do (
@@ -42,7 +44,8 @@ CREATE TABLE to_do (
                        end_date DATE,
                        archived BOOLEAN,
                        priority VARCHAR(50),
-                       status VARCHAR(50)
+                       status VARCHAR(50),
+                       version BIGINT DEFAULT 0 NOT NULL
 );
 
 CREATE TABLE logging (
@@ -50,7 +53,41 @@ CREATE TABLE logging (
                          actor VARCHAR(255) NOT NULL,
                          action VARCHAR(255) NOT NULL,
                          details VARCHAR(2000),
-                         timestamp TIMESTAMP NOT NULL
+                         timestamp TIMESTAMP NOT NULL,
+                         event_count INT DEFAULT 1,
+                         last_timestamp TIMESTAMP,
+                         prev_hash VARCHAR(64),
+                         hash VARCHAR(64)
+);
+
+CREATE INDEX idx_logging_actor_id ON logging (actor, id);
+CREATE INDEX idx_logging_action_id ON logging (action, id);
+CREATE INDEX idx_logging_timestamp_id ON logging (timestamp, id);
+
+CREATE TABLE audit_outbox (
+                              id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                              actor VARCHAR(255),
+                              action VARCHAR(255),
+                              details VARCHAR(2000),
+                              timestamp TIMESTAMP
+);
+
+CREATE TABLE audit_checkpoint (
+                                  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                  first_log_id BIGINT,
+                                  last_log_id BIGINT,
+                                  row_count INT NOT NULL,
+                                  merkle_root VARCHAR(64),
+                                  last_hash VARCHAR(64),
+                                  created_at TIMESTAMP
+);
+
+CREATE INDEX idx_audit_checkpoint_last_log_id ON audit_checkpoint (last_log_id);
+
+CREATE TABLE audit_generation (
+                                  id BIGINT PRIMARY KEY,
+                                  generation VARCHAR(36),
+                                  created_at TIMESTAMP
 );
 
 CREATE TABLE client_assignee (
@@ -66,9 +103,15 @@ CREATE TABLE case_assignee (
                                FOREIGN KEY (case_id) REFERENCES casee(id),
                                FOREIGN KEY (user_id) REFERENCES users(user_id)
 );
+CREATE INDEX idx_case_assignee_user ON case_assignee (user_id, case_id);
 
 CREATE TABLE todo_assignee (
                                todo_id BIGINT NOT NULL,
                                user_id BIGINT NOT NULL,
                                PRIMARY KEY (todo_id,user_id)
 );
+
+CREATE TABLE id_prefix_sequence (
+                                    name VARCHAR(32) PRIMARY KEY,
+                                    next_value BIGINT NOT NULL
+);